@@ -0,0 +1,59 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.impl.Parseable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ConfigFactory#load(String)} of a YAML document with
+ * loading of the equivalent HOCON document through {@link Parseable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigFactoryBenchmark {
+
+    @Param({"1024", "65536", "1048576", "52428800"})
+    public int bytes;
+
+    private ClassLoader classLoader;
+    private ConfigParseOptions parseOptions;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        classLoader = YamlCorpus.write(Files.createTempDirectory("yaml-corpus"), "corpus", bytes, 42L);
+        parseOptions = ConfigParseOptions.defaults().setClassLoader(classLoader);
+    }
+
+    @Benchmark
+    public Config loadYaml() {
+        return ConfigFactory.load("corpus.yaml", parseOptions, ConfigResolveOptions.defaults());
+    }
+
+    @Benchmark
+    public Config loadHocon() {
+        Config config = Parseable.newResources("corpus.conf", parseOptions).parse().toConfig();
+        return ConfigFactory.load(classLoader, config, ConfigResolveOptions.defaults());
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.impl.ConfigFootprint;
+
+/**
+ * Prints footprint of a config resource on the classpath.
+ *
+ * <pre>
+ *     java -cp benchmarks.jar:app.jar com.github.vitalibo.config.ConfigFootprintReport application 20
+ * </pre>
+ */
+public final class ConfigFootprintReport {
+
+    private ConfigFootprintReport() {
+    }
+
+    /**
+     * @param args resource name (optionally without extension) and
+     *             optional number of subtrees to print
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: ConfigFootprintReport <resource> [limit]");
+            System.exit(1);
+        }
+
+        ConfigFootprint footprint = ConfigFootprint.of(
+            ConfigFactory.parseResourcesAnySyntax(args[0]).root());
+        System.out.print(footprint.render(args.length > 1 ? Integer.parseInt(args[1]) : 20));
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.impl.YamlParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic generator of synthetic YAML documents used by benchmarks.
+ * The same size and seed always produce the same document, so results of
+ * different library versions can be compared.
+ */
+public final class YamlCorpus {
+
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+    private static final String[] REGIONS = {"us-east-1", "us-west-2", "eu-west-1", "ap-south-1"};
+
+    private YamlCorpus() {
+    }
+
+    /**
+     * Generates YAML document of approximately the given size. Document
+     * consists of service sections with scalars, nested objects, lists and
+     * substitutions referencing values of the same section.
+     *
+     * @param bytes approximate size of the document
+     * @param seed  seed of the pseudo-random generator
+     * @return YAML document
+     */
+    public static String yaml(int bytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(bytes + 512);
+        for (int i = 0; sb.length() < bytes; i++) {
+            String name = "service" + i;
+            sb.append(name).append(":\n")
+                .append("  host: ").append(name).append('.').append(REGIONS[random.nextInt(REGIONS.length)])
+                .append(".example.com\n")
+                .append("  port: ").append(1024 + random.nextInt(60000)).append('\n')
+                .append("  url: \"http://${").append(name).append(".host}:${").append(name).append(".port}/api\"\n")
+                .append("  enabled: ").append(random.nextBoolean()).append('\n')
+                .append("  weight: ").append(random.nextInt(1000) / 10.0).append('\n')
+                .append("  log:\n")
+                .append("    level: ").append(LEVELS[random.nextInt(LEVELS.length)]).append('\n')
+                .append("  retry:\n")
+                .append("    attempts: ").append(1 + random.nextInt(5)).append('\n')
+                .append("    backoff: ").append(50 * (1 + random.nextInt(10))).append("ms\n")
+                .append("  timeouts:\n")
+                .append("    connect: ").append(1 + random.nextInt(5)).append("s\n")
+                .append("    read: ").append(1 + random.nextInt(30)).append("s\n")
+                .append("  allowlist:\n");
+            for (int j = random.nextInt(8); j >= 0; j--) {
+                sb.append("    - ").append(random.nextInt(1 << 20)).append('\n');
+            }
+            sb.append("  tags: [ ").append(name).append(", ").append(REGIONS[random.nextInt(REGIONS.length)])
+                .append(" ]\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Generates map from dotted path expressions to values, like one built
+     * from a flat key/value store.
+     *
+     * @param entries number of entries
+     * @param depth   number of elements in each path
+     * @param seed    seed of the pseudo-random generator
+     * @return map of path expressions
+     */
+    public static Map<String, Object> pathMap(int entries, int depth, long seed) {
+        Random random = new Random(seed);
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            StringBuilder path = new StringBuilder("root");
+            for (int j = 1; j < depth; j++) {
+                path.append(".level").append(j).append('_').append(random.nextInt(8));
+            }
+            path.append(".key").append(i);
+            map.put(path.toString(), random.nextBoolean() ? (Object) random.nextInt() : "value" + i);
+        }
+
+        return map;
+    }
+
+    /**
+     * Generates string with the given number of substitutions separated by
+     * short literals.
+     *
+     * @param substitutions number of substitutions
+     * @return string in YAML substitution syntax
+     */
+    public static String substitutions(int substitutions) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < substitutions; i++) {
+            sb.append("/${service").append(i).append(".host}:${service").append(i).append(".port}");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes YAML document and equivalent HOCON document as {@code name.yaml}
+     * and {@code name.conf} into the given directory.
+     *
+     * @return class loader for resources in the directory
+     */
+    public static ClassLoader write(Path directory, String name, int bytes, long seed) {
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(name + ".yaml"), yaml(bytes, seed).getBytes(StandardCharsets.UTF_8));
+            ClassLoader classLoader = classLoader(directory);
+
+            String hocon = YamlParser
+                .parseResourcesYamlSyntax(name + ".yaml", ConfigParseOptions.defaults().setClassLoader(classLoader))
+                .render(ConfigRenderOptions.defaults().setOriginComments(false).setJson(false));
+            Files.write(directory.resolve(name + ".conf"), hocon.getBytes(StandardCharsets.UTF_8));
+            return classLoader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ClassLoader classLoader(Path directory) throws MalformedURLException {
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, YamlCorpus.class.getClassLoader());
+    }
+
+}
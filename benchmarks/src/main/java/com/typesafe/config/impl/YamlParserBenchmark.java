@@ -0,0 +1,87 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlCorpus;
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigParseOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the stages of YAML load pipeline in {@link YamlParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlParserBenchmark {
+
+    private static final ConfigOrigin origin = SimpleConfigOrigin.newSimple("benchmark");
+
+    @Param({"1024", "65536", "1048576", "52428800"})
+    public int bytes;
+
+    private ConfigParseOptions parseOptions;
+    private Object document;
+    private Map<String, Object> pathMap;
+    private String substitutions;
+    private ConfigObject unresolved;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path directory = Files.createTempDirectory("yaml-corpus");
+        parseOptions = ConfigParseOptions.defaults()
+            .setClassLoader(YamlCorpus.write(directory, "corpus", bytes, 42L));
+        document = new Yaml().load(YamlCorpus.yaml(bytes, 42L));
+        pathMap = YamlCorpus.pathMap(Math.max(bytes / 64, 1), 8, 42L);
+        substitutions = YamlCorpus.substitutions(Math.max(bytes / 1024, 1));
+        unresolved = YamlParser.parseResourcesYamlSyntax("corpus.yaml", parseOptions);
+    }
+
+    @Benchmark
+    public ConfigObject parseResourcesYamlSyntax() {
+        return YamlParser.parseResourcesYamlSyntax("corpus.yaml", parseOptions);
+    }
+
+    @Benchmark
+    public AbstractConfigValue fromAnyRef() {
+        return YamlParser.fromAnyRef(document, origin, FromMapMode.KEYS_ARE_KEYS, YamlParseOptions.defaults());
+    }
+
+    @Benchmark
+    public ConfigObject fromPathMap() {
+        return YamlParser.fromPathMap(pathMap, "benchmark");
+    }
+
+    @Benchmark
+    public AbstractConfigValue fromString() {
+        return YamlParser.fromString(origin, substitutions);
+    }
+
+    @Benchmark
+    public Config resolve() {
+        return unresolved.toConfig().resolve();
+    }
+
+}
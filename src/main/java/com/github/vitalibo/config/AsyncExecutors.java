@@ -0,0 +1,64 @@
+package com.github.vitalibo.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default executor of asynchronous loads. Uses a virtual thread per task
+ * when the runtime supports virtual threads, so blocking classpath I/O
+ * doesn't occupy platform threads; otherwise falls back to a shared pool
+ * of at most {@link #POOL_SIZE} daemon threads, which queues loads beyond
+ * that and lets idle threads terminate.
+ */
+final class AsyncExecutors {
+
+    // loads mostly wait for I/O, so the pool is larger than the number of processors
+    static final int POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private AsyncExecutors() {
+    }
+
+    static Executor defaultExecutor() {
+        return Holder.executor;
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService daemonThreadExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "config-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Holder {
+        static final Executor executor = executor();
+
+        private static Executor executor() {
+            ExecutorService executor = virtualThreadExecutor();
+            return executor != null ? executor : daemonThreadExecutor();
+        }
+    }
+
+}
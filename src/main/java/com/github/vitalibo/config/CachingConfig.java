@@ -0,0 +1,369 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.impl.ForwardingConfig;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Config which memoizes results of its getters per path and type. Configs
+ * are immutable, so after the first read of a path every read of it with
+ * the same getter is a single hash lookup, with no path parsing, tree walk
+ * or conversion. Durations and memory sizes are read with
+ * {@link ConfigUnits}, so values parsed at load time aren't parsed at all.
+ *
+ * <p>
+ * Lists returned by the getters are unmodifiable, since they are shared
+ * by all callers. Failed reads are not cached and fail again on every
+ * call. {@link #getAnyRef} and {@link #getAnyRefList} return mutable
+ * collections and are not cached either.
+ */
+public final class CachingConfig extends ForwardingConfig {
+
+    private enum Kind {
+        HAS_PATH,
+        HAS_PATH_OR_NULL,
+        IS_NULL,
+        BOOLEAN,
+        NUMBER,
+        INT,
+        LONG,
+        DOUBLE,
+        STRING,
+        OBJECT,
+        CONFIG,
+        VALUE,
+        BYTES,
+        MEMORY_SIZE,
+        DURATION,
+        PERIOD,
+        TEMPORAL,
+        LIST,
+        BOOLEAN_LIST,
+        NUMBER_LIST,
+        INT_LIST,
+        LONG_LIST,
+        DOUBLE_LIST,
+        STRING_LIST,
+        OBJECT_LIST,
+        CONFIG_LIST,
+        BYTES_LIST,
+        MEMORY_SIZE_LIST,
+        DURATION_LIST
+    }
+
+    // tables indexed by ordinal of the kind or time unit
+    final private List<ConcurrentHashMap<String, Object>> tables = newTables(Kind.values().length);
+    final private List<ConcurrentHashMap<String, Object>> durations = newTables(TimeUnit.values().length);
+    final private List<ConcurrentHashMap<String, Object>> durationLists = newTables(TimeUnit.values().length);
+    final private ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Object>> enums = new ConcurrentHashMap<>();
+    final private ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Object>> enumLists =
+        new ConcurrentHashMap<>();
+    final private LongAdder hits = new LongAdder();
+    final private LongAdder misses = new LongAdder();
+
+    private CachingConfig(Config delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Wraps the config into one which memoizes its getters.
+     *
+     * @param config config to wrap
+     * @return the caching config, or the config itself if it is one already
+     */
+    public static CachingConfig of(Config config) {
+        if (config instanceof CachingConfig)
+            return (CachingConfig) config;
+        else
+            return new CachingConfig(config);
+    }
+
+    /**
+     * @return number of reads answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of reads which called the getter of the wrapped config
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of cached results
+     */
+    public int size() {
+        return size(tables) + size(durations) + size(durationLists) + size(enums.values())
+            + size(enumLists.values());
+    }
+
+    @Override
+    public Config resolve() {
+        return isResolved() ? this : super.resolve();
+    }
+
+    @Override
+    public Config resolve(ConfigResolveOptions options) {
+        return isResolved() ? this : super.resolve(options);
+    }
+
+    @Override
+    public boolean hasPath(String path) {
+        return get(Kind.HAS_PATH, path, Config::hasPath);
+    }
+
+    @Override
+    public boolean hasPathOrNull(String path) {
+        return get(Kind.HAS_PATH_OR_NULL, path, Config::hasPathOrNull);
+    }
+
+    @Override
+    public boolean getIsNull(String path) {
+        return get(Kind.IS_NULL, path, Config::getIsNull);
+    }
+
+    @Override
+    public boolean getBoolean(String path) {
+        return get(Kind.BOOLEAN, path, Config::getBoolean);
+    }
+
+    @Override
+    public Number getNumber(String path) {
+        return get(Kind.NUMBER, path, Config::getNumber);
+    }
+
+    @Override
+    public int getInt(String path) {
+        return get(Kind.INT, path, Config::getInt);
+    }
+
+    @Override
+    public long getLong(String path) {
+        return get(Kind.LONG, path, Config::getLong);
+    }
+
+    @Override
+    public double getDouble(String path) {
+        return get(Kind.DOUBLE, path, Config::getDouble);
+    }
+
+    @Override
+    public String getString(String path) {
+        return get(Kind.STRING, path, Config::getString);
+    }
+
+    @Override
+    public ConfigObject getObject(String path) {
+        return get(Kind.OBJECT, path, Config::getObject);
+    }
+
+    @Override
+    public Config getConfig(String path) {
+        return get(Kind.CONFIG, path, (config, p) -> new CachingConfig(config.getConfig(p)));
+    }
+
+    @Override
+    public ConfigValue getValue(String path) {
+        return get(Kind.VALUE, path, Config::getValue);
+    }
+
+    @Override
+    public Long getBytes(String path) {
+        return get(Kind.BYTES, path, ConfigUnits::getBytes);
+    }
+
+    @Override
+    public ConfigMemorySize getMemorySize(String path) {
+        return get(Kind.MEMORY_SIZE, path, ConfigUnits::getMemorySize);
+    }
+
+    @Override
+    public Duration getDuration(String path) {
+        return get(Kind.DURATION, path, ConfigUnits::getDuration);
+    }
+
+    @Override
+    public Period getPeriod(String path) {
+        return get(Kind.PERIOD, path, Config::getPeriod);
+    }
+
+    @Override
+    public TemporalAmount getTemporal(String path) {
+        return get(Kind.TEMPORAL, path, Config::getTemporal);
+    }
+
+    @Override
+    public ConfigList getList(String path) {
+        return get(Kind.LIST, path, Config::getList);
+    }
+
+    @Override
+    public List<Boolean> getBooleanList(String path) {
+        return get(Kind.BOOLEAN_LIST, path, (config, p) -> unmodifiable(config.getBooleanList(p)));
+    }
+
+    @Override
+    public List<Number> getNumberList(String path) {
+        return get(Kind.NUMBER_LIST, path, (config, p) -> unmodifiable(config.getNumberList(p)));
+    }
+
+    @Override
+    public List<Integer> getIntList(String path) {
+        return get(Kind.INT_LIST, path, (config, p) -> unmodifiable(config.getIntList(p)));
+    }
+
+    @Override
+    public List<Long> getLongList(String path) {
+        return get(Kind.LONG_LIST, path, (config, p) -> unmodifiable(config.getLongList(p)));
+    }
+
+    @Override
+    public List<Double> getDoubleList(String path) {
+        return get(Kind.DOUBLE_LIST, path, (config, p) -> unmodifiable(config.getDoubleList(p)));
+    }
+
+    @Override
+    public List<String> getStringList(String path) {
+        return get(Kind.STRING_LIST, path, (config, p) -> unmodifiable(config.getStringList(p)));
+    }
+
+    @Override
+    public List<? extends ConfigObject> getObjectList(String path) {
+        return get(Kind.OBJECT_LIST, path, (config, p) -> unmodifiable(config.getObjectList(p)));
+    }
+
+    @Override
+    public List<? extends Config> getConfigList(String path) {
+        return get(Kind.CONFIG_LIST, path, (config, p) -> unmodifiable(caching(config.getConfigList(p))));
+    }
+
+    @Override
+    public List<Long> getBytesList(String path) {
+        return get(Kind.BYTES_LIST, path, (config, p) -> unmodifiable(config.getBytesList(p)));
+    }
+
+    @Override
+    public List<ConfigMemorySize> getMemorySizeList(String path) {
+        return get(Kind.MEMORY_SIZE_LIST, path, (config, p) -> unmodifiable(config.getMemorySizeList(p)));
+    }
+
+    @Override
+    public List<Duration> getDurationList(String path) {
+        return get(Kind.DURATION_LIST, path, (config, p) -> unmodifiable(config.getDurationList(p)));
+    }
+
+    @Override
+    public <T extends Enum<T>> T getEnum(Class<T> enumClass, String path) {
+        return get(enums.computeIfAbsent(enumClass, o -> new ConcurrentHashMap<>()), path,
+            (config, p) -> config.getEnum(enumClass, p));
+    }
+
+    @Override
+    public <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, String path) {
+        return get(enumLists.computeIfAbsent(enumClass, o -> new ConcurrentHashMap<>()), path,
+            (config, p) -> unmodifiable(config.getEnumList(enumClass, p)));
+    }
+
+    @Override
+    public long getDuration(String path, TimeUnit unit) {
+        return get(durations.get(unit.ordinal()), path, (config, p) -> ConfigUnits.getDuration(config, p, unit));
+    }
+
+    @Override
+    public List<Long> getDurationList(String path, TimeUnit unit) {
+        return get(durationLists.get(unit.ordinal()), path,
+            (config, p) -> unmodifiable(config.getDurationList(p, unit)));
+    }
+
+    @Deprecated
+    @Override
+    public Long getMilliseconds(String path) {
+        return getDuration(path, TimeUnit.MILLISECONDS);
+    }
+
+    @Deprecated
+    @Override
+    public Long getNanoseconds(String path) {
+        return getDuration(path, TimeUnit.NANOSECONDS);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getMillisecondsList(String path) {
+        return getDurationList(path, TimeUnit.MILLISECONDS);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getNanosecondsList(String path) {
+        return getDurationList(path, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> T get(Kind kind, String path, BiFunction<Config, String, T> getter) {
+        return get(tables.get(kind.ordinal()), path, getter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(ConcurrentHashMap<String, Object> table, String path, BiFunction<Config, String, T> getter) {
+        Object value = table.get(path);
+        if (value != null) {
+            hits.increment();
+            return (T) value;
+        }
+
+        misses.increment();
+        T result = getter.apply(delegate, path);
+        if (result != null)
+            table.putIfAbsent(path, result);
+        return result;
+    }
+
+    private static List<ConcurrentHashMap<String, Object>> newTables(int count) {
+        List<ConcurrentHashMap<String, Object>> tables = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tables.add(new ConcurrentHashMap<>());
+        }
+        return tables;
+    }
+
+    private static int size(Collection<ConcurrentHashMap<String, Object>> tables) {
+        int size = 0;
+        for (ConcurrentHashMap<String, Object> table : tables) {
+            size += table.size();
+        }
+        return size;
+    }
+
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return Collections.unmodifiableList(list);
+    }
+
+    private static List<CachingConfig> caching(List<? extends Config> configs) {
+        List<CachingConfig> list = new ArrayList<>(configs.size());
+        for (Config config : configs) {
+            list.add(new CachingConfig(config));
+        }
+
+        return list;
+    }
+
+}
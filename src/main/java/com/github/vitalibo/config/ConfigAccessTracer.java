@@ -0,0 +1,210 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Counts reads of config paths made through configs returned by
+ * {@link #trace(Config)}. Counters are striped {@link LongAdder}s in a
+ * concurrent map, so recording a read takes no locks. With sampling, only
+ * one of every {@code n} reads is recorded, and builds its path, and counts
+ * are scaled back when the snapshot is taken. Paths are normalized, so
+ * {@code a."b"} and {@code a.b} are the same path.
+ *
+ * <p>
+ * Here is an example of finding the hottest paths and paths never read:
+ *
+ * <pre>
+ *     ConfigAccessTracer tracer = new ConfigAccessTracer();
+ *     Config config = tracer.trace(ConfigFactory.load("application.yaml"));
+ *     ...
+ *     tracer.snapshot();
+ *     tracer.unusedPaths(config);
+ * </pre>
+ */
+public final class ConfigAccessTracer {
+
+    final private ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    final private int sampling;
+
+    /**
+     * Creates tracer which records every read.
+     */
+    public ConfigAccessTracer() {
+        this(1);
+    }
+
+    /**
+     * Creates tracer which records one of every {@code sampling} reads.
+     *
+     * @param sampling sampling interval, 1 to record every read
+     */
+    public ConfigAccessTracer(int sampling) {
+        if (sampling < 1)
+            throw new IllegalArgumentException("sampling must be positive: " + sampling);
+        this.sampling = sampling;
+    }
+
+    /**
+     * Wraps config so that reads of its values are recorded by this tracer.
+     *
+     * @param config config to trace
+     * @return traced config
+     */
+    public Config trace(Config config) {
+        return new TracingConfig(config, this, "");
+    }
+
+    /**
+     * Decides whether the next read is recorded, before the caller builds
+     * its path.
+     */
+    boolean sample() {
+        return sampling == 1 || ThreadLocalRandom.current().nextInt(sampling) == 0;
+    }
+
+    /**
+     * Records read of the path, which is normalized so that expressions
+     * quoting keys differently are counted as the same path.
+     */
+    void record(String path) {
+        Counter counter = counters.get(path);
+        if (counter == null) {
+            String normalized = ConfigUtil.joinPath(ConfigUtil.splitPath(path));
+            counter = counters.computeIfAbsent(normalized, o -> new Counter(System.currentTimeMillis()));
+        }
+        counter.reads.increment();
+    }
+
+    /**
+     * Gets accesses recorded so far, from the most read path to the least.
+     *
+     * @return map from path expression to its accesses
+     */
+    public Map<String, Access> snapshot() {
+        List<Map.Entry<String, Access>> entries = new ArrayList<>(counters.size());
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(),
+                new Access(counter.reads.sum() * sampling, Instant.ofEpochMilli(counter.firstAccess))));
+        }
+        entries.sort(Comparator.comparing((Map.Entry<String, Access> o) -> o.getValue().getReads())
+            .reversed()
+            .thenComparing(Map.Entry::getKey));
+
+        Map<String, Access> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Access> entry : entries) {
+            snapshot.put(entry.getKey(), entry.getValue());
+        }
+
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Gets paths of the config which have never been read, either directly
+     * or through one of their parents. A parent counts as read when a whole
+     * subtree was read from it, e.g. with {@link Config#getObject} or
+     * {@link Config#getList}; getting a sub-config with
+     * {@link Config#getConfig} does not read its paths. With sampling,
+     * rarely read paths may be reported as unused.
+     *
+     * @param config config to look for unused paths in
+     * @return sorted set of path expressions
+     */
+    public Set<String> unusedPaths(Config config) {
+        Set<String> unused = new TreeSet<>();
+        for (Map.Entry<String, ConfigValue> entry : config.entrySet()) {
+            List<String> elements = ConfigUtil.splitPath(entry.getKey());
+            boolean read = false;
+            for (int i = 1; i <= elements.size() && !read; i++) {
+                read = counters.containsKey(ConfigUtil.joinPath(elements.subList(0, i)));
+            }
+            if (!read)
+                unused.add(entry.getKey());
+        }
+
+        return unused;
+    }
+
+    /**
+     * Periodically passes snapshot of the accesses to the exporter.
+     *
+     * @param executor executor to schedule export on
+     * @param period   period between exports
+     * @param unit     time unit of the period
+     * @param exporter consumer of snapshots
+     * @return future which may be used to cancel the export
+     */
+    public ScheduledFuture<?> exportEvery(ScheduledExecutorService executor, long period, TimeUnit unit,
+                                          Consumer<Map<String, Access>> exporter) {
+        return executor.scheduleAtFixedRate(() -> exporter.accept(snapshot()), period, period, unit);
+    }
+
+    /**
+     * Forgets all recorded accesses.
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    /**
+     * Recorded accesses of a single path.
+     */
+    public static final class Access {
+        final private long reads;
+        final private Instant firstAccess;
+
+        Access(long reads, Instant firstAccess) {
+            this.reads = reads;
+            this.firstAccess = firstAccess;
+        }
+
+        /**
+         * @return number of reads, estimated if the tracer samples reads
+         */
+        public long getReads() {
+            return reads;
+        }
+
+        /**
+         * @return time of the first recorded read
+         */
+        public Instant getFirstAccess() {
+            return firstAccess;
+        }
+
+        @Override
+        public String toString() {
+            return "Access(reads=" + reads + ", firstAccess=" + firstAccess + ")";
+        }
+    }
+
+    private static final class Counter {
+        final private long firstAccess;
+        final private LongAdder reads = new LongAdder();
+
+        Counter(long firstAccess) {
+            this.firstAccess = firstAccess;
+        }
+    }
+
+}
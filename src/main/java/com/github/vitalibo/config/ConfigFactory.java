@@ -3,19 +3,26 @@
  */
 package com.github.vitalibo.config;
 
+import com.github.vitalibo.config.jfr.ConfigEvents;
 import com.typesafe.config.*;
 import com.typesafe.config.impl.ConfigImpl;
+import com.typesafe.config.impl.OverlayConfig;
+import com.typesafe.config.impl.OverrideIndex;
 import com.typesafe.config.impl.Parseable;
+import com.typesafe.config.impl.SecretResolver;
 import com.typesafe.config.impl.YamlParser;
 
 import java.io.File;
 import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Contains static methods for creating {@link Config} instances.
@@ -39,7 +46,6 @@ import java.util.concurrent.Callable;
  * examples.
  */
 public final class ConfigFactory {
-    private static final String STRATEGY_PROPERTY_NAME = "config.strategy";
     private static final String OVERRIDE_WITH_ENV_PROPERTY_NAME = "config.override_with_env_vars";
 
     private ConfigFactory() {
@@ -115,9 +121,160 @@ public final class ConfigFactory {
      */
     public static Config load(String resourceBasename, ConfigParseOptions parseOptions,
                               ConfigResolveOptions resolveOptions) {
+        return load(resourceBasename, parseOptions, resolveOptions, YamlParseOptions.defaults());
+    }
+
+    /**
+     * Like {@link #load(String,ConfigParseOptions,ConfigResolveOptions)} but
+     * allows you to specify options used when the resource is in YAML syntax.
+     *
+     * @param resourceBasename
+     *            the classpath resource name with optional extension
+     * @param parseOptions
+     *            options to use when parsing the resource
+     * @param resolveOptions
+     *            options to use when resolving the stack
+     * @param yamlOptions
+     *            options to use when converting YAML resource
+     * @return configuration for an application
+     */
+    public static Config load(String resourceBasename, ConfigParseOptions parseOptions,
+                              ConfigResolveOptions resolveOptions, YamlParseOptions yamlOptions) {
         ConfigParseOptions withLoader = ensureClassLoader(parseOptions, "load");
-        Config appConfig = ConfigFactory.parseResourcesAnySyntax(resourceBasename, withLoader);
-        return load(withLoader.getClassLoader(), appConfig, resolveOptions);
+        Config appConfig = ConfigFactory.parseResourcesAnySyntax(resourceBasename, withLoader, yamlOptions);
+        return cached(load(withLoader.getClassLoader(), appConfig, withSecrets(resolveOptions, yamlOptions),
+            yamlOptions.getLoadRecorder()), yamlOptions);
+    }
+
+    // secrets referenced by the parsed documents are fetched in one go
+    private static ConfigResolveOptions withSecrets(ConfigResolveOptions resolveOptions,
+                                                    YamlParseOptions yamlOptions) {
+        SecretResolver secrets = yamlOptions.getSecretResolver();
+        if (secrets == null)
+            return resolveOptions;
+
+        secrets.prefetch();
+        return resolveOptions.appendResolver(secrets);
+    }
+
+    private static Config cached(Config config, YamlParseOptions yamlOptions) {
+        return yamlOptions.getCachedGetters() ? CachingConfig.of(config) : config;
+    }
+
+    /**
+     * Like {@link #load(String)} but also returns statistics of loading:
+     * time and allocation of each stage and number of created values.
+     *
+     * @param resourceBasename
+     *            name (optionally without extension) of a resource on classpath
+     * @return configuration for an application together with load report
+     */
+    public static LoadResult loadWithReport(String resourceBasename) {
+        return loadWithReport(resourceBasename, ConfigParseOptions.defaults(),
+            ConfigResolveOptions.defaults(), YamlParseOptions.defaults());
+    }
+
+    /**
+     * Like {@link #load(String,ConfigParseOptions,ConfigResolveOptions,YamlParseOptions)}
+     * but also returns statistics of loading. Statistics are recorded by a
+     * new {@link LoadRecorder}, replacing any set in the YAML options.
+     *
+     * @param resourceBasename
+     *            the classpath resource name with optional extension
+     * @param parseOptions
+     *            options to use when parsing the resource
+     * @param resolveOptions
+     *            options to use when resolving the stack
+     * @param yamlOptions
+     *            options to use when converting YAML resource
+     * @return configuration for an application together with load report
+     */
+    public static LoadResult loadWithReport(String resourceBasename, ConfigParseOptions parseOptions,
+                                            ConfigResolveOptions resolveOptions, YamlParseOptions yamlOptions) {
+        LoadRecorder recorder = new LoadRecorder();
+        Config config = load(resourceBasename, parseOptions, resolveOptions, yamlOptions.setLoadRecorder(recorder));
+        return new LoadResult(config, recorder.report());
+    }
+
+    /**
+     * Like {@link #load(String)} but loads the config asynchronously on the
+     * default executor, which runs each load on a virtual thread when the
+     * runtime supports them.
+     *
+     * @param resourceBasename
+     *            name (optionally without extension) of a resource on classpath
+     * @return future of configuration for an application
+     */
+    public static CompletableFuture<Config> loadAsync(String resourceBasename) {
+        return loadAsync(resourceBasename, ConfigParseOptions.defaults(), ConfigResolveOptions.defaults(),
+            YamlParseOptions.defaults(), AsyncExecutors.defaultExecutor());
+    }
+
+    /**
+     * Like {@link #load(String,ConfigParseOptions,ConfigResolveOptions,YamlParseOptions)}
+     * but loads the config asynchronously on the given executor. The
+     * application resource and the reference config are parsed concurrently,
+     * then merged and resolved. Cancelling the returned future cancels the
+     * stages which have not started yet; a stage already running completes,
+     * but its result is discarded.
+     *
+     * @param resourceBasename
+     *            the classpath resource name with optional extension
+     * @param parseOptions
+     *            options to use when parsing the resource
+     * @param resolveOptions
+     *            options to use when resolving the stack
+     * @param yamlOptions
+     *            options to use when converting YAML resource
+     * @param executor
+     *            executor to run the stages on
+     * @return future of configuration for an application
+     */
+    public static CompletableFuture<Config> loadAsync(String resourceBasename, ConfigParseOptions parseOptions,
+                                                      ConfigResolveOptions resolveOptions,
+                                                      YamlParseOptions yamlOptions, Executor executor) {
+        ConfigParseOptions withLoader = ensureClassLoader(parseOptions, "loadAsync");
+        ClassLoader loader = withLoader.getClassLoader();
+        CompletableFuture<Config> appConfig = CompletableFuture.supplyAsync(
+            () -> parseResourcesAnySyntax(resourceBasename, withLoader, yamlOptions), executor);
+        CompletableFuture<Config> reference = CompletableFuture.supplyAsync(
+            () -> ConfigImpl.defaultReferenceUnresolved(loader), executor);
+
+        CompletableFuture<Config> config = appConfig.thenCombineAsync(reference,
+            (app, ref) -> cached(load(app, ref, withSecrets(resolveOptions, yamlOptions),
+                yamlOptions.getLoadRecorder()), yamlOptions),
+            executor);
+        return cancelling(config, appConfig, reference);
+    }
+
+    /**
+     * Like {@link #parseResources(String,ConfigParseOptions,YamlParseOptions)}
+     * but parses the resource asynchronously on the given executor.
+     * Cancelling the returned future before the parse starts skips it.
+     *
+     * @param resource the resource name
+     * @param options parse options
+     * @param yamlOptions options to use when converting YAML resource
+     * @param executor executor to parse on
+     * @return future of the parsed configuration
+     */
+    public static CompletableFuture<Config> parseResourcesAsync(String resource, ConfigParseOptions options,
+                                                                YamlParseOptions yamlOptions, Executor executor) {
+        ConfigParseOptions withLoader = ensureClassLoader(options, "parseResourcesAsync");
+        return CompletableFuture.supplyAsync(() -> parseResources(resource, withLoader, yamlOptions), executor);
+    }
+
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<T> future,
+                                                       CompletableFuture<?>... stages) {
+        future.whenComplete((value, e) -> {
+            if (future.isCancelled()) {
+                for (CompletableFuture<?> stage : stages) {
+                    stage.cancel(true);
+                }
+            }
+        });
+
+        return future;
     }
 
     /**
@@ -215,9 +372,34 @@ public final class ConfigFactory {
      * @return resolved configuration with overrides and fallbacks added
      */
     public static Config load(ClassLoader loader, Config config, ConfigResolveOptions resolveOptions) {
-        return defaultOverrides(loader).withFallback(config)
-            .withFallback(ConfigImpl.defaultReferenceUnresolved(loader))
-            .resolve(resolveOptions);
+        return load(loader, config, resolveOptions, null);
+    }
+
+    private static Config load(ClassLoader loader, Config config, ConfigResolveOptions resolveOptions,
+                               LoadRecorder recorder) {
+        return load(config, ConfigImpl.defaultReferenceUnresolved(loader), resolveOptions, recorder);
+    }
+
+    private static Config load(Config config, Config reference,
+                               ConfigResolveOptions resolveOptions, LoadRecorder recorder) {
+        ConfigEvents.Span span = begin(LoadStage.MERGE, recorder);
+        Config merged = OverrideIndex.global().apply(config.withFallback(reference), getOverrideWithEnv());
+        span.end(config.origin().description(), 0, 0);
+
+        span = begin(LoadStage.RESOLVE, recorder);
+        Config resolved = merged.resolve(resolveOptions);
+        // plain config is read faster, by path handles too, and is equal to other loaded configs
+        if (resolved instanceof OverlayConfig)
+            resolved = ((OverlayConfig) resolved).toConfig();
+        span.end(config.origin().description(), 0, 0);
+        return resolved;
+    }
+
+    private static ConfigEvents.Span begin(LoadStage stage, LoadRecorder recorder) {
+        if (recorder == null)
+            return ConfigEvents.begin(stage);
+        else
+            return recorder.begin(stage);
     }
 
 
@@ -530,7 +712,8 @@ public final class ConfigFactory {
      * @return the default application configuration
      */
     public static Config defaultApplication(ConfigParseOptions options) {
-        return getConfigLoadingStrategy().parseApplicationConfig(ensureClassLoader(options, "defaultApplication"));
+        ConfigParseOptions withLoader = ensureClassLoader(options, "defaultApplication");
+        return ConfigLoadingStrategies.get(withLoader.getClassLoader()).parseApplicationConfig(withLoader);
     }
 
     /**
@@ -558,6 +741,8 @@ public final class ConfigFactory {
         ConfigImpl.reloadSystemPropertiesConfig();
         ConfigImpl.reloadEnvVariablesConfig();
         ConfigImpl.reloadEnvVariablesOverridesConfig();
+        OverrideIndex.reload();
+        ConfigLoadingStrategies.clear();
     }
 
     /**
@@ -758,7 +943,41 @@ public final class ConfigFactory {
      * @throws ConfigException on IO or parse errors
      */
     public static Config parseURL(URL url, ConfigParseOptions options) {
-        return Parseable.newURL(url, options).parse().toConfig();
+        return parseURL(url, options, YamlParseOptions.defaults());
+    }
+
+    /**
+     * Like {@link #parseURL(URL,ConfigParseOptions)} but allows you to
+     * specify options used when the url is in YAML syntax. A url is parsed
+     * as YAML if its path ends with ".yaml" or ".yml" and the options don't
+     * set a syntax. To poll a YAML
+     * config over HTTP without re-parsing unchanged documents, see
+     * {@link HttpConfigSource}.
+     *
+     * @param url
+     *       the url to parse
+     * @param options
+     *       parse options to control how the url is interpreted
+     * @param yamlOptions
+     *       options to use when converting YAML document
+     * @return the parsed configuration
+     * @throws ConfigException on IO or parse errors
+     */
+    public static Config parseURL(URL url, ConfigParseOptions options, YamlParseOptions yamlOptions) {
+        if (options.getSyntax() != null || !isYaml(url.getPath()))
+            return Parseable.newURL(url, options).parse().toConfig();
+
+        try {
+            return YamlParser.parseUrlYamlSyntax(url, yamlOptions).toConfig();
+        } catch (ConfigException.IO e) {
+            if (options.getAllowMissing())
+                return empty(url.toExternalForm());
+            throw e;
+        }
+    }
+
+    static boolean isYaml(String path) {
+        return path != null && (path.endsWith(".yaml") || path.endsWith(".yml"));
     }
 
     /**
@@ -775,6 +994,36 @@ public final class ConfigFactory {
         return parseURL(url, ConfigParseOptions.defaults());
     }
 
+    /**
+     * Parses a directory tree, such as a mounted Kubernetes ConfigMap, into
+     * a Config instance. Each file is a value at the path made of its
+     * relative path, and YAML files are fragments merged in. See
+     * {@link DirectoryConfigSource} for details and for reloading.
+     *
+     * @param directory
+     *       the root of the directory tree
+     * @return the parsed configuration
+     * @throws ConfigException on IO or parse errors
+     */
+    public static Config parseDirectory(Path directory) {
+        return new DirectoryConfigSource(directory).get();
+    }
+
+    /**
+     * Like {@link #parseDirectory(Path)} but allows you to specify options
+     * used for YAML fragments.
+     *
+     * @param directory
+     *       the root of the directory tree
+     * @param yamlOptions
+     *       options to use when converting YAML fragments
+     * @return the parsed configuration
+     * @throws ConfigException on IO or parse errors
+     */
+    public static Config parseDirectory(Path directory, YamlParseOptions yamlOptions) {
+        return new DirectoryConfigSource(directory, yamlOptions, AsyncExecutors.defaultExecutor()).get();
+    }
+
     /**
      * Parses a file into a Config instance. Does not call
      * {@link Config#resolve} or merge the file with any other
@@ -1058,9 +1307,22 @@ public final class ConfigFactory {
      * @return the parsed configuration
      */
     public static Config parseResources(String resource, ConfigParseOptions options) {
+        return parseResources(resource, options, YamlParseOptions.defaults());
+    }
+
+    /**
+     * Like {@link #parseResources(String,ConfigParseOptions)} but allows you
+     * to specify options used when the resource is in YAML syntax.
+     * @param resource the resource name
+     * @param options parse options
+     * @param yamlOptions options to use when converting YAML resource
+     * @return the parsed configuration
+     */
+    public static Config parseResources(String resource, ConfigParseOptions options,
+                                        YamlParseOptions yamlOptions) {
         ConfigParseOptions withLoader = ensureClassLoader(options, "parseResources");
         try {
-            return YamlParser.parseResourcesYamlSyntax(resource, withLoader).toConfig();
+            return YamlParser.parseResourcesYamlSyntax(resource, withLoader, yamlOptions).toConfig();
         } catch (ConfigException.Missing ignored) {
         }
 
@@ -1086,8 +1348,21 @@ public final class ConfigFactory {
      * @return the parsed configuration
      */
     public static Config parseResourcesAnySyntax(String resourceBasename, ConfigParseOptions options) {
+        return parseResourcesAnySyntax(resourceBasename, options, YamlParseOptions.defaults());
+    }
+
+    /**
+     * Like {@link #parseResourcesAnySyntax(String,ConfigParseOptions)} but
+     * allows you to specify options used when the resource is in YAML syntax.
+     * @param resourceBasename the resource basename (no file type suffix)
+     * @param options parse options
+     * @param yamlOptions options to use when converting YAML resource
+     * @return the parsed configuration
+     */
+    public static Config parseResourcesAnySyntax(String resourceBasename, ConfigParseOptions options,
+                                                 YamlParseOptions yamlOptions) {
         try {
-            return YamlParser.parseResourcesYamlSyntax(resourceBasename, options).toConfig();
+            return YamlParser.parseResourcesYamlSyntax(resourceBasename, options, yamlOptions).toConfig();
         } catch (ConfigException.Missing ignored) {
         }
 
@@ -1237,6 +1512,26 @@ public final class ConfigFactory {
         return ConfigImpl.fromPathMap(values, originDescription).toConfig();
     }
 
+    /**
+     * Like {@link #parseMap(Map, String)}, but values are converted as
+     * values of a YAML document with the given options: strings with
+     * {@code ${...}} become substitutions, and maps and lists of at least
+     * {@link YamlParseOptions#setParallelThreshold} entries are converted
+     * in parallel.
+     *
+     * @param values map from paths to plain Java objects
+     * @param originDescription
+     *            description of what this map represents, like a filename, or
+     *            "default settings" (origin description is used in error
+     *            messages)
+     * @param yamlOptions options to use when converting values
+     * @return the map converted to a {@code Config}
+     */
+    public static Config parseMap(Map<String, ? extends Object> values,
+                                  String originDescription, YamlParseOptions yamlOptions) {
+        return YamlParser.fromPathMap(values, originDescription, yamlOptions).toConfig();
+    }
+
     /**
      * See the other overload of {@link #parseMap(Map, String)} for details,
      * this one just uses a default origin description.
@@ -1248,20 +1543,6 @@ public final class ConfigFactory {
         return parseMap(values, null);
     }
 
-    private static ConfigLoadingStrategy getConfigLoadingStrategy() {
-        String className = System.getProperties().getProperty(STRATEGY_PROPERTY_NAME);
-
-        if (className != null) {
-            try {
-                return ConfigLoadingStrategy.class.cast(Class.forName(className).newInstance());
-            } catch (Throwable e) {
-                throw new ConfigException.BugOrBroken("Failed to load strategy: " + className, e);
-            }
-        } else {
-            return new DefaultConfigLoadingStrategy();
-        }
-    }
-
     private static Boolean getOverrideWithEnv() {
         String overrideWithEnv = System.getProperties().getProperty(OVERRIDE_WITH_ENV_PROPERTY_NAME);
 
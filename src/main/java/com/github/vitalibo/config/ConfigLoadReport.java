@@ -0,0 +1,106 @@
+package com.github.vitalibo.config;
+
+import java.time.Duration;
+
+/**
+ * Immutable statistics of loading a config, taken by {@link LoadRecorder}.
+ * Time and allocation of a stage include nested stages, if any; included
+ * documents are read and parsed within the {@link LoadStage#YAML_PARSE}
+ * stage of the document including them and are counted only there.
+ */
+public final class ConfigLoadReport {
+    final private long[] nanos;
+    final private long[] allocatedBytes;
+    final private long objects;
+    final private long lists;
+    final private long scalars;
+    final private long references;
+    final private long cacheHits;
+
+    ConfigLoadReport(long[] nanos, long[] allocatedBytes, long objects, long lists,
+                     long scalars, long references, long cacheHits) {
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.objects = objects;
+        this.lists = lists;
+        this.scalars = scalars;
+        this.references = references;
+        this.cacheHits = cacheHits;
+    }
+
+    /**
+     * Gets time spent in the given stage.
+     *
+     * @param stage load stage
+     * @return time spent in the stage
+     */
+    public Duration getTime(LoadStage stage) {
+        return Duration.ofNanos(nanos[stage.ordinal()]);
+    }
+
+    /**
+     * Gets bytes allocated by the loading thread in the given stage. Only
+     * the thread running the stage is measured, so allocations of parallel
+     * parsing and of includes parsed on other threads are not counted.
+     *
+     * @param stage load stage
+     * @return allocated bytes or -1 if the JVM doesn't support allocation counters
+     */
+    public long getAllocatedBytes(LoadStage stage) {
+        return allocatedBytes[stage.ordinal()];
+    }
+
+    /**
+     * @return number of config objects created
+     */
+    public long getObjects() {
+        return objects;
+    }
+
+    /**
+     * @return number of config lists created
+     */
+    public long getLists() {
+        return lists;
+    }
+
+    /**
+     * @return number of scalar values created
+     */
+    public long getScalars() {
+        return scalars;
+    }
+
+    /**
+     * @return number of substitution references created
+     */
+    public long getReferences() {
+        return references;
+    }
+
+    /**
+     * @return number of values and strings taken from canonical value table
+     * or string interner
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ConfigLoadReport(");
+        for (LoadStage stage : LoadStage.values()) {
+            sb.append(stage).append('=').append(getTime(stage).toNanos() / 1000).append("us/")
+                .append(getAllocatedBytes(stage)).append("B, ");
+        }
+
+        return sb.append("objects=").append(objects)
+            .append(", lists=").append(lists)
+            .append(", scalars=").append(scalars)
+            .append(", references=").append(references)
+            .append(", cacheHits=").append(cacheHits)
+            .append(')')
+            .toString();
+    }
+
+}
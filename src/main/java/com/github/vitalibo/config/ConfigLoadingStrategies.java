@@ -0,0 +1,240 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigLoadingStrategy;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.DefaultConfigLoadingStrategy;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Strategies of loading the application config, used by
+ * {@link ConfigFactory#defaultApplication} and the {@code load()} methods
+ * without a resource name, and the built-in strategies they can be
+ * composed of.
+ *
+ * <p>
+ * The strategy of a class loader is looked up once and cached. It is the
+ * class named by the {@code config.strategy} system property, a
+ * comma-separated list of classes composed with {@link #composite}, or,
+ * without the property, all strategies registered for
+ * {@link ConfigLoadingStrategy} with {@link ServiceLoader}. Without any of
+ * them it is {@link DefaultConfigLoadingStrategy}. The strategy is looked
+ * up again when the property changes or after
+ * {@link ConfigFactory#invalidateCaches()}.
+ */
+public final class ConfigLoadingStrategies {
+
+    static final String STRATEGY_PROPERTY_NAME = "config.strategy";
+
+    // soft values let a class loader, referenced by its strategy, be collected under memory pressure
+    private static final Map<ClassLoader, SoftReference<Entry>> strategies = new WeakHashMap<>();
+
+    private ConfigLoadingStrategies() {
+    }
+
+    /**
+     * Gets the strategy of the class loader.
+     *
+     * @param loader class loader to look for strategies in
+     * @return the strategy
+     * @throws ConfigException.BugOrBroken if a strategy fails to instantiate
+     */
+    public static ConfigLoadingStrategy get(ClassLoader loader) {
+        String property = System.getProperties().getProperty(STRATEGY_PROPERTY_NAME);
+        Entry entry;
+        synchronized (strategies) {
+            SoftReference<Entry> reference = strategies.get(loader);
+            entry = reference != null ? reference.get() : null;
+        }
+
+        if (entry == null || !Objects.equals(entry.property, property)) {
+            entry = new Entry(property, lookup(loader, property));
+            synchronized (strategies) {
+                strategies.put(loader, new SoftReference<>(entry));
+            }
+        }
+
+        return entry.strategy;
+    }
+
+    /**
+     * Forgets the strategies of all class loaders.
+     */
+    public static void clear() {
+        synchronized (strategies) {
+            strategies.clear();
+        }
+    }
+
+    private static ConfigLoadingStrategy lookup(ClassLoader loader, String property) {
+        List<ConfigLoadingStrategy> found = new ArrayList<>();
+        if (property != null) {
+            for (String className : property.split(",")) {
+                found.add(instantiate(loader, className.trim()));
+            }
+        } else {
+            try {
+                for (ConfigLoadingStrategy strategy : ServiceLoader.load(ConfigLoadingStrategy.class, loader)) {
+                    found.add(strategy);
+                }
+            } catch (ServiceConfigurationError e) {
+                throw new ConfigException.BugOrBroken("Failed to load strategy: " + e.getMessage(), e);
+            }
+        }
+
+        if (found.isEmpty())
+            return new DefaultConfigLoadingStrategy();
+        else if (found.size() == 1)
+            return found.get(0);
+        else
+            return composite(found);
+    }
+
+    private static ConfigLoadingStrategy instantiate(ClassLoader loader, String className) {
+        try {
+            Class<?> klass;
+            try {
+                klass = Class.forName(className, true, loader);
+            } catch (ClassNotFoundException e) {
+                // strategy may be next to the library rather than visible to the loader
+                klass = Class.forName(className);
+            }
+            return ConfigLoadingStrategy.class.cast(klass.getDeclaredConstructor().newInstance());
+        } catch (Throwable e) {
+            throw new ConfigException.BugOrBroken("Failed to load strategy: " + className, e);
+        }
+    }
+
+    /**
+     * Composes strategies into one, which merges their configs; configs
+     * of earlier strategies take precedence.
+     *
+     * @param strategies strategies in order of precedence
+     * @return the composite strategy
+     */
+    public static ConfigLoadingStrategy composite(ConfigLoadingStrategy... strategies) {
+        return composite(Arrays.asList(strategies));
+    }
+
+    /**
+     * Composes strategies into one, which merges their configs; configs
+     * of earlier strategies take precedence.
+     *
+     * @param strategies strategies in order of precedence
+     * @return the composite strategy
+     */
+    public static ConfigLoadingStrategy composite(List<ConfigLoadingStrategy> strategies) {
+        if (strategies.isEmpty())
+            throw new IllegalArgumentException("strategies must not be empty");
+
+        List<ConfigLoadingStrategy> pipeline = Collections.unmodifiableList(new ArrayList<>(strategies));
+        return parseOptions -> {
+            Config config = pipeline.get(0).parseApplicationConfig(parseOptions);
+            for (int i = 1; i < pipeline.size(); i++) {
+                config = config.withFallback(pipeline.get(i).parseApplicationConfig(parseOptions));
+            }
+            return config;
+        };
+    }
+
+    /**
+     * Gets strategy which loads {@code application.yaml}, falling back to
+     * HOCON, JSON and properties resources.
+     *
+     * @return the strategy
+     * @see YamlConfigLoadingStrategy
+     */
+    public static ConfigLoadingStrategy yamlFirst() {
+        return new YamlConfigLoadingStrategy();
+    }
+
+    /**
+     * Gets strategy which returns the current snapshot, such as the one of
+     * a {@link HttpConfigSource} or {@link DirectoryConfigSource}, and
+     * loads the config with the fallback strategy while there is none.
+     *
+     * @param snapshot supplier of the current snapshot, or of null if there is none
+     * @param fallback strategy to load with when there is no snapshot
+     * @return the strategy
+     */
+    public static ConfigLoadingStrategy snapshotFirst(Supplier<Config> snapshot, ConfigLoadingStrategy fallback) {
+        return parseOptions -> {
+            Config config = snapshot.get();
+            return config != null ? config : fallback.parseApplicationConfig(parseOptions);
+        };
+    }
+
+    /**
+     * Gets strategy which loads the config with the given strategy once
+     * per class loader and returns the same config afterwards. Options
+     * other than the class loader are expected to be the same for all
+     * loads.
+     *
+     * @param strategy strategy to load with
+     * @return the caching strategy
+     */
+    public static Cached cached(ConfigLoadingStrategy strategy) {
+        return new Cached(strategy);
+    }
+
+    /**
+     * Strategy which caches configs loaded by another strategy, see
+     * {@link #cached}.
+     */
+    public static final class Cached implements ConfigLoadingStrategy {
+        final private ConfigLoadingStrategy strategy;
+        final private Map<ClassLoader, Config> configs = new WeakHashMap<>();
+
+        private Cached(ConfigLoadingStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public Config parseApplicationConfig(ConfigParseOptions parseOptions) {
+            ClassLoader loader = parseOptions.getClassLoader();
+            synchronized (configs) {
+                Config config = configs.get(loader);
+                if (config != null)
+                    return config;
+            }
+
+            Config config = strategy.parseApplicationConfig(parseOptions);
+            synchronized (configs) {
+                Config cached = configs.putIfAbsent(loader, config);
+                return cached != null ? cached : config;
+            }
+        }
+
+        /**
+         * Forgets all cached configs, so the next loads load them again.
+         */
+        public void clear() {
+            synchronized (configs) {
+                configs.clear();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final private String property;
+        final private ConfigLoadingStrategy strategy;
+
+        Entry(String property, ConfigLoadingStrategy strategy) {
+            this.property = property;
+            this.strategy = strategy;
+        }
+    }
+
+}
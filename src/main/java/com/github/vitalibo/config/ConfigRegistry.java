@@ -0,0 +1,269 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigResolveOptions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registry of named configs, such as a config per tenant or per module.
+ * All configs are published together as one immutable {@link Snapshot}
+ * through a single atomic reference, so readers take no locks: a reader
+ * gets the current snapshot with one volatile read and sees all configs
+ * of it at the same version, however many of them it reads.
+ *
+ * <p>
+ * Every change publishes a new snapshot with the version incremented by
+ * one. Configs are loaded before the snapshot is swapped, outside of any
+ * lock; concurrent changes retry the swap without loading again.
+ */
+public final class ConfigRegistry {
+
+    final private ConfigParseOptions parseOptions;
+    final private ConfigResolveOptions resolveOptions;
+    final private YamlParseOptions yamlOptions;
+    final private AtomicReference<Snapshot> current =
+        new AtomicReference<>(new Snapshot(0, Collections.emptyMap()));
+
+    /**
+     * Creates empty registry which loads resources with default options.
+     */
+    public ConfigRegistry() {
+        this(ConfigParseOptions.defaults(), ConfigResolveOptions.defaults(), YamlParseOptions.defaults());
+    }
+
+    /**
+     * Creates empty registry which loads resources with the given options.
+     *
+     * @param parseOptions   options to use when parsing resources
+     * @param resolveOptions options to use when resolving loaded configs
+     * @param yamlOptions    options to use when converting YAML resources
+     */
+    public ConfigRegistry(ConfigParseOptions parseOptions, ConfigResolveOptions resolveOptions,
+                          YamlParseOptions yamlOptions) {
+        this.parseOptions = parseOptions;
+        this.resolveOptions = resolveOptions;
+        this.yamlOptions = yamlOptions;
+    }
+
+    /**
+     * Gets the current snapshot. Reading several configs from one snapshot
+     * gives configs of the same version.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Gets the config with the given name from the current snapshot.
+     *
+     * @param name name of the config
+     * @return the config
+     * @throws IllegalArgumentException if no config has the name
+     */
+    public Config get(String name) {
+        return current.get().get(name);
+    }
+
+    /**
+     * Registers config loaded from a resource as with
+     * {@link ConfigFactory#load(String, ConfigParseOptions, ConfigResolveOptions, YamlParseOptions)},
+     * replacing the config registered with the name, if any.
+     *
+     * @param name             name of the config
+     * @param resourceBasename name (optionally without extension) of a resource on classpath
+     * @return the snapshot with the config
+     */
+    public Snapshot register(String name, String resourceBasename) {
+        return register(name, () -> ConfigFactory.load(resourceBasename, parseOptions, resolveOptions, yamlOptions));
+    }
+
+    /**
+     * Registers config made by the given loader, replacing the config
+     * registered with the name, if any. The loader is called now and on
+     * every reload of the config.
+     *
+     * @param name   name of the config
+     * @param loader loader of the config
+     * @return the snapshot with the config
+     */
+    public Snapshot register(String name, Supplier<Config> loader) {
+        Entry entry = new Entry(loader.get(), loader);
+        return update(snapshot -> snapshot.with(Collections.singletonMap(name, entry)));
+    }
+
+    /**
+     * Removes config with the given name.
+     *
+     * @param name name of the config
+     * @return the snapshot without the config
+     */
+    public Snapshot remove(String name) {
+        return update(snapshot -> {
+            if (!snapshot.entries.containsKey(name))
+                return snapshot;
+
+            Map<String, Entry> entries = new HashMap<>(snapshot.entries);
+            entries.remove(name);
+            return new Snapshot(snapshot.version + 1, entries);
+        });
+    }
+
+    /**
+     * Loads config with the given name again. If the config is removed or
+     * registered again while it is loading, the loaded config is dropped.
+     *
+     * @param name name of the config
+     * @return the snapshot with the reloaded config
+     * @throws IllegalArgumentException if no config has the name
+     */
+    public Snapshot reload(String name) {
+        Entry old = current.get().entry(name);
+        Entry entry = new Entry(old.loader.get(), old.loader);
+        return update(snapshot -> {
+            Entry existing = snapshot.entries.get(name);
+            if (existing == null || existing.loader != old.loader)
+                return snapshot;
+            return snapshot.with(Collections.singletonMap(name, entry));
+        });
+    }
+
+    /**
+     * Loads all configs again and publishes them in one snapshot, so
+     * readers see either all old or all reloaded configs. Configs
+     * registered, removed or registered again while loading keep their
+     * state in the published snapshot.
+     *
+     * @return the snapshot with the reloaded configs
+     */
+    public Snapshot reloadAll() {
+        Map<String, Entry> reloaded = new HashMap<>();
+        current.get().entries.forEach((name, old) -> reloaded.put(name, new Entry(old.loader.get(), old.loader)));
+        return update(snapshot -> {
+            Map<String, Entry> entries = new HashMap<>();
+            reloaded.forEach((name, entry) -> {
+                Entry old = snapshot.entries.get(name);
+                if (old != null && old.loader == entry.loader)
+                    entries.put(name, entry);
+            });
+            return snapshot.with(entries);
+        });
+    }
+
+    private Snapshot update(Function<Snapshot, Snapshot> change) {
+        while (true) {
+            Snapshot snapshot = current.get();
+            Snapshot updated = change.apply(snapshot);
+            if (updated == snapshot || current.compareAndSet(snapshot, updated))
+                return updated;
+        }
+    }
+
+    /**
+     * Immutable set of named configs at one version.
+     */
+    public static final class Snapshot {
+        final private long version;
+        final private Map<String, Entry> entries;
+
+        private Snapshot(long version, Map<String, Entry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+
+        /**
+         * Gets version of the snapshot, incremented by one with every
+         * published change.
+         *
+         * @return the version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets version of the snapshot in which the config with the given
+         * name was last loaded.
+         *
+         * @param name name of the config
+         * @return the version
+         * @throws IllegalArgumentException if no config has the name
+         */
+        public long getVersion(String name) {
+            return entry(name).version;
+        }
+
+        /**
+         * Gets the config with the given name.
+         *
+         * @param name name of the config
+         * @return the config
+         * @throws IllegalArgumentException if no config has the name
+         */
+        public Config get(String name) {
+            return entry(name).config;
+        }
+
+        /**
+         * @param name name of the config
+         * @return true if the snapshot has config with the given name
+         */
+        public boolean contains(String name) {
+            return entries.containsKey(name);
+        }
+
+        /**
+         * @return names of all configs of the snapshot
+         */
+        public Set<String> getNames() {
+            return Collections.unmodifiableSet(entries.keySet());
+        }
+
+        private Entry entry(String name) {
+            Entry entry = entries.get(name);
+            if (entry == null)
+                throw new IllegalArgumentException("no config named " + name);
+            return entry;
+        }
+
+        private Snapshot with(Map<String, Entry> changes) {
+            if (changes.isEmpty())
+                return this;
+
+            long next = version + 1;
+            Map<String, Entry> updated = new HashMap<>(entries);
+            changes.forEach((name, entry) -> updated.put(name, entry.at(next)));
+            return new Snapshot(next, updated);
+        }
+    }
+
+    private static final class Entry {
+        final private Config config;
+        final private Supplier<Config> loader;
+        final private long version;
+
+        Entry(Config config, Supplier<Config> loader) {
+            this(config, loader, 0);
+        }
+
+        private Entry(Config config, Supplier<Config> loader, long version) {
+            this.config = config;
+            this.loader = loader;
+            this.version = version;
+        }
+
+        Entry at(long version) {
+            return new Entry(config, loader, version);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.impl.ConfigUnitString;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Getters of durations and memory sizes which return values parsed when
+ * the config was loaded, see {@link YamlParseOptions#setUnitStrings}, without
+ * parsing the string again. Other values are read with the getters of the
+ * config, so the result is always the same as of the getter.
+ */
+public final class ConfigUnits {
+
+    private ConfigUnits() {
+    }
+
+    /**
+     * Gets duration at the path, as {@link Config#getDuration(String)}.
+     *
+     * @param config config to read
+     * @param path   path expression
+     * @return the duration value at the requested path
+     */
+    public static Duration getDuration(Config config, String path) {
+        ConfigValue value = config.getValue(path);
+        if (value instanceof ConfigUnitString) {
+            Duration duration = ((ConfigUnitString) value).getDuration();
+            if (duration != null)
+                return duration;
+        }
+
+        return config.getDuration(path);
+    }
+
+    /**
+     * Gets duration at the path in the given unit, as
+     * {@link Config#getDuration(String, TimeUnit)}.
+     *
+     * @param config config to read
+     * @param path   path expression
+     * @param unit   convert the return value to this time unit
+     * @return the duration value at the requested path, in the given unit
+     */
+    public static long getDuration(Config config, String path, TimeUnit unit) {
+        ConfigValue value = config.getValue(path);
+        if (value instanceof ConfigUnitString) {
+            Duration duration = ((ConfigUnitString) value).getDuration();
+            if (duration != null)
+                return unit.convert(duration.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        return config.getDuration(path, unit);
+    }
+
+    /**
+     * Gets memory size at the path, as {@link Config#getMemorySize(String)}.
+     *
+     * @param config config to read
+     * @param path   path expression
+     * @return the memory size at the requested path
+     */
+    public static ConfigMemorySize getMemorySize(Config config, String path) {
+        ConfigValue value = config.getValue(path);
+        if (value instanceof ConfigUnitString) {
+            ConfigMemorySize size = ((ConfigUnitString) value).getMemorySize();
+            if (size != null)
+                return size;
+        }
+
+        return config.getMemorySize(path);
+    }
+
+    /**
+     * Gets size in bytes at the path, as {@link Config#getBytes(String)}.
+     *
+     * @param config config to read
+     * @param path   path expression
+     * @return the size in bytes at the requested path
+     */
+    public static Long getBytes(Config config, String path) {
+        ConfigValue value = config.getValue(path);
+        if (value instanceof ConfigUnitString) {
+            ConfigMemorySize size = ((ConfigUnitString) value).getMemorySize();
+            // sizes which don't fit a long fail in the getter of the config
+            if (size != null && size.toBytesBigInteger().bitLength() < Long.SIZE)
+                return size.toBytes();
+        }
+
+        return config.getBytes(path);
+    }
+
+}
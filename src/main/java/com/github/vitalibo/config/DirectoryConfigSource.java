@@ -0,0 +1,258 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigOriginFactory;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+import com.typesafe.config.impl.YamlParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Config read from a directory tree, such as a Kubernetes ConfigMap or
+ * Secret mounted as a volume. Every regular file is a single value: its
+ * path relative to the directory, with directories and the file name
+ * joined by dots, is the config path and its content, without the final
+ * newline, is the string value.
+ * Files named {@code *.yaml} or {@code *.yml} are YAML fragments merged
+ * into the object at the path of their directory; values from plain
+ * files take precedence over fragments, and fragments later in name order
+ * take precedence over earlier ones. Hidden files are ignored. A plain
+ * file can't be at the path of an object of other plain files, such as
+ * files {@code a} and {@code a.b}, or {@code a} and {@code a.x/y}.
+ *
+ * <p>
+ * Kubernetes updates such mounts by writing a new timestamped directory
+ * and swapping the {@code ..data} symlink to it. If the directory contains
+ * {@code ..data}, the link is resolved once and all files are read from its
+ * target, so a load never mixes files of two versions, and
+ * {@link #refresh()} reloads only when the link points somewhere new.
+ *
+ * <p>
+ * Files are read concurrently on the given executor.
+ */
+public final class DirectoryConfigSource {
+
+    private static final String DATA_LINK = "..data";
+
+    final private Path directory;
+    final private YamlParseOptions yamlOptions;
+    final private Executor executor;
+
+    // guarded by this
+    private Path loadedFrom;
+    private volatile Config snapshot;
+
+    /**
+     * Creates source of the given directory with default options.
+     *
+     * @param directory root of the directory tree
+     */
+    public DirectoryConfigSource(Path directory) {
+        this(directory, YamlParseOptions.defaults(), AsyncExecutors.defaultExecutor());
+    }
+
+    /**
+     * Creates source of the given directory.
+     *
+     * @param directory   root of the directory tree
+     * @param yamlOptions options to use when converting YAML fragments
+     * @param executor    executor to read files on
+     */
+    public DirectoryConfigSource(Path directory, YamlParseOptions yamlOptions, Executor executor) {
+        this.directory = directory;
+        this.yamlOptions = yamlOptions;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the last loaded snapshot, loading it first if none has been
+     * loaded yet.
+     *
+     * @return the config
+     */
+    public Config get() {
+        Config config = snapshot;
+        if (config == null) {
+            synchronized (this) {
+                if (snapshot == null)
+                    reload(dataDirectory());
+                config = snapshot;
+            }
+        }
+
+        return config;
+    }
+
+    /**
+     * Loads the directory again if it may have changed. With the
+     * {@code ..data} layout the directory is reloaded only if the link
+     * was swapped since the last load; otherwise it is always reloaded.
+     *
+     * @return true if a new snapshot was loaded
+     */
+    public synchronized boolean refresh() {
+        Path data = dataDirectory();
+        if (snapshot != null && data.equals(loadedFrom) && !data.equals(directory))
+            return false;
+
+        reload(data);
+        return true;
+    }
+
+    private void reload(Path data) {
+        snapshot = load(data);
+        loadedFrom = data;
+    }
+
+    private Path dataDirectory() {
+        try {
+            Path link = directory.resolve(DATA_LINK);
+            if (Files.exists(link))
+                return link.toRealPath();
+            else
+                return directory;
+        } catch (IOException e) {
+            throw new ConfigException.IO(ConfigOriginFactory.newSimple(directory.toString()),
+                e.getMessage(), e);
+        }
+    }
+
+    private Config load(Path data) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(data)) {
+            files = stream
+                .filter(o -> !isHidden(data.relativize(o)))
+                .filter(Files::isRegularFile)
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            throw new ConfigException.IO(ConfigOriginFactory.newSimple(data.toString()), e.getMessage(), e);
+        }
+
+        Map<String, Path> valueFiles = new LinkedHashMap<>();
+        for (Path file : files) {
+            if (!ConfigFactory.isYaml(file.getFileName().toString()))
+                valueFiles.put(path(data.relativize(file)), file);
+        }
+        checkConflicts(data, valueFiles);
+
+        List<CompletableFuture<Config>> fragments = new ArrayList<>();
+        List<CompletableFuture<Map.Entry<String, ConfigValue>>> values = new ArrayList<>();
+        for (Path file : files) {
+            if (ConfigFactory.isYaml(file.getFileName().toString())) {
+                fragments.add(CompletableFuture.supplyAsync(() -> fragment(data, file), executor));
+            } else {
+                values.add(CompletableFuture.supplyAsync(() -> value(data, file), executor));
+            }
+        }
+
+        try {
+            Map<String, ConfigValue> pathMap = new LinkedHashMap<>();
+            for (CompletableFuture<Map.Entry<String, ConfigValue>> value : values) {
+                Map.Entry<String, ConfigValue> entry = value.join();
+                pathMap.put(entry.getKey(), entry.getValue());
+            }
+
+            Config config = YamlParser.fromPathMap(pathMap, data.toString(), yamlOptions).toConfig();
+            Collections.reverse(fragments);
+            for (CompletableFuture<Config> fragment : fragments) {
+                config = config.withFallback(fragment.join());
+            }
+
+            return config;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ConfigException)
+                throw (ConfigException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Fails if the path of a plain file is a prefix of the path of another
+     * one, since a value can't be an object at the same time.
+     */
+    private static void checkConflicts(Path data, Map<String, Path> files) {
+        for (Map.Entry<String, Path> entry : files.entrySet()) {
+            List<String> elements = ConfigUtil.splitPath(entry.getKey());
+            for (int i = 1; i < elements.size(); i++) {
+                Path parent = files.get(ConfigUtil.joinPath(elements.subList(0, i)));
+                if (parent != null)
+                    throw new ConfigException.BadPath(ConfigOriginFactory.newSimple(data.toString()),
+                        entry.getKey(), "file " + data.relativize(entry.getValue()) + " is nested in the value of file "
+                        + data.relativize(parent));
+            }
+        }
+    }
+
+    private Map.Entry<String, ConfigValue> value(Path data, Path file) {
+        String content = new String(read(file), StandardCharsets.UTF_8);
+        // editors and most tools end files with a newline which isn't part of the value
+        if (content.endsWith("\r\n"))
+            content = content.substring(0, content.length() - 2);
+        else if (content.endsWith("\n"))
+            content = content.substring(0, content.length() - 1);
+        ConfigValue value = ConfigValueFactory.fromAnyRef(content, "file: " + file);
+        return new AbstractMap.SimpleImmutableEntry<>(path(data.relativize(file)), value);
+    }
+
+    private Config fragment(Path data, Path file) {
+        Config config;
+        try {
+            config = YamlParser.parseYamlSyntax(file.toUri().toURL(), read(file), yamlOptions).toConfig();
+        } catch (IOException e) {
+            throw new ConfigException.IO(ConfigOriginFactory.newSimple(file.toString()), e.getMessage(), e);
+        }
+
+        Path parent = data.relativize(file).getParent();
+        return parent != null ? config.atPath(path(parent)) : config;
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new ConfigException.IO(ConfigOriginFactory.newSimple(file.toString()), e.getMessage(), e);
+        }
+    }
+
+    private static boolean isHidden(Path relative) {
+        for (Path element : relative) {
+            if (element.toString().startsWith("."))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static String path(Path relative) {
+        List<String> elements = new ArrayList<>();
+        for (Path element : relative) {
+            try {
+                elements.addAll(ConfigUtil.splitPath(element.toString()));
+            } catch (ConfigException.BadPath e) {
+                elements.add(element.toString());
+            }
+        }
+
+        return ConfigUtil.joinPath(elements);
+    }
+
+}
@@ -0,0 +1,276 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigOriginFactory;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.impl.YamlParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Config fetched from an HTTP(S) url and kept up to date by polling. Every
+ * fetch after the first is a conditional GET with {@code If-None-Match} and
+ * {@code If-Modified-Since}, so an unchanged document costs a 304 response
+ * and is not parsed again. If a fetch fails, the last good snapshot is kept.
+ *
+ * <p>
+ * Connections are made with {@link HttpURLConnection}, which keeps idle
+ * connections alive in a JVM-wide cache and reuses them for the following
+ * requests to the same server.
+ *
+ * <p>
+ * The body is parsed as YAML if the url path ends with ".yaml" or ".yml" or
+ * the response content type mentions yaml, otherwise as HOCON or JSON.
+ */
+public final class HttpConfigSource {
+
+    final private URL url;
+    final private ConfigParseOptions parseOptions;
+    final private YamlParseOptions yamlOptions;
+    private volatile int connectTimeout = 10_000;
+    private volatile int readTimeout = 30_000;
+
+    // guarded by this
+    private String etag;
+    private String lastModified;
+    private volatile Config snapshot;
+    private volatile Throwable lastError;
+
+    /**
+     * Creates source of the given url with default options.
+     *
+     * @param url url of the config
+     */
+    public HttpConfigSource(URL url) {
+        this(url, ConfigParseOptions.defaults(), YamlParseOptions.defaults());
+    }
+
+    /**
+     * Creates source of the given url.
+     *
+     * @param url          url of the config
+     * @param parseOptions options to use when the document is HOCON or JSON
+     * @param yamlOptions  options to use when the document is YAML
+     */
+    public HttpConfigSource(URL url, ConfigParseOptions parseOptions, YamlParseOptions yamlOptions) {
+        this.url = url;
+        this.parseOptions = parseOptions.setOriginDescription(url.toExternalForm());
+        this.yamlOptions = yamlOptions;
+    }
+
+    /**
+     * Sets timeouts of connecting to the server and of reading the response.
+     *
+     * @param connect connect timeout
+     * @param read    read timeout
+     * @return this source
+     */
+    public HttpConfigSource setTimeouts(Duration connect, Duration read) {
+        this.connectTimeout = (int) connect.toMillis();
+        this.readTimeout = (int) read.toMillis();
+        return this;
+    }
+
+    /**
+     * Gets the last good snapshot, fetching it first if none has been
+     * fetched yet.
+     *
+     * @return the config
+     * @throws ConfigException.IO if the first fetch fails
+     */
+    public Config get() {
+        Config config = snapshot;
+        if (config == null) {
+            refresh();
+            config = snapshot;
+        }
+
+        return config;
+    }
+
+    /**
+     * Fetches the document if it has changed since the last fetch.
+     *
+     * @return true if a new snapshot was parsed, false if the server
+     * answered that the document is not modified
+     * @throws ConfigException.IO if the fetch fails; the last good
+     *                            snapshot is kept
+     */
+    public synchronized boolean refresh() {
+        try {
+            boolean changed = fetch();
+            lastError = null;
+            return changed;
+        } catch (IOException | RuntimeException e) {
+            lastError = e;
+            if (e instanceof ConfigException)
+                throw (ConfigException) e;
+            throw new ConfigException.IO(ConfigOriginFactory.newURL(url), "failed to fetch: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the error of the last fetch, if it failed, or the error thrown by
+     * the listener of {@link #poll} the fetched snapshot was passed to.
+     *
+     * @return error or null if the last fetch succeeded
+     */
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Polls the url on the given executor. Delays between fetches are the
+     * interval randomly stretched or shrunk by up to {@code jitter} of it,
+     * so that many instances don't poll the server at the same moment.
+     * Listener is called with every new snapshot; failed fetches are
+     * retried on the next poll.
+     *
+     * @param executor executor to poll on
+     * @param interval interval between fetches
+     * @param jitter   fraction of the interval between 0 and 1
+     * @param listener listener of new snapshots
+     * @return handle which stops polling when closed
+     */
+    public Polling poll(ScheduledExecutorService executor, Duration interval, double jitter,
+                        Consumer<Config> listener) {
+        if (jitter < 0 || jitter > 1)
+            throw new IllegalArgumentException("jitter must be between 0 and 1: " + jitter);
+
+        Polling polling = new Polling(executor, interval.toNanos(), jitter, listener);
+        polling.schedule();
+        return polling;
+    }
+
+    private boolean fetch() throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
+        if (snapshot != null) {
+            if (etag != null)
+                connection.setRequestProperty("If-None-Match", etag);
+            if (lastModified != null)
+                connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+
+        if (connection instanceof HttpURLConnection) {
+            HttpURLConnection http = (HttpURLConnection) connection;
+            int status = http.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && snapshot != null) {
+                drain(http.getErrorStream());
+                return false;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                drain(http.getErrorStream());
+                throw new IOException("unexpected response status " + status);
+            }
+        }
+
+        byte[] body;
+        try (InputStream stream = connection.getInputStream()) {
+            body = read(stream);
+        }
+
+        Config config = parse(body, connection.getContentType());
+        etag = connection.getHeaderField("ETag");
+        lastModified = connection.getHeaderField("Last-Modified");
+        snapshot = config;
+        return true;
+    }
+
+    private Config parse(byte[] body, String contentType) {
+        if (ConfigFactory.isYaml(url.getPath()) || (contentType != null && contentType.contains("yaml")))
+            return YamlParser.parseYamlSyntax(url, body, yamlOptions).toConfig();
+        else
+            return ConfigFactory.parseString(new String(body, StandardCharsets.UTF_8), parseOptions);
+    }
+
+    // reading error body to the end lets the connection be reused
+    private static void drain(InputStream stream) throws IOException {
+        if (stream == null)
+            return;
+
+        try (InputStream in = stream) {
+            read(in);
+        }
+    }
+
+    private static byte[] read(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Handle of polling started by {@link #poll}.
+     */
+    public final class Polling implements AutoCloseable {
+        final private ScheduledExecutorService executor;
+        final private long intervalNanos;
+        final private double jitter;
+        final private Consumer<Config> listener;
+        private volatile boolean closed;
+
+        private Polling(ScheduledExecutorService executor, long intervalNanos, double jitter,
+                        Consumer<Config> listener) {
+            this.executor = executor;
+            this.intervalNanos = intervalNanos;
+            this.jitter = jitter;
+            this.listener = listener;
+        }
+
+        private void schedule() {
+            if (closed)
+                return;
+
+            double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+            executor.schedule(this::run, (long) (intervalNanos * factor), TimeUnit.NANOSECONDS);
+        }
+
+        private void run() {
+            try {
+                if (!closed && refresh())
+                    notifyListener(snapshot);
+            } catch (RuntimeException ignored) {
+                // last good snapshot is kept, error is available from getLastError
+            } finally {
+                schedule();
+            }
+        }
+
+        private void notifyListener(Config config) {
+            try {
+                listener.accept(config);
+            } catch (RuntimeException e) {
+                lastError = e;
+            }
+        }
+
+        /**
+         * Stops polling. A fetch in progress completes.
+         */
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
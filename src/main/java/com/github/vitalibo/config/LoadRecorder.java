@@ -0,0 +1,133 @@
+package com.github.vitalibo.config;
+
+import com.github.vitalibo.config.jfr.ConfigEvents;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects statistics of loading a config: time and bytes allocated in each
+ * {@link LoadStage}, as measured on the thread running the stage, and
+ * number of values created. Set the recorder with
+ * {@link YamlParseOptions#setLoadRecorder} and take a {@link #report()}
+ * after loading; the same recorder may be shared by concurrent loads, in
+ * which case the report sums all of them.
+ */
+public final class LoadRecorder {
+
+    private static final com.sun.management.ThreadMXBean threads = threads();
+
+    final private LongAdder[] nanos = adders();
+    final private LongAdder[] allocated = adders();
+    final private LongAdder objects = new LongAdder();
+    final private LongAdder lists = new LongAdder();
+    final private LongAdder scalars = new LongAdder();
+    final private LongAdder references = new LongAdder();
+    final private LongAdder cacheHits = new LongAdder();
+
+    /**
+     * Marks the beginning of a stage. The stage is also reported to
+     * {@link ConfigEvents}, so flight recorder sees it as well.
+     *
+     * @param stage stage being started
+     * @return span to end on the same thread when the stage completes
+     */
+    public ConfigEvents.Span begin(LoadStage stage) {
+        ConfigEvents.Span event = ConfigEvents.begin(stage);
+        long startBytes = allocatedBytes();
+        long startNanos = System.nanoTime();
+        return (resource, bytesRead, nodeCount) -> {
+            nanos[stage.ordinal()].add(System.nanoTime() - startNanos);
+            if (startBytes >= 0)
+                allocated[stage.ordinal()].add(allocatedBytes() - startBytes);
+            event.end(resource, bytesRead, nodeCount);
+        };
+    }
+
+    /**
+     * Counts created config object.
+     */
+    public void object() {
+        objects.increment();
+    }
+
+    /**
+     * Counts created config list.
+     */
+    public void list() {
+        lists.increment();
+    }
+
+    /**
+     * Counts created scalar value.
+     */
+    public void scalar() {
+        scalars.increment();
+    }
+
+    /**
+     * Counts created substitution reference.
+     */
+    public void reference() {
+        references.increment();
+    }
+
+    /**
+     * Counts value or string taken from a cache instead of the created one.
+     */
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * Gets snapshot of the statistics recorded so far.
+     *
+     * @return load report
+     */
+    public ConfigLoadReport report() {
+        LoadStage[] stages = LoadStage.values();
+        long[] stageNanos = new long[stages.length];
+        long[] stageBytes = new long[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            stageNanos[i] = nanos[i].sum();
+            stageBytes[i] = threads != null ? allocated[i].sum() : -1;
+        }
+
+        return new ConfigLoadReport(stageNanos, stageBytes, objects.sum(), lists.sum(),
+            scalars.sum(), references.sum(), cacheHits.sum());
+    }
+
+    private static long allocatedBytes() {
+        if (threads == null)
+            return -1;
+        else
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[LoadStage.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean))
+                return null;
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+                return null;
+
+            return threads;
+        } catch (LinkageError | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+}
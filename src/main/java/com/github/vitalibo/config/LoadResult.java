@@ -0,0 +1,33 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+
+/**
+ * Loaded config together with the report of loading it.
+ *
+ * @see ConfigFactory#loadWithReport(String)
+ */
+public final class LoadResult {
+    final private Config config;
+    final private ConfigLoadReport report;
+
+    LoadResult(Config config, ConfigLoadReport report) {
+        this.config = config;
+        this.report = report;
+    }
+
+    /**
+     * @return loaded config
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * @return statistics of loading the config
+     */
+    public ConfigLoadReport getReport() {
+        return report;
+    }
+
+}
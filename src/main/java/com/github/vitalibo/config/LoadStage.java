@@ -0,0 +1,43 @@
+package com.github.vitalibo.config;
+
+/**
+ * Stages of loading a config, in the order they usually happen.
+ */
+public enum LoadStage {
+
+    /**
+     * Looking up a resource on the classpath.
+     */
+    RESOURCE_LOOKUP,
+
+    /**
+     * Reading the bytes of a resource.
+     */
+    FILE_READ,
+
+    /**
+     * Parsing YAML text into Java collections.
+     */
+    YAML_PARSE,
+
+    /**
+     * Converting Java collections into config values.
+     */
+    VALUE_CONVERSION,
+
+    /**
+     * Building config objects from a map of path expressions.
+     */
+    PATH_MAP,
+
+    /**
+     * Resolving substitutions.
+     */
+    RESOLVE,
+
+    /**
+     * Merging a config with its fallbacks.
+     */
+    MERGE
+
+}
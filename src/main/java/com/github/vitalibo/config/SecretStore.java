@@ -0,0 +1,25 @@
+package com.github.vitalibo.config;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store of secrets referenced in configs as {@code ${secret:name}}, such
+ * as a vault or a cloud secret manager. Implement this interface and pass
+ * it to a {@link com.typesafe.config.impl.SecretResolver}.
+ */
+@FunctionalInterface
+public interface SecretStore {
+
+    /**
+     * Fetches a batch of secrets in one call. The method may be called
+     * concurrently from several threads.
+     *
+     * @param names names of the secrets, without the {@code secret:} prefix
+     * @return values of the secrets by name; secrets which don't exist are
+     * left out
+     * @throws Exception if the store can't be reached
+     */
+    Map<String, String> fetch(Set<String> names) throws Exception;
+
+}
@@ -0,0 +1,275 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.impl.ForwardingConfig;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config which records reads of its values in {@link ConfigAccessTracer}.
+ * Configs returned by {@link #getConfig} and {@link #getConfigList} are
+ * traced as well, with their paths prefixed by the path they were read
+ * from; elements of a config list share the path of the list. Getting a
+ * config is not a read by itself, only reads made through it are recorded.
+ */
+final class TracingConfig extends ForwardingConfig {
+
+    final private ConfigAccessTracer tracer;
+    final private String prefix;
+
+    TracingConfig(Config delegate, ConfigAccessTracer tracer, String prefix) {
+        super(delegate);
+        this.tracer = tracer;
+        this.prefix = prefix;
+    }
+
+    private String path(String path) {
+        return prefix.isEmpty() ? path : prefix + path;
+    }
+
+    // unsampled reads don't build the path
+    private void record(String path) {
+        if (tracer.sample())
+            tracer.record(path(path));
+    }
+
+    @Override
+    public boolean getIsNull(String path) {
+        record(path);
+        return super.getIsNull(path);
+    }
+
+    @Override
+    public boolean getBoolean(String path) {
+        record(path);
+        return super.getBoolean(path);
+    }
+
+    @Override
+    public Number getNumber(String path) {
+        record(path);
+        return super.getNumber(path);
+    }
+
+    @Override
+    public int getInt(String path) {
+        record(path);
+        return super.getInt(path);
+    }
+
+    @Override
+    public long getLong(String path) {
+        record(path);
+        return super.getLong(path);
+    }
+
+    @Override
+    public double getDouble(String path) {
+        record(path);
+        return super.getDouble(path);
+    }
+
+    @Override
+    public String getString(String path) {
+        record(path);
+        return super.getString(path);
+    }
+
+    @Override
+    public <T extends Enum<T>> T getEnum(Class<T> enumClass, String path) {
+        record(path);
+        return super.getEnum(enumClass, path);
+    }
+
+    @Override
+    public ConfigObject getObject(String path) {
+        record(path);
+        return super.getObject(path);
+    }
+
+    @Override
+    public Object getAnyRef(String path) {
+        record(path);
+        return super.getAnyRef(path);
+    }
+
+    @Override
+    public ConfigValue getValue(String path) {
+        record(path);
+        return super.getValue(path);
+    }
+
+    @Override
+    public Long getBytes(String path) {
+        record(path);
+        return super.getBytes(path);
+    }
+
+    @Override
+    public ConfigMemorySize getMemorySize(String path) {
+        record(path);
+        return super.getMemorySize(path);
+    }
+
+    @Deprecated
+    @Override
+    public Long getMilliseconds(String path) {
+        record(path);
+        return super.getMilliseconds(path);
+    }
+
+    @Deprecated
+    @Override
+    public Long getNanoseconds(String path) {
+        record(path);
+        return super.getNanoseconds(path);
+    }
+
+    @Override
+    public long getDuration(String path, TimeUnit unit) {
+        record(path);
+        return super.getDuration(path, unit);
+    }
+
+    @Override
+    public Duration getDuration(String path) {
+        record(path);
+        return super.getDuration(path);
+    }
+
+    @Override
+    public Period getPeriod(String path) {
+        record(path);
+        return super.getPeriod(path);
+    }
+
+    @Override
+    public TemporalAmount getTemporal(String path) {
+        record(path);
+        return super.getTemporal(path);
+    }
+
+    @Override
+    public ConfigList getList(String path) {
+        record(path);
+        return super.getList(path);
+    }
+
+    @Override
+    public List<Boolean> getBooleanList(String path) {
+        record(path);
+        return super.getBooleanList(path);
+    }
+
+    @Override
+    public List<Number> getNumberList(String path) {
+        record(path);
+        return super.getNumberList(path);
+    }
+
+    @Override
+    public List<Integer> getIntList(String path) {
+        record(path);
+        return super.getIntList(path);
+    }
+
+    @Override
+    public List<Long> getLongList(String path) {
+        record(path);
+        return super.getLongList(path);
+    }
+
+    @Override
+    public List<Double> getDoubleList(String path) {
+        record(path);
+        return super.getDoubleList(path);
+    }
+
+    @Override
+    public List<String> getStringList(String path) {
+        record(path);
+        return super.getStringList(path);
+    }
+
+    @Override
+    public <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, String path) {
+        record(path);
+        return super.getEnumList(enumClass, path);
+    }
+
+    @Override
+    public List<? extends ConfigObject> getObjectList(String path) {
+        record(path);
+        return super.getObjectList(path);
+    }
+
+    @Override
+    public List<? extends Object> getAnyRefList(String path) {
+        record(path);
+        return super.getAnyRefList(path);
+    }
+
+    @Override
+    public List<Long> getBytesList(String path) {
+        record(path);
+        return super.getBytesList(path);
+    }
+
+    @Override
+    public List<ConfigMemorySize> getMemorySizeList(String path) {
+        record(path);
+        return super.getMemorySizeList(path);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getMillisecondsList(String path) {
+        record(path);
+        return super.getMillisecondsList(path);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getNanosecondsList(String path) {
+        record(path);
+        return super.getNanosecondsList(path);
+    }
+
+    @Override
+    public List<Long> getDurationList(String path, TimeUnit unit) {
+        record(path);
+        return super.getDurationList(path, unit);
+    }
+
+    @Override
+    public List<Duration> getDurationList(String path) {
+        record(path);
+        return super.getDurationList(path);
+    }
+
+    @Override
+    public Config getConfig(String path) {
+        return new TracingConfig(super.getConfig(path), tracer, path(path) + ".");
+    }
+
+    @Override
+    public List<? extends Config> getConfigList(String path) {
+        List<? extends Config> configs = super.getConfigList(path);
+        List<Config> traced = new ArrayList<>(configs.size());
+        for (Config config : configs) {
+            traced.add(new TracingConfig(config, tracer, path(path) + "."));
+        }
+
+        return traced;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigLoadingStrategy;
+import com.typesafe.config.ConfigParseOptions;
+
+/**
+ * Config loading strategy which loads {@code application.yaml} or
+ * {@code application.yml}, falling back to {@code application.conf},
+ * {@code application.json} and {@code application.properties} if there is
+ * no YAML resource. As with the default strategy, the
+ * {@code config.resource}, {@code config.file} and {@code config.url}
+ * system properties replace the application config.
+ */
+public class YamlConfigLoadingStrategy implements ConfigLoadingStrategy {
+
+    @Override
+    public Config parseApplicationConfig(ConfigParseOptions parseOptions) {
+        return ConfigFactory.parseApplicationReplacement(parseOptions)
+            .orElseGet(() -> ConfigFactory.parseResourcesAnySyntax("application", parseOptions));
+    }
+
+}
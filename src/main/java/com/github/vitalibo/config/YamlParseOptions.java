@@ -0,0 +1,371 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.impl.CanonicalValueTable;
+import com.typesafe.config.impl.SecretResolver;
+import com.typesafe.config.impl.StringInterner;
+import com.typesafe.config.impl.YamlIncludes;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A set of options related to converting YAML documents into config values.
+ *
+ * <p>
+ * This object is immutable, so the "setters" return a new object.
+ *
+ * <p>
+ * Here is an example of creating a custom {@code YamlParseOptions}:
+ *
+ * <pre>
+ *     YamlParseOptions options = YamlParseOptions.defaults()
+ *         .setCanonicalValues(new CanonicalValueTable())
+ * </pre>
+ */
+public final class YamlParseOptions {
+    final private CanonicalValueTable canonicalValues;
+    final private StringInterner stringInterner;
+    final private boolean lineNumbers;
+    final private LoadRecorder loadRecorder;
+    final private YamlIncludes includes;
+    final private boolean unitStrings;
+    final private boolean cachedGetters;
+    final private int parallelThreshold;
+    final private ForkJoinPool forkJoinPool;
+    final private int splitThreshold;
+    final private SecretResolver secretResolver;
+
+    private YamlParseOptions(CanonicalValueTable canonicalValues, StringInterner stringInterner,
+                             boolean lineNumbers, LoadRecorder loadRecorder, YamlIncludes includes,
+                             boolean unitStrings, boolean cachedGetters, int parallelThreshold,
+                             ForkJoinPool forkJoinPool, int splitThreshold, SecretResolver secretResolver) {
+        this.canonicalValues = canonicalValues;
+        this.stringInterner = stringInterner;
+        this.lineNumbers = lineNumbers;
+        this.loadRecorder = loadRecorder;
+        this.includes = includes;
+        this.unitStrings = unitStrings;
+        this.cachedGetters = cachedGetters;
+        this.parallelThreshold = parallelThreshold;
+        this.forkJoinPool = forkJoinPool;
+        this.splitThreshold = splitThreshold;
+        this.secretResolver = secretResolver;
+    }
+
+    /**
+     * Gets an instance of <code>YamlParseOptions</code> with all fields
+     * set to the default values. Start with this instance and make any
+     * changes you need.
+     *
+     * @return the default parse options
+     */
+    public static YamlParseOptions defaults() {
+        return new YamlParseOptions(null, null, true, null, null, false, false, 0, null, 0, null);
+    }
+
+    /**
+     * Set a table used to deduplicate structurally equal values. Sharing one
+     * table between many parsed documents makes identical subtrees of those
+     * documents a single instance. Set to null to disable deduplication.
+     *
+     * @param canonicalValues table of canonical values or {@code null}
+     * @return options with the canonical values table set
+     */
+    public YamlParseOptions setCanonicalValues(CanonicalValueTable canonicalValues) {
+        if (this.canonicalValues == canonicalValues)
+            return this;
+        else
+            return new YamlParseOptions(canonicalValues, this.stringInterner, this.lineNumbers, this.loadRecorder,
+                this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold, this.forkJoinPool,
+                this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current table of canonical values, which may be null for none.
+     *
+     * @return the current table or null
+     */
+    public CanonicalValueTable getCanonicalValues() {
+        return canonicalValues;
+    }
+
+    /**
+     * Set a table used to deduplicate object keys and string values. Sharing
+     * one table between many parsed documents makes repeated keys and
+     * enum-like values a single instance. Set to null to disable interning.
+     *
+     * @param stringInterner table of interned strings or {@code null}
+     * @return options with the string interner set
+     */
+    public YamlParseOptions setStringInterner(StringInterner stringInterner) {
+        if (this.stringInterner == stringInterner)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, stringInterner, this.lineNumbers, this.loadRecorder,
+                this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold, this.forkJoinPool,
+                this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current table of interned strings, which may be null for none.
+     *
+     * @return the current string interner or null
+     */
+    public StringInterner getStringInterner() {
+        return stringInterner;
+    }
+
+    /**
+     * Set to false to give all values of a document the origin of the
+     * document itself instead of the line they were found on. This saves
+     * the memory of per-line origins at the cost of less precise error
+     * messages.
+     *
+     * @param lineNumbers true to track line numbers of values
+     * @return options with the "line numbers" flag set
+     */
+    public YamlParseOptions setLineNumbers(boolean lineNumbers) {
+        if (this.lineNumbers == lineNumbers)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, lineNumbers, this.loadRecorder,
+                this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold, this.forkJoinPool,
+                this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current "line numbers" flag.
+     *
+     * @return whether line numbers of values are tracked
+     */
+    public boolean getLineNumbers() {
+        return lineNumbers;
+    }
+
+    /**
+     * Set a recorder of load statistics. Stages of loading and values
+     * created while loading are counted by the recorder. Set to null to
+     * disable recording.
+     *
+     * @param loadRecorder recorder of statistics or {@code null}
+     * @return options with the load recorder set
+     */
+    public YamlParseOptions setLoadRecorder(LoadRecorder loadRecorder) {
+        if (this.loadRecorder == loadRecorder)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers, loadRecorder,
+                this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold, this.forkJoinPool,
+                this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current recorder of load statistics, which may be null for none.
+     *
+     * @return the current load recorder or null
+     */
+    public LoadRecorder getLoadRecorder() {
+        return loadRecorder;
+    }
+
+    /**
+     * Set a cache of documents included with the {@code !include} tag.
+     * Sharing one cache between many parsed documents makes a fragment
+     * included by all of them parsed once. Set to null to use a new cache
+     * for every parsed document.
+     *
+     * @param includes cache of included documents or {@code null}
+     * @return options with the includes cache set
+     */
+    public YamlParseOptions setIncludes(YamlIncludes includes) {
+        if (this.includes == includes)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, includes, this.unitStrings, this.cachedGetters, this.parallelThreshold,
+                this.forkJoinPool, this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current cache of included documents, which may be null for
+     * a new cache per document.
+     *
+     * @return the current includes cache or null
+     */
+    public YamlIncludes getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Set to true to detect strings with a unit, such as {@code 10s} or
+     * {@code 512M}, and parse them as durations and memory sizes when the
+     * document is loaded. Values tagged {@code !duration} or {@code !bytes}
+     * are parsed regardless of this flag. Parsed values are read without
+     * parsing again by {@link ConfigUnits}.
+     *
+     * @param unitStrings true to detect strings with a unit
+     * @return options with the "unit strings" flag set
+     */
+    public YamlParseOptions setUnitStrings(boolean unitStrings) {
+        if (this.unitStrings == unitStrings)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, this.includes, unitStrings, this.cachedGetters, this.parallelThreshold,
+                this.forkJoinPool, this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current "unit strings" flag.
+     *
+     * @return whether strings with a unit are detected
+     */
+    public boolean getUnitStrings() {
+        return unitStrings;
+    }
+
+    /**
+     * Set to true to make {@link ConfigFactory#load} return a
+     * {@link CachingConfig}, which memoizes results of its getters.
+     *
+     * @param cachedGetters true to memoize getters of the loaded config
+     * @return options with the "cached getters" flag set
+     */
+    public YamlParseOptions setCachedGetters(boolean cachedGetters) {
+        if (this.cachedGetters == cachedGetters)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, this.includes, this.unitStrings, cachedGetters, this.parallelThreshold,
+                this.forkJoinPool, this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current "cached getters" flag.
+     *
+     * @return whether getters of the loaded config are memoized
+     */
+    public boolean getCachedGetters() {
+        return cachedGetters;
+    }
+
+    /**
+     * Set the number of entries from which maps and lists are converted
+     * in parallel on the {@link #setForkJoinPool fork/join pool}. Smaller
+     * maps and lists are converted on the calling thread, and the values
+     * converted either way are the same. Set to 0 to always convert on
+     * the calling thread.
+     *
+     * @param parallelThreshold minimum number of entries to convert in parallel, or 0
+     * @return options with the parallel threshold set
+     */
+    public YamlParseOptions setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 0)
+            throw new IllegalArgumentException("parallelThreshold must be non-negative");
+
+        if (this.parallelThreshold == parallelThreshold)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, this.includes, this.unitStrings, this.cachedGetters, parallelThreshold,
+                this.forkJoinPool, this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current parallel threshold, which is 0 if conversion is
+     * never parallel.
+     *
+     * @return minimum number of entries to convert in parallel, or 0
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Set the pool converting large maps and lists in parallel, see
+     * {@link #setParallelThreshold}, and parsing chunks of large
+     * documents, see {@link #setSplitThreshold}. Set to null to use
+     * {@link ForkJoinPool#commonPool()}.
+     *
+     * @param forkJoinPool pool for parallel conversion or {@code null}
+     * @return options with the fork/join pool set
+     */
+    public YamlParseOptions setForkJoinPool(ForkJoinPool forkJoinPool) {
+        if (this.forkJoinPool == forkJoinPool)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold,
+                forkJoinPool, this.splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current pool for parallel conversion, which may be null for
+     * the common pool.
+     *
+     * @return the current fork/join pool or null
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Set the size in bytes from which documents are split at the keys of
+     * the root mapping into chunks parsed in parallel on the
+     * {@link #setForkJoinPool fork/join pool}, about one chunk per worker.
+     * Documents which can't be split, or whose chunks fail to parse, are
+     * parsed as a whole, and the values parsed either way are the same.
+     * Set to 0 to always parse documents as a whole.
+     *
+     * @param splitThreshold minimum size in bytes of documents to split, or 0
+     * @return options with the split threshold set
+     */
+    public YamlParseOptions setSplitThreshold(int splitThreshold) {
+        if (splitThreshold < 0)
+            throw new IllegalArgumentException("splitThreshold must be non-negative");
+
+        if (this.splitThreshold == splitThreshold)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold,
+                this.forkJoinPool, splitThreshold, this.secretResolver);
+    }
+
+    /**
+     * Gets the current split threshold, which is 0 if documents are never
+     * split.
+     *
+     * @return minimum size in bytes of documents to split, or 0
+     */
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    /**
+     * Set a resolver of {@code ${secret:name}} substitutions. References
+     * to secrets are collected while documents are parsed, and
+     * {@link ConfigFactory#load} fetches them all at once before resolving
+     * the config. Set to null to leave secret references to other resolvers.
+     *
+     * @param secretResolver resolver of secrets or {@code null}
+     * @return options with the secret resolver set
+     */
+    public YamlParseOptions setSecretResolver(SecretResolver secretResolver) {
+        if (this.secretResolver == secretResolver)
+            return this;
+        else
+            return new YamlParseOptions(this.canonicalValues, this.stringInterner, this.lineNumbers,
+                this.loadRecorder, this.includes, this.unitStrings, this.cachedGetters, this.parallelThreshold,
+                this.forkJoinPool, this.splitThreshold, secretResolver);
+    }
+
+    /**
+     * Gets the current resolver of secrets, which may be null for none.
+     *
+     * @return the current secret resolver or null
+     */
+    public SecretResolver getSecretResolver() {
+        return secretResolver;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.github.vitalibo.config.jfr;
+
+import com.github.vitalibo.config.LoadStage;
+
+/**
+ * Entry point for instrumenting the stages of loading a config. A stage is
+ * surrounded by {@link #begin(LoadStage)} and {@link Span#end}; while flight
+ * recorder is not running, or events of the stage are disabled, the span is
+ * a shared no-op instance, so instrumentation costs a single volatile read.
+ *
+ * <p>
+ * Flight recorder classes are loaded only if they are present in the
+ * runtime, so the library keeps working on JVMs without {@code jdk.jfr}.
+ */
+public final class ConfigEvents {
+
+    /**
+     * Span which records nothing.
+     */
+    public static final Span NOOP = new Span() {
+        @Override
+        public void end(String resource, long bytesRead, long nodeCount) {
+        }
+    };
+
+    private static final Recorder recorder = recorder();
+
+    private ConfigEvents() {
+    }
+
+    /**
+     * Marks the beginning of a stage.
+     *
+     * @param stage stage being started
+     * @return span to end when the stage completes
+     */
+    public static Span begin(LoadStage stage) {
+        return recorder.begin(stage);
+    }
+
+    private static Recorder recorder() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ConfigEvents.class.getClassLoader());
+            return (Recorder) Class.forName("com.github.vitalibo.config.jfr.FlightRecorder")
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return stage -> NOOP;
+        }
+    }
+
+    /**
+     * A stage of loading a config which is in progress.
+     */
+    public interface Span {
+
+        /**
+         * Marks the end of the stage.
+         *
+         * @param resource  name of the resource or description of the origin
+         * @param bytesRead number of bytes read by the stage
+         * @param nodeCount number of YAML nodes or path entries processed
+         */
+        void end(String resource, long bytesRead, long nodeCount);
+
+    }
+
+    interface Recorder {
+        Span begin(LoadStage stage);
+    }
+
+}
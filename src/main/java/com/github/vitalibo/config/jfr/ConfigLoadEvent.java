@@ -0,0 +1,33 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the flight recorder events emitted for the stages of loading a
+ * config. Events are disabled unless enabled in the recording settings,
+ * for example with {@code jdk.jfr.Recording#enable(Class)}.
+ */
+@Enabled(false)
+@StackTrace(false)
+@Category({"Config", "Load"})
+abstract class ConfigLoadEvent extends Event {
+
+    @Label("Resource")
+    @Description("Name of the resource or description of the config origin")
+    String resource;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Node Count")
+    @Description("Number of YAML nodes or path entries processed by the stage")
+    long nodeCount;
+
+}
@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.FileRead")
+@Label("Config File Read")
+@Description("Reading of a config resource")
+final class FileReadEvent extends ConfigLoadEvent {
+}
@@ -0,0 +1,50 @@
+package com.github.vitalibo.config.jfr;
+
+import com.github.vitalibo.config.LoadStage;
+import jdk.jfr.EventType;
+
+import java.util.function.Supplier;
+
+/**
+ * Recorder of stages as flight recorder events. Loaded reflectively by
+ * {@link ConfigEvents} only when {@code jdk.jfr} is available.
+ */
+final class FlightRecorder implements ConfigEvents.Recorder {
+
+    final private EventType[] types = new EventType[LoadStage.values().length];
+    final private Supplier<?>[] factories = new Supplier<?>[LoadStage.values().length];
+
+    FlightRecorder() {
+        register(LoadStage.RESOURCE_LOOKUP, ResourceLookupEvent.class, ResourceLookupEvent::new);
+        register(LoadStage.FILE_READ, FileReadEvent.class, FileReadEvent::new);
+        register(LoadStage.YAML_PARSE, YamlParseEvent.class, YamlParseEvent::new);
+        register(LoadStage.VALUE_CONVERSION, ValueConversionEvent.class, ValueConversionEvent::new);
+        register(LoadStage.PATH_MAP, PathMapEvent.class, PathMapEvent::new);
+        register(LoadStage.RESOLVE, ResolveEvent.class, ResolveEvent::new);
+        register(LoadStage.MERGE, MergeEvent.class, MergeEvent::new);
+    }
+
+    private <T extends ConfigLoadEvent> void register(LoadStage stage, Class<T> cls, Supplier<T> factory) {
+        types[stage.ordinal()] = EventType.getEventType(cls);
+        factories[stage.ordinal()] = factory;
+    }
+
+    @Override
+    public ConfigEvents.Span begin(LoadStage stage) {
+        if (!types[stage.ordinal()].isEnabled())
+            return ConfigEvents.NOOP;
+
+        ConfigLoadEvent event = (ConfigLoadEvent) factories[stage.ordinal()].get();
+        event.begin();
+        return (resource, bytesRead, nodeCount) -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.resource = resource;
+                event.bytesRead = bytesRead;
+                event.nodeCount = nodeCount;
+                event.commit();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.Merge")
+@Label("Config Merge")
+@Description("Merging of a config with its fallbacks")
+final class MergeEvent extends ConfigLoadEvent {
+}
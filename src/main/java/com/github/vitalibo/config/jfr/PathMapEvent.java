@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.PathMap")
+@Label("Config Path Map")
+@Description("Building of config objects from a map of path expressions")
+final class PathMapEvent extends ConfigLoadEvent {
+}
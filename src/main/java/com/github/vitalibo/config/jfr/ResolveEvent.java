@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.Resolve")
+@Label("Config Resolve")
+@Description("Resolution of substitutions")
+final class ResolveEvent extends ConfigLoadEvent {
+}
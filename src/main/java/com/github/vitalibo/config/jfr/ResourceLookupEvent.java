@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.ResourceLookup")
+@Label("Config Resource Lookup")
+@Description("Lookup of a config resource on the classpath")
+final class ResourceLookupEvent extends ConfigLoadEvent {
+}
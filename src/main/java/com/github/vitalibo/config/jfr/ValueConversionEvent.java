@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.ValueConversion")
+@Label("Config Value Conversion")
+@Description("Conversion of Java collections into config values")
+final class ValueConversionEvent extends ConfigLoadEvent {
+}
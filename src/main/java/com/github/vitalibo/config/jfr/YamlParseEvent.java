@@ -0,0 +1,11 @@
+package com.github.vitalibo.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.vitalibo.config.YamlParse")
+@Label("Config YAML Parse")
+@Description("Parsing of YAML text into Java collections")
+final class YamlParseEvent extends ConfigLoadEvent {
+}
@@ -0,0 +1,173 @@
+package com.typesafe.config.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hash-consing table for immutable config values. Structurally equal
+ * values converted by {@link YamlParser} with the same table are replaced by
+ * a single canonical instance, so identical subtrees loaded from many files
+ * are retained only once.
+ *
+ * <p>
+ * Values are canonicalized bottom-up, therefore children of a canonical
+ * container are canonical themselves and containers are compared by
+ * identity of their children. This keeps both hashing and comparison
+ * proportional to the number of direct children instead of the subtree size.
+ *
+ * <p>
+ * Only resolved values take part in canonicalization, since resolving
+ * substitutions locates children by identity. Note that equality of config
+ * values ignores origins, so a canonical value keeps the origin of the first
+ * file it was loaded from.
+ *
+ * <p>
+ * The table is safe for concurrent use and holds its values strongly until
+ * {@link #clear()} is called.
+ */
+public final class CanonicalValueTable {
+
+    final private ConcurrentMap<Key, AbstractConfigValue> table = new ConcurrentHashMap<>();
+    final private LongAdder hits = new LongAdder();
+    final private LongAdder misses = new LongAdder();
+
+    /**
+     * Returns canonical instance structurally equal to the given value,
+     * registering the value itself if none is known yet.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends AbstractConfigValue> T canonicalize(T value) {
+        if (value.resolveStatus() != ResolveStatus.RESOLVED)
+            return value;
+
+        AbstractConfigValue canonical = table.putIfAbsent(new Key(value), value);
+        if (canonical == null) {
+            misses.increment();
+            return value;
+        }
+
+        hits.increment();
+        return (T) canonical;
+    }
+
+    /**
+     * @return number of distinct values held by the table
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * @return number of values replaced by a canonical instance
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of values registered as canonical
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Drops all canonical values and resets the statistics.
+     */
+    public void clear() {
+        table.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    private static boolean isContainer(AbstractConfigValue value) {
+        return value instanceof AbstractConfigObject || value instanceof SimpleConfigList;
+    }
+
+    private static int childHash(AbstractConfigValue child) {
+        return isContainer(child) ? System.identityHashCode(child)
+            : child.getClass().hashCode() * 31 + child.hashCode();
+    }
+
+    private static boolean sameChild(AbstractConfigValue a, AbstractConfigValue b) {
+        if (a == b)
+            return true;
+        if (a == null || b == null || isContainer(a) || isContainer(b))
+            return false;
+        return a.getClass() == b.getClass() && a.equals(b);
+    }
+
+    private static final class Key {
+        final private AbstractConfigValue value;
+        final private int hash;
+
+        Key(AbstractConfigValue value) {
+            this.value = value;
+            this.hash = structuralHash(value);
+        }
+
+        private static int structuralHash(AbstractConfigValue value) {
+            if (value instanceof AbstractConfigObject) {
+                int h = 0;
+                for (Map.Entry<String, ?> entry : ((AbstractConfigObject) value).entrySet()) {
+                    h += entry.getKey().hashCode() ^ childHash((AbstractConfigValue) entry.getValue());
+                }
+                return h * 31 + (value.ignoresFallbacks() ? 1 : 0);
+            } else if (value instanceof SimpleConfigList) {
+                int h = 1;
+                for (Object child : (List<?>) value) {
+                    h = h * 31 + childHash((AbstractConfigValue) child);
+                }
+                return h;
+            } else {
+                return childHash(value);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+
+            Key that = (Key) other;
+            if (hash != that.hash || value.getClass() != that.value.getClass())
+                return false;
+
+            if (value instanceof AbstractConfigObject) {
+                AbstractConfigObject a = (AbstractConfigObject) value;
+                AbstractConfigObject b = (AbstractConfigObject) that.value;
+                if (a.size() != b.size() || a.ignoresFallbacks() != b.ignoresFallbacks())
+                    return false;
+                for (Map.Entry<String, ?> entry : a.entrySet()) {
+                    if (!sameChild((AbstractConfigValue) entry.getValue(), b.get(entry.getKey())))
+                        return false;
+                }
+                return true;
+            } else if (value instanceof SimpleConfigList) {
+                SimpleConfigList a = (SimpleConfigList) value;
+                SimpleConfigList b = (SimpleConfigList) that.value;
+                if (a.size() != b.size())
+                    return false;
+                Iterator<?> i = a.iterator();
+                Iterator<?> j = b.iterator();
+                while (i.hasNext()) {
+                    if (!sameChild((AbstractConfigValue) i.next(), (AbstractConfigValue) j.next()))
+                        return false;
+                }
+                return true;
+            } else {
+                return value.equals(that.value);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.typesafe.config.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable backing map of {@link SimpleConfigObject} for objects with few
+ * keys. Keys and values are stored in parallel arrays in insertion order and
+ * looked up with a linear scan, which for a handful of keys is both smaller
+ * and not slower than hashing.
+ */
+final class CompactValueMap extends AbstractMap<String, AbstractConfigValue> {
+
+    // objects with more keys than this keep their hash based map
+    final static int THRESHOLD = 8;
+
+    final private String[] keys;
+    final private AbstractConfigValue[] values;
+
+    private CompactValueMap(String[] keys, AbstractConfigValue[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Returns compact copy of the map if it is small enough, otherwise
+     * the map itself. Map must not be modified afterwards.
+     */
+    static Map<String, AbstractConfigValue> of(Map<String, AbstractConfigValue> map) {
+        if (map.size() > THRESHOLD || map instanceof CompactValueMap)
+            return map;
+
+        String[] keys = new String[map.size()];
+        AbstractConfigValue[] values = new AbstractConfigValue[map.size()];
+        int i = 0;
+        for (Map.Entry<String, AbstractConfigValue> entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+
+        return new CompactValueMap(keys, values);
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key))
+                return i;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public AbstractConfigValue get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, AbstractConfigValue>> entrySet() {
+        return new AbstractSet<Map.Entry<String, AbstractConfigValue>>() {
+            @Override
+            public Iterator<Map.Entry<String, AbstractConfigValue>> iterator() {
+                return new Iterator<Map.Entry<String, AbstractConfigValue>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, AbstractConfigValue> next() {
+                        if (i >= keys.length)
+                            throw new NoSuchElementException();
+                        Map.Entry<String, AbstractConfigValue> entry =
+                            new AbstractMap.SimpleImmutableEntry<>(keys[i], values[i]);
+                        i++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+}
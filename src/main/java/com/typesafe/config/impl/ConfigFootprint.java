@@ -0,0 +1,591 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate retained heap of a tree of config values, attributed to the
+ * objects and lists of the tree. Sizes are estimated from the declared
+ * fields of the classes, assuming a 64-bit JVM with compressed references,
+ * so no agent is needed. An instance shared by several values is
+ * attributed to the first one reached, and structurally equal subtrees
+ * which are separate instances are reported as duplicates. Subtrees are
+ * compared by fingerprints hashed bottom-up once per instance, and only
+ * subtrees with equal fingerprints are compared in full.
+ *
+ * <p>
+ * {@code ConfigFootprintReport} of the {@code benchmarks} module prints the
+ * report of a config on the classpath.
+ */
+public final class ConfigFootprint {
+
+    final private static int HEADER = 12;
+    final private static int ARRAY_HEADER = 16;
+    final private static int REFERENCE = 4;
+    final private static int ALIGNMENT = 8;
+
+    final private static Map<Class<?>, Layout> layouts = new ConcurrentHashMap<>();
+    final private static Field objectValue = field(SimpleConfigObject.class, "value");
+    final private static Field listValue = PrimitiveValueList.listValue != null
+        ? PrimitiveValueList.listValue : field(SimpleConfigList.class, "value");
+
+    final private long retainedBytes;
+    final private long objects;
+    final private long lists;
+    final private long scalars;
+    final private long maps;
+    final private long strings;
+    final private long origins;
+    final private long shared;
+    final private List<Subtree> subtrees;
+    final private List<Duplicate> duplicates;
+
+    private ConfigFootprint(Walker walker, long retainedBytes) {
+        this.retainedBytes = retainedBytes;
+        this.objects = walker.objects;
+        this.lists = walker.lists;
+        this.scalars = walker.scalars;
+        this.maps = walker.maps;
+        this.strings = walker.strings;
+        this.origins = walker.origins;
+        this.shared = walker.shared;
+        this.subtrees = sorted(walker.subtrees, Comparator.comparingLong(Subtree::getRetainedBytes));
+        this.duplicates = sorted(walker.duplicates, Comparator.comparingLong(Duplicate::getRetainedBytes));
+    }
+
+    /**
+     * Estimates footprint of the given value and everything it references.
+     *
+     * @param value config value, usually the root object
+     * @return footprint of the value
+     */
+    public static ConfigFootprint of(ConfigValue value) {
+        Walker walker = new Walker();
+        long bytes = walker.value((AbstractConfigValue) value, "", false);
+        return new ConfigFootprint(walker, bytes);
+    }
+
+    /**
+     * @return estimated bytes retained by the whole tree
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * @return number of config objects
+     */
+    public long getObjects() {
+        return objects;
+    }
+
+    /**
+     * @return number of config lists
+     */
+    public long getLists() {
+        return lists;
+    }
+
+    /**
+     * @return number of values other than objects and lists
+     */
+    public long getScalars() {
+        return scalars;
+    }
+
+    /**
+     * @return number of maps, including maps backing config objects
+     */
+    public long getMaps() {
+        return maps;
+    }
+
+    /**
+     * @return number of distinct string instances
+     */
+    public long getStrings() {
+        return strings;
+    }
+
+    /**
+     * @return number of distinct origin instances
+     */
+    public long getOrigins() {
+        return origins;
+    }
+
+    /**
+     * @return number of references to instances already attributed to
+     * another value, such as canonical subtrees or interned strings
+     */
+    public long getShared() {
+        return shared;
+    }
+
+    /**
+     * Gets objects and lists of the tree ranked by retained bytes. Retained
+     * bytes of a subtree include its nested subtrees.
+     *
+     * @param limit maximum number of subtrees
+     * @return largest subtrees, the largest first
+     */
+    public List<Subtree> getLargest(int limit) {
+        return subtrees.subList(0, Math.min(limit, subtrees.size()));
+    }
+
+    /**
+     * Gets subtrees which are structurally equal to another subtree of the
+     * tree, but are separate instances. Subtrees nested in a duplicate are
+     * not reported on their own.
+     *
+     * @return duplicates, the largest first
+     */
+    public List<Duplicate> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Renders summary with the given number of largest subtrees and
+     * duplicates.
+     *
+     * @param limit maximum number of subtrees and of duplicates
+     * @return human-readable report
+     */
+    public String render(int limit) {
+        StringBuilder sb = new StringBuilder()
+            .append("retained: ").append(retainedBytes).append(" bytes\n")
+            .append("objects: ").append(objects)
+            .append(", lists: ").append(lists)
+            .append(", scalars: ").append(scalars)
+            .append(", maps: ").append(maps)
+            .append(", strings: ").append(strings)
+            .append(", origins: ").append(origins)
+            .append(", shared: ").append(shared).append('\n')
+            .append("largest:\n");
+        for (Subtree subtree : getLargest(limit)) {
+            sb.append("  ").append(subtree).append('\n');
+        }
+        sb.append("duplicates:\n");
+        for (Duplicate duplicate : duplicates.subList(0, Math.min(limit, duplicates.size()))) {
+            sb.append("  ").append(duplicate).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return render(10);
+    }
+
+    private static <T> List<T> sorted(List<T> list, Comparator<T> comparator) {
+        List<T> copy = new ArrayList<>(list);
+        copy.sort(comparator.reversed());
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static Field field(Class<?> cls, String name) {
+        try {
+            Field field = cls.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            throw new ConfigException.BugOrBroken("unable to access " + cls.getName() + "." + name, e);
+        }
+    }
+
+    private static Object read(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new ConfigException.BugOrBroken("unable to read " + field, e);
+        }
+    }
+
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static long array(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    private static boolean isJdk(Class<?> cls) {
+        return cls.getClassLoader() == null;
+    }
+
+    private static Layout layout(Class<?> cls) {
+        return layouts.computeIfAbsent(cls, Layout::new);
+    }
+
+    /**
+     * Estimated bytes retained by an object or list of the tree.
+     */
+    public static final class Subtree {
+        final private String path;
+        final private long retainedBytes;
+
+        Subtree(String path, long retainedBytes) {
+            this.path = path;
+            this.retainedBytes = retainedBytes;
+        }
+
+        /**
+         * @return path expression of the subtree, list elements as {@code list[i]}
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return estimated retained bytes
+         */
+        public long getRetainedBytes() {
+            return retainedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": " + retainedBytes + " bytes";
+        }
+    }
+
+    /**
+     * Subtree which is structurally equal to another subtree.
+     */
+    public static final class Duplicate {
+        final private String path;
+        final private String duplicateOf;
+        final private long retainedBytes;
+
+        Duplicate(String path, String duplicateOf, long retainedBytes) {
+            this.path = path;
+            this.duplicateOf = duplicateOf;
+            this.retainedBytes = retainedBytes;
+        }
+
+        /**
+         * @return path expression of the duplicate
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return path expression of the first equal subtree
+         */
+        public String getDuplicateOf() {
+            return duplicateOf;
+        }
+
+        /**
+         * @return estimated bytes which sharing the first subtree would save
+         */
+        public long getRetainedBytes() {
+            return retainedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return path + " (same as " + duplicateOf + "): " + retainedBytes + " bytes";
+        }
+    }
+
+    private static final class Layout {
+        final private long shallowSize;
+        final private Field[] references;
+
+        Layout(Class<?> cls) {
+            long size = HEADER;
+            List<Field> references = new ArrayList<>();
+            for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+
+                    Class<?> type = field.getType();
+                    if (!type.isPrimitive()) {
+                        size += REFERENCE;
+                        if (!isJdk(c)) {
+                            field.setAccessible(true);
+                            references.add(field);
+                        }
+                    } else if (type == long.class || type == double.class) {
+                        size += 8;
+                    } else if (type == int.class || type == float.class) {
+                        size += 4;
+                    } else if (type == short.class || type == char.class) {
+                        size += 2;
+                    } else {
+                        size += 1;
+                    }
+                }
+            }
+
+            this.shallowSize = align(size);
+            this.references = references.toArray(new Field[0]);
+        }
+    }
+
+    private static final class Walker {
+        final private Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final private Map<AbstractConfigValue, Integer> fingerprints = new IdentityHashMap<>();
+        final private Map<Container, String> containers = new HashMap<>();
+        final private List<Subtree> subtrees = new ArrayList<>();
+        final private List<Duplicate> duplicates = new ArrayList<>();
+        private long objects;
+        private long lists;
+        private long scalars;
+        private long maps;
+        private long strings;
+        private long origins;
+        private long shared;
+
+        long value(AbstractConfigValue value, String path, boolean inDuplicate) {
+            if (!visited.add(value)) {
+                shared++;
+                return 0;
+            }
+
+            String duplicateOf = null;
+            if (!inDuplicate && (value instanceof SimpleConfigObject || value instanceof SimpleConfigList)) {
+                duplicateOf = containers.putIfAbsent(new Container(value, fingerprint(value)), path);
+            }
+
+            long bytes;
+            if (value instanceof SimpleConfigObject) {
+                objects++;
+                maps++;
+                bytes = layout(value.getClass()).shallowSize + any(value.origin());
+                @SuppressWarnings("unchecked")
+                Map<String, AbstractConfigValue> map = (Map<String, AbstractConfigValue>) read(objectValue, value);
+                bytes += structure(map);
+                for (Map.Entry<String, AbstractConfigValue> entry : map.entrySet()) {
+                    bytes += any(entry.getKey());
+                    bytes += value(entry.getValue(), join(path, entry.getKey()), inDuplicate || duplicateOf != null);
+                }
+            } else if (value instanceof SimpleConfigList) {
+                lists++;
+                bytes = layout(value.getClass()).shallowSize + any(value.origin());
+                @SuppressWarnings("unchecked")
+                List<AbstractConfigValue> list = (List<AbstractConfigValue>) read(listValue, value);
+                if (list instanceof PrimitiveValueList) {
+                    bytes += any(list);
+                } else {
+                    bytes += structure(list);
+                    for (int i = 0; i < list.size(); i++) {
+                        bytes += value(list.get(i), path + "[" + i + "]", inDuplicate || duplicateOf != null);
+                    }
+                }
+            } else {
+                scalars++;
+                bytes = fields(value);
+            }
+
+            if (value instanceof SimpleConfigObject || value instanceof SimpleConfigList) {
+                if (!path.isEmpty())
+                    subtrees.add(new Subtree(path, bytes));
+                if (duplicateOf != null)
+                    duplicates.add(new Duplicate(path, duplicateOf, bytes));
+            }
+
+            return bytes;
+        }
+
+        /**
+         * Structural hash of the value, equal for equal values. Hashes of
+         * objects and lists are computed from the memoized hashes of their
+         * children, so each instance is hashed once.
+         */
+        private int fingerprint(AbstractConfigValue value) {
+            Integer cached = fingerprints.get(value);
+            if (cached != null)
+                return cached;
+
+            int hash;
+            if (value instanceof SimpleConfigObject) {
+                // entries are summed as objects are equal regardless of order
+                hash = 1;
+                @SuppressWarnings("unchecked")
+                Map<String, AbstractConfigValue> map = (Map<String, AbstractConfigValue>) read(objectValue, value);
+                for (Map.Entry<String, AbstractConfigValue> entry : map.entrySet()) {
+                    hash += entry.getKey().hashCode() ^ fingerprint(entry.getValue());
+                }
+            } else if (value instanceof SimpleConfigList) {
+                hash = 2;
+                @SuppressWarnings("unchecked")
+                List<AbstractConfigValue> list = (List<AbstractConfigValue>) read(listValue, value);
+                if (list instanceof PrimitiveValueList) {
+                    hash = 31 * hash + list.hashCode();
+                } else {
+                    for (AbstractConfigValue element : list) {
+                        hash = 31 * hash + fingerprint(element);
+                    }
+                }
+            } else {
+                hash = value.hashCode();
+            }
+
+            fingerprints.put(value, hash);
+            return hash;
+        }
+
+        private long any(Object object) {
+            if (object == null)
+                return 0;
+            if (!visited.add(object)) {
+                shared++;
+                return 0;
+            }
+
+            Class<?> cls = object.getClass();
+            if (object instanceof String) {
+                strings++;
+                return string((String) object);
+            } else if (cls.isArray()) {
+                return arrayOf(object);
+            } else if (object instanceof Enum || object instanceof Class) {
+                return 0;
+            } else if (isJdk(cls) && object instanceof Map) {
+                maps++;
+                long bytes = structure((Map<?, ?>) object);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                    bytes += any(entry.getKey()) + any(entry.getValue());
+                }
+                return bytes;
+            } else if (isJdk(cls) && object instanceof Collection) {
+                long bytes = structure((Collection<?>) object);
+                for (Object element : (Collection<?>) object) {
+                    bytes += any(element);
+                }
+                return bytes;
+            } else if (isJdk(cls)) {
+                return layout(cls).shallowSize;
+            } else {
+                if (object instanceof SimpleConfigOrigin)
+                    origins++;
+                return fields(object);
+            }
+        }
+
+        private long fields(Object object) {
+            Layout layout = layout(object.getClass());
+            long bytes = layout.shallowSize;
+            for (Field field : layout.references) {
+                Object referenced = read(field, object);
+                if (referenced instanceof AbstractConfigValue && referenced != object)
+                    bytes += value((AbstractConfigValue) referenced, "", true);
+                else
+                    bytes += any(referenced);
+            }
+
+            return bytes;
+        }
+
+        private long arrayOf(Object array) {
+            Class<?> type = array.getClass().getComponentType();
+            int length = Array.getLength(array);
+            if (!type.isPrimitive()) {
+                long bytes = array(length, REFERENCE);
+                for (Object element : (Object[]) array) {
+                    bytes += any(element);
+                }
+                return bytes;
+            } else if (type == long.class || type == double.class) {
+                return array(length, 8);
+            } else if (type == int.class || type == float.class) {
+                return array(length, 4);
+            } else if (type == short.class || type == char.class) {
+                return array(length, 2);
+            } else {
+                return array(length, 1);
+            }
+        }
+
+        private static long string(String string) {
+            int coder = 1;
+            for (int i = 0; i < string.length(); i++) {
+                if (string.charAt(i) > 0xFF) {
+                    coder = 2;
+                    break;
+                }
+            }
+
+            return layout(String.class).shallowSize + array(string.length(), coder);
+        }
+
+        // bytes of the map itself without keys and values
+        private static long structure(Map<?, ?> map) {
+            if (map instanceof CompactValueMap) {
+                return layout(CompactValueMap.class).shallowSize + 2 * array(map.size(), REFERENCE);
+            } else if (map instanceof HashMap) {
+                int entry = map instanceof LinkedHashMap ? 40 : 32;
+                return layout(map.getClass()).shallowSize + array(tableSize(map.size()), REFERENCE)
+                    + (long) map.size() * entry;
+            } else {
+                return layout(map.getClass()).shallowSize + (long) map.size() * 32;
+            }
+        }
+
+        // bytes of the collection itself without elements
+        private static long structure(Collection<?> collection) {
+            return layout(collection.getClass()).shallowSize + array(collection.size(), REFERENCE);
+        }
+
+        private static int tableSize(int size) {
+            int capacity = 16;
+            while (size > capacity * 3 / 4) {
+                capacity *= 2;
+            }
+
+            return capacity;
+        }
+
+        private static String join(String path, String key) {
+            String element = ConfigUtil.joinPath(key);
+            return path.isEmpty() ? element : path + "." + element;
+        }
+    }
+
+    /**
+     * Object or list keyed by its fingerprint, compared in full only with
+     * containers of the same fingerprint.
+     */
+    private static final class Container {
+        final private AbstractConfigValue value;
+        final private int fingerprint;
+
+        Container(AbstractConfigValue value, int fingerprint) {
+            this.value = value;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Container && fingerprint == ((Container) other).fingerprint
+                && value.equals(((Container) other).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return fingerprint;
+        }
+    }
+
+}
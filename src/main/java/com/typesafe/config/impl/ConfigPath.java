@@ -0,0 +1,232 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+
+import java.time.Duration;
+
+/**
+ * Path expression parsed once and reused for reading any number of
+ * configs. Reading a config made by this library walks the tree with the
+ * keys of the path straight to the leaf value, without parsing the
+ * expression again; values and exceptions are the same as of the getters
+ * of the config called with the expression. Other configs are read with
+ * their getters.
+ *
+ * <p>
+ * Handles are immutable and may be kept in static fields; get them with
+ * {@link #of(String)} or from a {@link PathCache}.
+ */
+public final class ConfigPath {
+
+    final private String expression;
+    final private Path path;
+
+    ConfigPath(String expression, Path path) {
+        this.expression = expression;
+        this.path = path;
+    }
+
+    /**
+     * Gets handle of the path expression from the {@link PathCache#global()} table.
+     *
+     * @param expression path expression, such as {@code a.b.c}
+     * @return the handle
+     * @throws ConfigException.BadPath if the expression is not a valid path
+     */
+    public static ConfigPath of(String expression) {
+        return PathCache.global().get(expression);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * @return the path expression
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * As {@link Config#hasPath(String)}.
+     *
+     * @param config config to read
+     * @return true if the config has a non-null value at the path
+     */
+    public boolean hasPath(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.hasPath(expression);
+
+        AbstractConfigValue peeked;
+        try {
+            peeked = ((SimpleConfig) config).root().peekPath(path);
+        } catch (ConfigException.NotResolved e) {
+            throw ConfigImpl.improveNotResolved(path, e);
+        }
+
+        return peeked != null && peeked.valueType() != ConfigValueType.NULL;
+    }
+
+    /**
+     * As {@link Config#getValue(String)}.
+     *
+     * @param config config to read
+     * @return the value at the path
+     */
+    public ConfigValue getValue(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getValue(expression);
+
+        return find(config, null);
+    }
+
+    /**
+     * As {@link Config#getBoolean(String)}.
+     *
+     * @param config config to read
+     * @return the boolean value at the path
+     */
+    public boolean getBoolean(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getBoolean(expression);
+
+        return (Boolean) find(config, ConfigValueType.BOOLEAN).unwrapped();
+    }
+
+    /**
+     * As {@link Config#getNumber(String)}.
+     *
+     * @param config config to read
+     * @return the numeric value at the path
+     */
+    public Number getNumber(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getNumber(expression);
+
+        return (Number) find(config, ConfigValueType.NUMBER).unwrapped();
+    }
+
+    /**
+     * As {@link Config#getInt(String)}.
+     *
+     * @param config config to read
+     * @return the 32-bit integer value at the path
+     */
+    public int getInt(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getInt(expression);
+
+        return ((ConfigNumber) find(config, ConfigValueType.NUMBER)).intValueRangeChecked(expression);
+    }
+
+    /**
+     * As {@link Config#getLong(String)}.
+     *
+     * @param config config to read
+     * @return the 64-bit long value at the path
+     */
+    public long getLong(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getLong(expression);
+
+        return getNumber(config).longValue();
+    }
+
+    /**
+     * As {@link Config#getDouble(String)}.
+     *
+     * @param config config to read
+     * @return the floating-point value at the path
+     */
+    public double getDouble(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getDouble(expression);
+
+        return getNumber(config).doubleValue();
+    }
+
+    /**
+     * As {@link Config#getString(String)}.
+     *
+     * @param config config to read
+     * @return the string value at the path
+     */
+    public String getString(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getString(expression);
+
+        return (String) find(config, ConfigValueType.STRING).unwrapped();
+    }
+
+    /**
+     * As {@link Config#getDuration(String)}. Durations parsed when the
+     * config was loaded are returned without parsing the string again.
+     *
+     * @param config config to read
+     * @return the duration value at the path
+     */
+    public Duration getDuration(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getDuration(expression);
+
+        AbstractConfigValue value = find(config, ConfigValueType.STRING);
+        if (value instanceof ConfigUnitString) {
+            Duration duration = ((ConfigUnitString) value).getDuration();
+            if (duration != null)
+                return duration;
+        }
+
+        return Duration.ofNanos(SimpleConfig.parseDuration((String) value.unwrapped(), value.origin(), expression));
+    }
+
+    /**
+     * As {@link Config#getObject(String)}.
+     *
+     * @param config config to read
+     * @return the object value at the path
+     */
+    public ConfigObject getObject(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getObject(expression);
+
+        return (AbstractConfigObject) find(config, ConfigValueType.OBJECT);
+    }
+
+    /**
+     * As {@link Config#getConfig(String)}.
+     *
+     * @param config config to read
+     * @return the nested config at the path
+     */
+    public Config getConfig(Config config) {
+        if (!(config instanceof SimpleConfig))
+            return config.getConfig(expression);
+
+        return ((AbstractConfigObject) find(config, ConfigValueType.OBJECT)).toConfig();
+    }
+
+    private AbstractConfigValue find(Config config, ConfigValueType expected) {
+        return ((SimpleConfig) config).find(path, expected, path);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ConfigPath && path.equals(((ConfigPath) other).path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigPath(" + path.render() + ")";
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigOrigin;
+
+import java.io.ObjectStreamException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * String value with a unit, such as {@code 1s} or {@code 512M}, parsed once
+ * when the value is created. For the config API it is an ordinary string,
+ * but the parsed duration and memory size are kept with full precision,
+ * so they can be read without parsing the string again. A value may be
+ * both: {@code 1m} is a minute as a duration and a mebibyte as a size.
+ */
+public final class ConfigUnitString extends ConfigString {
+
+    private static final long serialVersionUID = 1L;
+
+    // number followed by a unit, the only strings worth trying to parse
+    private static final Pattern UNIT_PATTERN = Pattern.compile(
+        "\\s*[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?\\s*[a-zA-Z]+\\s*");
+
+    private static final long[] UNIT_NANOS = {
+        TimeUnit.DAYS.toNanos(1), TimeUnit.HOURS.toNanos(1), TimeUnit.MINUTES.toNanos(1),
+        TimeUnit.SECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MICROSECONDS.toNanos(1), 1};
+    private static final String[] UNIT_NAMES = {"d", "h", "m", "s", "ms", "us", "ns"};
+
+    // null if the value is not a duration
+    final private Duration duration;
+    // null if the value is not a memory size
+    final private ConfigMemorySize memorySize;
+
+    private ConfigUnitString(ConfigOrigin origin, String value, Duration duration, ConfigMemorySize memorySize) {
+        super(origin, value);
+        this.duration = duration;
+        this.memorySize = memorySize;
+    }
+
+    /**
+     * Parses the string as a duration and as a memory size.
+     *
+     * @return the value, or null if the string is neither
+     */
+    static ConfigUnitString parse(ConfigOrigin origin, String value) {
+        if (!UNIT_PATTERN.matcher(value).matches())
+            return null;
+
+        Duration duration = parseDuration(origin, value);
+        ConfigMemorySize memorySize = parseMemorySize(origin, value);
+        if (duration == null && memorySize == null)
+            return null;
+
+        return new ConfigUnitString(origin, value, duration, memorySize);
+    }
+
+    /**
+     * Parses the string, which must be a duration.
+     */
+    static ConfigUnitString duration(ConfigOrigin origin, String value, String tag) {
+        ConfigUnitString unitString = parse(origin, value);
+        if (unitString == null || unitString.duration == null)
+            throw new ConfigException.Parse(origin, tag + " value is not a duration: '" + value + "'");
+        return unitString;
+    }
+
+    /**
+     * Parses the string, which must be a memory size.
+     */
+    static ConfigUnitString memorySize(ConfigOrigin origin, String value, String tag) {
+        ConfigUnitString unitString = parse(origin, value);
+        if (unitString == null || unitString.memorySize == null)
+            throw new ConfigException.Parse(origin, tag + " value is not a memory size: '" + value + "'");
+        return unitString;
+    }
+
+    /**
+     * Creates value of the duration, rendered in the largest unit which
+     * keeps it exact.
+     */
+    static ConfigUnitString of(ConfigOrigin origin, Duration duration) {
+        String value;
+        try {
+            long nanos = duration.toNanos();
+            int unit = 0;
+            while (nanos % UNIT_NANOS[unit] != 0) {
+                unit++;
+            }
+            value = (nanos / UNIT_NANOS[unit]) + UNIT_NAMES[unit];
+        } catch (ArithmeticException e) {
+            // too long for the parser anyway, the exact duration is still kept
+            value = duration.getSeconds() + "s";
+        }
+
+        return new ConfigUnitString(origin, value, duration, parseMemorySize(origin, value));
+    }
+
+    private static Duration parseDuration(ConfigOrigin origin, String value) {
+        try {
+            return Duration.ofNanos(SimpleConfig.parseDuration(value, origin, value));
+        } catch (ConfigException.BadValue e) {
+            return null;
+        }
+    }
+
+    private static ConfigMemorySize parseMemorySize(ConfigOrigin origin, String value) {
+        try {
+            return ConfigMemorySize.ofBytes(SimpleConfig.parseBytes(value, origin, value));
+        } catch (ConfigException.BadValue | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the duration, or null if the value is not a duration
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the memory size, or null if the value is not a memory size
+     */
+    public ConfigMemorySize getMemorySize() {
+        return memorySize;
+    }
+
+    @Override
+    protected ConfigUnitString newCopy(ConfigOrigin origin) {
+        return new ConfigUnitString(origin, value, duration, memorySize);
+    }
+
+    // serialization all goes through SerializedConfigValue
+    private Object writeReplace() throws ObjectStreamException {
+        return new SerializedConfigValue(this);
+    }
+
+}
@@ -0,0 +1,360 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigMergeable;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigValue;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.temporal.TemporalAmount;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Config} which forwards all method calls to another config.
+ * Subclasses override methods to add behavior around the delegate, such as
+ * tracing or caching of values.
+ *
+ * <p>
+ * Forwarding configs can be merged as fallbacks of any config. Configs
+ * created by {@link com.typesafe.config.ConfigFactory} only resolve with,
+ * or check against, configs of their own class, so pass
+ * {@link #unwrap(Config)} of a forwarding config to their
+ * {@code resolveWith} and {@code checkValid}; forwarding configs unwrap
+ * these arguments themselves.
+ */
+public abstract class ForwardingConfig implements Config, MergeableValue {
+
+    final protected Config delegate;
+
+    protected ForwardingConfig(Config delegate) {
+        if (delegate == null)
+            throw new NullPointerException("delegate");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ConfigObject root() {
+        return delegate.root();
+    }
+
+    @Override
+    public ConfigOrigin origin() {
+        return delegate.origin();
+    }
+
+    /**
+     * Gets config which the given one forwards to, through any number of
+     * forwarding configs and overlays.
+     *
+     * @param config config to unwrap
+     * @return the innermost config
+     */
+    public static Config unwrap(Config config) {
+        while (config instanceof ForwardingConfig) {
+            config = ((ForwardingConfig) config).delegate;
+        }
+
+        return config instanceof OverlayConfig ? ((OverlayConfig) config).toConfig() : config;
+    }
+
+    @Override
+    public Config withFallback(ConfigMergeable other) {
+        return delegate.withFallback(other);
+    }
+
+    @Override
+    public ConfigValue toFallbackValue() {
+        if (delegate instanceof MergeableValue)
+            return ((MergeableValue) delegate).toFallbackValue();
+        else
+            return delegate.root();
+    }
+
+    @Override
+    public Config resolve() {
+        return delegate.resolve();
+    }
+
+    @Override
+    public Config resolve(ConfigResolveOptions options) {
+        return delegate.resolve(options);
+    }
+
+    @Override
+    public boolean isResolved() {
+        return delegate.isResolved();
+    }
+
+    @Override
+    public Config resolveWith(Config source) {
+        return delegate.resolveWith(unwrap(source));
+    }
+
+    @Override
+    public Config resolveWith(Config source, ConfigResolveOptions options) {
+        return delegate.resolveWith(unwrap(source), options);
+    }
+
+    @Override
+    public void checkValid(Config reference, String... restrictToPaths) {
+        delegate.checkValid(unwrap(reference), restrictToPaths);
+    }
+
+    @Override
+    public boolean hasPath(String path) {
+        return delegate.hasPath(path);
+    }
+
+    @Override
+    public boolean hasPathOrNull(String path) {
+        return delegate.hasPathOrNull(path);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public Set<Map.Entry<String, ConfigValue>> entrySet() {
+        return delegate.entrySet();
+    }
+
+    @Override
+    public boolean getIsNull(String path) {
+        return delegate.getIsNull(path);
+    }
+
+    @Override
+    public boolean getBoolean(String path) {
+        return delegate.getBoolean(path);
+    }
+
+    @Override
+    public Number getNumber(String path) {
+        return delegate.getNumber(path);
+    }
+
+    @Override
+    public int getInt(String path) {
+        return delegate.getInt(path);
+    }
+
+    @Override
+    public long getLong(String path) {
+        return delegate.getLong(path);
+    }
+
+    @Override
+    public double getDouble(String path) {
+        return delegate.getDouble(path);
+    }
+
+    @Override
+    public String getString(String path) {
+        return delegate.getString(path);
+    }
+
+    @Override
+    public <T extends Enum<T>> T getEnum(Class<T> enumClass, String path) {
+        return delegate.getEnum(enumClass, path);
+    }
+
+    @Override
+    public ConfigObject getObject(String path) {
+        return delegate.getObject(path);
+    }
+
+    @Override
+    public Config getConfig(String path) {
+        return delegate.getConfig(path);
+    }
+
+    @Override
+    public Object getAnyRef(String path) {
+        return delegate.getAnyRef(path);
+    }
+
+    @Override
+    public ConfigValue getValue(String path) {
+        return delegate.getValue(path);
+    }
+
+    @Override
+    public Long getBytes(String path) {
+        return delegate.getBytes(path);
+    }
+
+    @Override
+    public ConfigMemorySize getMemorySize(String path) {
+        return delegate.getMemorySize(path);
+    }
+
+    @Deprecated
+    @Override
+    public Long getMilliseconds(String path) {
+        return delegate.getMilliseconds(path);
+    }
+
+    @Deprecated
+    @Override
+    public Long getNanoseconds(String path) {
+        return delegate.getNanoseconds(path);
+    }
+
+    @Override
+    public long getDuration(String path, TimeUnit unit) {
+        return delegate.getDuration(path, unit);
+    }
+
+    @Override
+    public Duration getDuration(String path) {
+        return delegate.getDuration(path);
+    }
+
+    @Override
+    public Period getPeriod(String path) {
+        return delegate.getPeriod(path);
+    }
+
+    @Override
+    public TemporalAmount getTemporal(String path) {
+        return delegate.getTemporal(path);
+    }
+
+    @Override
+    public ConfigList getList(String path) {
+        return delegate.getList(path);
+    }
+
+    @Override
+    public List<Boolean> getBooleanList(String path) {
+        return delegate.getBooleanList(path);
+    }
+
+    @Override
+    public List<Number> getNumberList(String path) {
+        return delegate.getNumberList(path);
+    }
+
+    @Override
+    public List<Integer> getIntList(String path) {
+        return delegate.getIntList(path);
+    }
+
+    @Override
+    public List<Long> getLongList(String path) {
+        return delegate.getLongList(path);
+    }
+
+    @Override
+    public List<Double> getDoubleList(String path) {
+        return delegate.getDoubleList(path);
+    }
+
+    @Override
+    public List<String> getStringList(String path) {
+        return delegate.getStringList(path);
+    }
+
+    @Override
+    public <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, String path) {
+        return delegate.getEnumList(enumClass, path);
+    }
+
+    @Override
+    public List<? extends ConfigObject> getObjectList(String path) {
+        return delegate.getObjectList(path);
+    }
+
+    @Override
+    public List<? extends Config> getConfigList(String path) {
+        return delegate.getConfigList(path);
+    }
+
+    @Override
+    public List<? extends Object> getAnyRefList(String path) {
+        return delegate.getAnyRefList(path);
+    }
+
+    @Override
+    public List<Long> getBytesList(String path) {
+        return delegate.getBytesList(path);
+    }
+
+    @Override
+    public List<ConfigMemorySize> getMemorySizeList(String path) {
+        return delegate.getMemorySizeList(path);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getMillisecondsList(String path) {
+        return delegate.getMillisecondsList(path);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getNanosecondsList(String path) {
+        return delegate.getNanosecondsList(path);
+    }
+
+    @Override
+    public List<Long> getDurationList(String path, TimeUnit unit) {
+        return delegate.getDurationList(path, unit);
+    }
+
+    @Override
+    public List<Duration> getDurationList(String path) {
+        return delegate.getDurationList(path);
+    }
+
+    @Override
+    public Config withOnlyPath(String path) {
+        return delegate.withOnlyPath(path);
+    }
+
+    @Override
+    public Config withoutPath(String path) {
+        return delegate.withoutPath(path);
+    }
+
+    @Override
+    public Config atPath(String path) {
+        return delegate.atPath(path);
+    }
+
+    @Override
+    public Config atKey(String key) {
+        return delegate.atKey(key);
+    }
+
+    @Override
+    public Config withValue(String path, ConfigValue value) {
+        return delegate.withValue(path, value);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other == this || delegate.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.typesafe.config.impl;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash array mapped trie. Adding an entry copies only the nodes
+ * on the path to it, at most seven arrays of up to 32 slots, and shares
+ * the rest of the trie with the original map, so every version of a map
+ * made by {@link #plus} stays valid and cheap to keep.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class HashTrieMap<K, V> {
+
+    private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(BitmapNode.EMPTY, 0);
+
+    final private Node root;
+    final private int size;
+
+    private HashTrieMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> HashTrieMap<K, V> empty() {
+        return (HashTrieMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        return (V) root.get(0, key.hashCode(), key);
+    }
+
+    /**
+     * Returns map with the given entry added or replaced, or this map if
+     * the key is already mapped to the same value.
+     */
+    HashTrieMap<K, V> plus(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node node = root.plus(0, key.hashCode(), key, value, added);
+        if (node == root)
+            return this;
+        else
+            return new HashTrieMap<>(node, added[0] ? size + 1 : size);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    private interface Node {
+        Object get(int shift, int hash, Object key);
+
+        Node plus(int shift, int hash, Object key, Object value, boolean[] added);
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node with a slot per set bit of the bitmap. A slot is a key and its
+     * value, or null and a child node for keys whose hashes share the bits.
+     */
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final private int bitmap;
+        final private Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((bitmap & bit) == 0)
+                return null;
+
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[i];
+            if (k == null)
+                return ((Node) array[i + 1]).get(shift + 5, hash, key);
+            else
+                return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        public Node plus(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(array, i, copy, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).plus(shift + 5, hash, key, value, added);
+                return child == v ? this : with(i, null, child);
+            } else if (key.equals(k)) {
+                return v == value ? this : with(i, key, value);
+            } else {
+                added[0] = true;
+                return with(i, null, pair(shift + 5, k.hashCode(), k, v, hash, key, value));
+            }
+        }
+
+        private BitmapNode with(int i, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[i] = key;
+            copy[i + 1] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private static Node pair(int shift, int hash1, Object key1, Object value1,
+                                 int hash2, Object key2, Object value2) {
+            if (hash1 == hash2)
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+
+            boolean[] ignored = new boolean[1];
+            return EMPTY.plus(shift, hash1, key1, value1, ignored)
+                .plus(shift, hash2, key2, value2, ignored);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null)
+                    ((Node) array[i + 1]).forEach(action);
+                else
+                    action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Node of keys with equal hashes, searched linearly.
+     */
+    private static final class CollisionNode implements Node {
+        final private int hash;
+        final private Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key) {
+            if (hash != this.hash)
+                return null;
+
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i]))
+                    return array[i + 1];
+            }
+
+            return null;
+        }
+
+        @Override
+        public Node plus(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                BitmapNode node = new BitmapNode(1 << ((this.hash >>> shift) & 31), new Object[]{null, this});
+                return node.plus(shift, hash, key, value, added);
+            }
+
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    if (array[i + 1] == value)
+                        return this;
+                    Object[] copy = array.clone();
+                    copy[i + 1] = value;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+
+            Object[] copy = new Object[array.length + 2];
+            System.arraycopy(array, 0, copy, 0, array.length);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+}
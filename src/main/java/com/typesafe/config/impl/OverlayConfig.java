@@ -0,0 +1,571 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.ConfigMergeable;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigValue;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.temporal.TemporalAmount;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config made of a base config and a persistent trie of values set on top
+ * of it. Setting a value copies only the trie nodes on its path, so adding
+ * N overrides to a base of M keys costs O(N log M) time and memory, and
+ * the base is shared by all overlays made from it. Reads of paths without
+ * overrides go straight to the base; reads of overridden paths see only
+ * the value read, with the overrides under it applied.
+ *
+ * <p>
+ * Operations which need the whole tree, such as {@link #root()},
+ * {@link #entrySet()} or {@link #withFallback}, apply all overrides to a
+ * copy of the base once and reuse the result.
+ */
+public final class OverlayConfig implements Config, MergeableValue {
+
+    final private Config base;
+    final private AbstractConfigObject baseRoot;
+    final private Node overrides;
+    // false if the base or any override may need resolving
+    final private boolean resolved;
+    private volatile SimpleConfig merged;
+
+    private OverlayConfig(Config base, Node overrides, boolean resolved) {
+        this.base = base;
+        this.baseRoot = (AbstractConfigObject) base.root();
+        this.overrides = overrides;
+        this.resolved = resolved;
+    }
+
+    /**
+     * Creates overlay without overrides of the given config.
+     *
+     * @param base config to layer overrides on
+     * @return the overlay
+     */
+    public static OverlayConfig of(Config base) {
+        if (base instanceof OverlayConfig)
+            return (OverlayConfig) base;
+        else
+            return new OverlayConfig(base, Node.EMPTY, base.isResolved());
+    }
+
+    /**
+     * Returns overlay with the given config layered on top, which is
+     * equivalent to {@code config.withFallback(this)}. Every value of a
+     * resolved config costs one override; objects are merged into the
+     * objects under them rather than replacing them. Config with
+     * substitutions is merged with the whole tree instead, since its
+     * substitutions may refer to the values they override.
+     *
+     * @param config config with values which take precedence
+     * @return the overlay
+     */
+    public OverlayConfig withOverrides(Config config) {
+        if (!config.isResolved())
+            return of(config.withFallback(this));
+
+        Node node = merge(overrides, (AbstractConfigObject) config.root(), null);
+        return node == overrides ? this : new OverlayConfig(base, node, resolved);
+    }
+
+    private Node merge(Node node, AbstractConfigObject object, Path prefix) {
+        for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+            Path path = prefix == null ? Path.newKey(entry.getKey()) : Path.newKey(entry.getKey()).prepend(prefix);
+            AbstractConfigValue value = (AbstractConfigValue) entry.getValue();
+            if (!(value instanceof AbstractConfigObject) || value.ignoresFallbacks()) {
+                node = node.with(path, value);
+            } else if (!((AbstractConfigObject) value).isEmpty()) {
+                node = merge(node, (AbstractConfigObject) value, path);
+            } else if (!(effective(node, path) instanceof AbstractConfigObject)) {
+                // empty object only replaces a value which isn't an object
+                node = node.with(path, value);
+            }
+        }
+
+        return node;
+    }
+
+    @Override
+    public OverlayConfig withValue(String path, ConfigValue value) {
+        if (value == null)
+            throw new ConfigException.BugOrBroken(
+                "Trying to store null ConfigValue in a ConfigObject");
+
+        return withValue(PathCache.global().path(path), (AbstractConfigValue) value);
+    }
+
+    OverlayConfig withValue(Path path, AbstractConfigValue value) {
+        return new OverlayConfig(base, overrides.with(path, value),
+            resolved && value.resolveStatus() == ResolveStatus.RESOLVED);
+    }
+
+    @Override
+    public ConfigObject root() {
+        return merged().root();
+    }
+
+    @Override
+    public ConfigOrigin origin() {
+        return base.origin();
+    }
+
+    @Override
+    public OverlayConfig withFallback(ConfigMergeable other) {
+        if (overrides.children.isEmpty())
+            return of(base.withFallback(other));
+        else
+            return of(merged().withFallback(other));
+    }
+
+    @Override
+    public ConfigValue toFallbackValue() {
+        return root();
+    }
+
+    @Override
+    public Config resolve() {
+        return resolve(ConfigResolveOptions.defaults());
+    }
+
+    @Override
+    public Config resolve(ConfigResolveOptions options) {
+        if (resolved)
+            return this;
+        else
+            return merged().resolve(options);
+    }
+
+    @Override
+    public boolean isResolved() {
+        return resolved || merged().isResolved();
+    }
+
+    @Override
+    public Config resolveWith(Config source) {
+        return merged().resolveWith(ForwardingConfig.unwrap(source));
+    }
+
+    @Override
+    public Config resolveWith(Config source, ConfigResolveOptions options) {
+        return merged().resolveWith(ForwardingConfig.unwrap(source), options);
+    }
+
+    @Override
+    public void checkValid(Config reference, String... restrictToPaths) {
+        merged().checkValid(ForwardingConfig.unwrap(reference), restrictToPaths);
+    }
+
+    @Override
+    public boolean hasPath(String path) {
+        return view(path).hasPath(path);
+    }
+
+    @Override
+    public boolean hasPathOrNull(String path) {
+        return view(path).hasPathOrNull(path);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (overrides.children.isEmpty())
+            return base.isEmpty();
+        else
+            return merged().isEmpty();
+    }
+
+    @Override
+    public Set<Map.Entry<String, ConfigValue>> entrySet() {
+        return merged().entrySet();
+    }
+
+    @Override
+    public boolean getIsNull(String path) {
+        return view(path).getIsNull(path);
+    }
+
+    @Override
+    public boolean getBoolean(String path) {
+        return view(path).getBoolean(path);
+    }
+
+    @Override
+    public Number getNumber(String path) {
+        return view(path).getNumber(path);
+    }
+
+    @Override
+    public int getInt(String path) {
+        return view(path).getInt(path);
+    }
+
+    @Override
+    public long getLong(String path) {
+        return view(path).getLong(path);
+    }
+
+    @Override
+    public double getDouble(String path) {
+        return view(path).getDouble(path);
+    }
+
+    @Override
+    public String getString(String path) {
+        return view(path).getString(path);
+    }
+
+    @Override
+    public <T extends Enum<T>> T getEnum(Class<T> enumClass, String path) {
+        return view(path).getEnum(enumClass, path);
+    }
+
+    @Override
+    public ConfigObject getObject(String path) {
+        return view(path).getObject(path);
+    }
+
+    @Override
+    public Config getConfig(String path) {
+        if (overrides.children.isEmpty())
+            return base.getConfig(path);
+
+        Path p = PathCache.global().path(path);
+        if (overrides.children.get(p.first()) == null)
+            return base.getConfig(path);
+
+        // overrides under the path stay an overlay of the base subtree
+        Found found = find(p);
+        if (found.node != null && found.value instanceof AbstractConfigObject) {
+            AbstractConfigObject object = (AbstractConfigObject) found.value;
+            return new OverlayConfig(object.toConfig(), new Node(null, found.node.children),
+                resolved || object.resolveStatus() == ResolveStatus.RESOLVED);
+        }
+
+        return view(p).getConfig(path);
+    }
+
+    @Override
+    public Object getAnyRef(String path) {
+        return view(path).getAnyRef(path);
+    }
+
+    @Override
+    public ConfigValue getValue(String path) {
+        return view(path).getValue(path);
+    }
+
+    @Override
+    public Long getBytes(String path) {
+        return view(path).getBytes(path);
+    }
+
+    @Override
+    public ConfigMemorySize getMemorySize(String path) {
+        return view(path).getMemorySize(path);
+    }
+
+    @Deprecated
+    @Override
+    public Long getMilliseconds(String path) {
+        return view(path).getMilliseconds(path);
+    }
+
+    @Deprecated
+    @Override
+    public Long getNanoseconds(String path) {
+        return view(path).getNanoseconds(path);
+    }
+
+    @Override
+    public long getDuration(String path, TimeUnit unit) {
+        return view(path).getDuration(path, unit);
+    }
+
+    @Override
+    public Duration getDuration(String path) {
+        return view(path).getDuration(path);
+    }
+
+    @Override
+    public Period getPeriod(String path) {
+        return view(path).getPeriod(path);
+    }
+
+    @Override
+    public TemporalAmount getTemporal(String path) {
+        return view(path).getTemporal(path);
+    }
+
+    @Override
+    public ConfigList getList(String path) {
+        return view(path).getList(path);
+    }
+
+    @Override
+    public List<Boolean> getBooleanList(String path) {
+        return view(path).getBooleanList(path);
+    }
+
+    @Override
+    public List<Number> getNumberList(String path) {
+        return view(path).getNumberList(path);
+    }
+
+    @Override
+    public List<Integer> getIntList(String path) {
+        return view(path).getIntList(path);
+    }
+
+    @Override
+    public List<Long> getLongList(String path) {
+        return view(path).getLongList(path);
+    }
+
+    @Override
+    public List<Double> getDoubleList(String path) {
+        return view(path).getDoubleList(path);
+    }
+
+    @Override
+    public List<String> getStringList(String path) {
+        return view(path).getStringList(path);
+    }
+
+    @Override
+    public <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, String path) {
+        return view(path).getEnumList(enumClass, path);
+    }
+
+    @Override
+    public List<? extends ConfigObject> getObjectList(String path) {
+        return view(path).getObjectList(path);
+    }
+
+    @Override
+    public List<? extends Config> getConfigList(String path) {
+        return view(path).getConfigList(path);
+    }
+
+    @Override
+    public List<? extends Object> getAnyRefList(String path) {
+        return view(path).getAnyRefList(path);
+    }
+
+    @Override
+    public List<Long> getBytesList(String path) {
+        return view(path).getBytesList(path);
+    }
+
+    @Override
+    public List<ConfigMemorySize> getMemorySizeList(String path) {
+        return view(path).getMemorySizeList(path);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getMillisecondsList(String path) {
+        return view(path).getMillisecondsList(path);
+    }
+
+    @Deprecated
+    @Override
+    public List<Long> getNanosecondsList(String path) {
+        return view(path).getNanosecondsList(path);
+    }
+
+    @Override
+    public List<Long> getDurationList(String path, TimeUnit unit) {
+        return view(path).getDurationList(path, unit);
+    }
+
+    @Override
+    public List<Duration> getDurationList(String path) {
+        return view(path).getDurationList(path);
+    }
+
+    @Override
+    public Config withOnlyPath(String path) {
+        return merged().withOnlyPath(path);
+    }
+
+    @Override
+    public Config withoutPath(String path) {
+        return merged().withoutPath(path);
+    }
+
+    @Override
+    public Config atPath(String path) {
+        return merged().atPath(path);
+    }
+
+    @Override
+    public Config atKey(String key) {
+        return merged().atKey(key);
+    }
+
+    /**
+     * Copies the overrides into the tree of the base, giving a plain
+     * config which is equal to other configs with the same values and is
+     * read without going through the overlay.
+     *
+     * @return the merged config
+     */
+    public Config toConfig() {
+        return merged();
+    }
+
+    /**
+     * Overlays are equal to overlays with equal merged trees. Configs
+     * created by {@link com.typesafe.config.ConfigFactory} are only equal to
+     * each other, so an overlay is never equal to one of them, keeping
+     * equality symmetric; compare {@link #toConfig()} with them instead.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OverlayConfig && merged().equals(((OverlayConfig) other).merged());
+    }
+
+    @Override
+    public int hashCode() {
+        return merged().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Config(" + root() + ")";
+    }
+
+    private SimpleConfig merged() {
+        SimpleConfig config = merged;
+        if (config == null)
+            merged = config = ((AbstractConfigObject) apply(baseRoot, overrides, null)).toConfig();
+        return config;
+    }
+
+    /**
+     * Returns the config to read the path from: the base if nothing under
+     * or above the path is overridden, otherwise config of the value at
+     * the path alone.
+     */
+    private Config view(String path) {
+        if (overrides.children.isEmpty())
+            return base;
+
+        Path p = PathCache.global().path(path);
+        if (overrides.children.get(p.first()) == null)
+            return base;
+
+        return view(p);
+    }
+
+    private Config view(Path path) {
+        Found found = find(path);
+        AbstractConfigValue value = apply(found.value, found.node, path);
+        if (value == null)
+            return SimpleConfigObject.empty(base.origin()).toConfig();
+        else
+            return value.atPath(base.origin(), path);
+    }
+
+    private Found find(Path path) {
+        return find(overrides, path);
+    }
+
+    private Found find(Node node, Path path) {
+        AbstractConfigValue value = baseRoot;
+        for (Path rest = path; rest != null; rest = rest.remainder()) {
+            String key = rest.first();
+            node = node != null ? node.children.get(key) : null;
+            if (node != null && node.value != null)
+                value = node.value;
+            else if (value instanceof AbstractConfigObject)
+                value = ((AbstractConfigObject) value).get(key);
+            else
+                value = null;
+        }
+
+        return new Found(value, node);
+    }
+
+    private AbstractConfigValue effective(Node node, Path path) {
+        Found found = find(node, path);
+        return apply(found.value, found.node, path);
+    }
+
+    /**
+     * Applies the overrides of the node to the value at its path.
+     */
+    private static AbstractConfigValue apply(AbstractConfigValue value, Node node, Path path) {
+        if (node == null)
+            return value;
+        if (node.value != null)
+            value = node.value;
+        if (node.children.isEmpty())
+            return value;
+
+        Map<String, AbstractConfigValue> values = new LinkedHashMap<>();
+        ConfigOrigin origin;
+        if (value instanceof AbstractConfigObject) {
+            for (Map.Entry<String, ConfigValue> entry : ((AbstractConfigObject) value).entrySet()) {
+                values.put(entry.getKey(), (AbstractConfigValue) entry.getValue());
+            }
+            origin = value.origin();
+        } else {
+            // as soon as we have a non-object, replace it entirely
+            origin = SimpleConfigOrigin.newSimple("withValue(" + path.render() + ")");
+        }
+
+        node.children.forEach((key, child) -> {
+            Path childPath = path == null ? Path.newKey(key) : Path.newKey(key).prepend(path);
+            values.put(key, apply(values.get(key), child, childPath));
+        });
+        return new SimpleConfigObject(origin, values);
+    }
+
+    private static final class Found {
+        final private AbstractConfigValue value;
+        final private Node node;
+
+        Found(AbstractConfigValue value, Node node) {
+            this.value = value;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Node of the trie of overrides, one per element of overridden paths.
+     */
+    private static final class Node {
+        static final Node EMPTY = new Node(null, HashTrieMap.empty());
+
+        // replaces the value at the path of the node, null keeps the underlying value
+        final private AbstractConfigValue value;
+        final private HashTrieMap<String, Node> children;
+
+        Node(AbstractConfigValue value, HashTrieMap<String, Node> children) {
+            this.value = value;
+            this.children = children;
+        }
+
+        Node with(Path path, AbstractConfigValue value) {
+            if (path == null)
+                return new Node(value, HashTrieMap.empty());
+
+            Node child = children.get(path.first());
+            return new Node(this.value, children.plus(path.first(),
+                (child != null ? child : EMPTY).with(path.remainder(), value)));
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Index of the default overrides, system properties and
+ * {@code CONFIG_FORCE_*} environment variables, with their names translated
+ * to paths. Overrides are applied to a config by inserting their values at
+ * the paths, on an {@link OverlayConfig}, instead of merging the whole
+ * config with the overrides.
+ *
+ * <p>
+ * This object is immutable. {@link #refresh} returns an index of new
+ * variables and properties which reuses the paths of the names it already
+ * knows, so only added names are translated again.
+ */
+public final class OverrideIndex {
+
+    final static String ENV_VAR_OVERRIDE_PREFIX = "CONFIG_FORCE_";
+
+    final private static ConfigOrigin ENV_ORIGIN = SimpleConfigOrigin.newSimple("env variables overrides");
+    final private static ConfigOrigin PROPERTIES_ORIGIN = SimpleConfigOrigin.newSimple("system properties");
+    final private static OverrideIndex EMPTY = new OverrideIndex(Collections.emptyMap(), Collections.emptyMap());
+
+    private static volatile OverrideIndex global;
+
+    final private Map<String, Entry> env;
+    final private Map<String, Entry> properties;
+    // values which take effect, in order of precedence from low to high
+    final private List<Entry> propertyOverrides;
+    final private List<Entry> envOverrides;
+    final private List<Entry> allOverrides;
+    private volatile Config propertiesConfig;
+    private volatile Config allConfig;
+
+    private OverrideIndex(Map<String, Entry> env, Map<String, Entry> properties) {
+        this.env = env;
+        this.properties = properties;
+        this.propertyOverrides = effective(properties);
+        this.envOverrides = effective(env);
+        List<Entry> all = new ArrayList<>(propertyOverrides);
+        all.addAll(envOverrides);
+        this.allOverrides = all;
+    }
+
+    /**
+     * Gets the index of the current environment and system properties,
+     * building it on first use.
+     *
+     * @return the global index
+     */
+    public static OverrideIndex global() {
+        OverrideIndex index = global;
+        if (index == null) {
+            synchronized (OverrideIndex.class) {
+                if (global == null)
+                    global = EMPTY.refresh(System.getenv(), System.getProperties());
+                index = global;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Refreshes the global index with the current environment and system
+     * properties.
+     */
+    public static synchronized void reload() {
+        global = (global != null ? global : EMPTY).refresh(System.getenv(), System.getProperties());
+    }
+
+    /**
+     * Returns index of the given environment and properties. Names
+     * already in this index keep their paths.
+     *
+     * @param environment environment variables, of which only ones with the
+     *                    {@code CONFIG_FORCE_} prefix are used
+     * @param properties  system properties
+     * @return index of the given overrides, this index if nothing changed
+     * @throws com.typesafe.config.ConfigException.BadPath if a variable has
+     *                                                     too many underscores in a row
+     */
+    public OverrideIndex refresh(Map<String, String> environment, Properties properties) {
+        Map<String, String> env = new HashMap<>();
+        for (Map.Entry<String, String> variable : environment.entrySet()) {
+            if (variable.getKey().startsWith(ENV_VAR_OVERRIDE_PREFIX))
+                env.put(variable.getKey(), variable.getValue());
+        }
+
+        Map<String, Entry> newEnv = update(this.env, env, ENV_ORIGIN, name -> PropertiesParser
+            .pathFromPropertyKey(ConfigImplUtil.envVariableAsProperty(name, ENV_VAR_OVERRIDE_PREFIX)));
+        Map<String, Entry> newProperties = update(this.properties, strings(properties), PROPERTIES_ORIGIN,
+            PropertiesParser::pathFromPropertyKey);
+
+        if (newEnv == this.env && newProperties == this.properties)
+            return this;
+        else
+            return new OverrideIndex(newEnv, newProperties);
+    }
+
+    // copying under the lock avoids ConcurrentModificationException on concurrent changes
+    private static Map<String, String> strings(Properties properties) {
+        Map<String, String> strings = new HashMap<>();
+        synchronized (properties) {
+            for (Map.Entry<Object, Object> property : properties.entrySet()) {
+                // Java 11 introduces 'java.version.date', but we don't want that to
+                // overwrite 'java.version'
+                if (property.getKey() instanceof String && property.getValue() instanceof String
+                    && !((String) property.getKey()).startsWith("java.version."))
+                    strings.put((String) property.getKey(), (String) property.getValue());
+            }
+        }
+        return strings;
+    }
+
+    private static Map<String, Entry> update(Map<String, Entry> entries, Map<String, String> values,
+                                             ConfigOrigin origin, Function<String, Path> paths) {
+        boolean changed = entries.size() != values.size();
+        Map<String, Entry> updated = new HashMap<>();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            Entry entry = entries.get(value.getKey());
+            if (entry == null) {
+                entry = new Entry(paths.apply(value.getKey()), new ConfigString.Quoted(origin, value.getValue()));
+                changed = true;
+            } else if (!entry.value.unwrapped().equals(value.getValue())) {
+                entry = new Entry(entry.path, new ConfigString.Quoted(origin, value.getValue()));
+                changed = true;
+            }
+            updated.put(value.getKey(), entry);
+        }
+
+        return changed ? Collections.unmodifiableMap(updated) : entries;
+    }
+
+    /**
+     * Drops values at paths which are also parents of other values;
+     * as with properties files, objects win.
+     */
+    private static List<Entry> effective(Map<String, Entry> entries) {
+        Set<Path> parents = new HashSet<>();
+        for (Entry entry : entries.values()) {
+            for (Path parent = entry.path.parent(); parent != null; parent = parent.parent()) {
+                parents.add(parent);
+            }
+        }
+
+        List<Entry> effective = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            if (!parents.contains(entry.path))
+                effective.add(entry);
+        }
+        return effective;
+    }
+
+    /**
+     * @return number of indexed environment variables and system properties
+     */
+    public int size() {
+        return env.size() + properties.size();
+    }
+
+    /**
+     * Gets the overrides as a config, equal to
+     * {@code ConfigFactory.defaultOverrides()} of the indexed environment
+     * and properties.
+     *
+     * @param withEnv true to include environment variables
+     * @return the overrides
+     */
+    public Config toConfig(boolean withEnv) {
+        Config config = withEnv ? allConfig : propertiesConfig;
+        if (config == null) {
+            Config properties = toConfig(propertyOverrides, PROPERTIES_ORIGIN);
+            if (withEnv) {
+                config = toConfig(envOverrides, ENV_ORIGIN).withFallback(properties);
+                allConfig = config;
+            } else {
+                config = properties;
+                propertiesConfig = config;
+            }
+        }
+
+        return config;
+    }
+
+    private static Config toConfig(List<Entry> entries, ConfigOrigin origin) {
+        AbstractConfigObject object = SimpleConfigObject.empty(origin);
+        for (Entry entry : entries) {
+            object = object.withValue(entry.path, entry.value);
+        }
+        return object.toConfig();
+    }
+
+    /**
+     * Applies the overrides to the config, which is equivalent to
+     * {@code toConfig(withEnv).withFallback(config)}. Values are inserted
+     * at their paths, unless a path goes through a value which needs
+     * resolving, such as a substitution or a merge of objects with
+     * substitutions, in which case the whole config is merged.
+     *
+     * @param config  config to override
+     * @param withEnv true to include environment variables
+     * @return the overridden config
+     */
+    public Config apply(Config config, boolean withEnv) {
+        List<Entry> overrides = withEnv ? allOverrides : propertyOverrides;
+        if (overrides.isEmpty())
+            return config;
+
+        ConfigObject root = config.root();
+        for (Entry entry : overrides) {
+            if (!(root instanceof SimpleConfigObject) || !insertable((SimpleConfigObject) root, entry.path))
+                return toConfig(withEnv).withFallback(config);
+        }
+
+        OverlayConfig overlay = OverlayConfig.of(config);
+        for (Entry entry : overrides) {
+            overlay = overlay.withValue(entry.path, entry.value);
+        }
+        return overlay;
+    }
+
+    /**
+     * @return true if inserting a value at the path gives the same config
+     * as merging it, which is when all objects on the path are plain
+     * objects and the first non-object on the path, if any, is resolved
+     */
+    private static boolean insertable(SimpleConfigObject root, Path path) {
+        AbstractConfigValue value = root;
+        for (Path p = path; p.remainder() != null; p = p.remainder()) {
+            value = ((SimpleConfigObject) value).get(p.first());
+            if (value == null)
+                return true;
+            if (!(value instanceof SimpleConfigObject))
+                return value.resolveStatus() == ResolveStatus.RESOLVED && !(value instanceof AbstractConfigObject);
+        }
+
+        return true;
+    }
+
+    private static final class Entry {
+        final private Path path;
+        final private ConfigString value;
+
+        Entry(Path path, ConfigString value) {
+            this.path = path;
+            this.value = value;
+        }
+    }
+
+}
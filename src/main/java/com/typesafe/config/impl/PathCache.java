@@ -0,0 +1,123 @@
+package com.typesafe.config.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded table of parsed path expressions. Getters of a config parse the
+ * path expression on every call; code reading the same few hundred paths
+ * over and over looks each of them up here instead and reads the config
+ * with the {@link ConfigPath} handle, which is parsed only once.
+ *
+ * <p>
+ * Lookups take no locks. Once the table is full new expressions are no
+ * longer cached, but are parsed on every lookup, so a table filled with
+ * paths built at runtime never grows past its bound. Expressions which
+ * fail to parse are never cached.
+ */
+public final class PathCache {
+
+    final private static int DEFAULT_MAX_SIZE = 1 << 12;
+
+    final private static PathCache GLOBAL = new PathCache();
+
+    final private Map<String, ConfigPath> table = new ConcurrentHashMap<>();
+    final private int maxSize;
+    final private LongAdder lookups = new LongAdder();
+    final private LongAdder hits = new LongAdder();
+    final private LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates table holding up to 4096 paths.
+     */
+    public PathCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximum number of paths held by the table
+     */
+    public PathCache(int maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("maxSize must be non-negative");
+
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return table shared by {@link ConfigPath#of(String)} and by configs
+     * of this library which parse paths themselves
+     */
+    public static PathCache global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Gets handle of the path expression, parsing it if it is not cached.
+     *
+     * @param expression path expression, such as {@code a.b.c}
+     * @return the handle
+     * @throws com.typesafe.config.ConfigException.BadPath if the expression is not a valid path
+     */
+    public ConfigPath get(String expression) {
+        lookups.increment();
+        ConfigPath path = table.get(expression);
+        if (path != null) {
+            hits.increment();
+            return path;
+        }
+
+        path = new ConfigPath(expression, Path.newPath(expression));
+        if (table.size() >= maxSize) {
+            rejected.increment();
+            return path;
+        }
+
+        ConfigPath existing = table.putIfAbsent(expression, path);
+        return existing != null ? existing : path;
+    }
+
+    /**
+     * Gets parsed path expression.
+     */
+    Path path(String expression) {
+        return get(expression).path();
+    }
+
+    /**
+     * @return number of paths currently held by the table
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * @return number of expressions looked up in the table
+     */
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return number of expressions found already parsed
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of expressions not cached because the table was full
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Removes all paths from the table.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+}
@@ -0,0 +1,290 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigValue;
+
+import java.lang.reflect.Field;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Backing list of {@link SimpleConfigList} for homogeneous sequences of
+ * numbers or booleans. Elements are kept in a primitive array, which is
+ * what makes the list compact, so this comes at two costs: the
+ * {@link AbstractConfigValue} wrappers aren't kept either, every
+ * {@link #get(int)} creates a new one, and all of them share the origin of
+ * the list rather than having an origin of their own line. Read such
+ * lists with the bulk accessors, which copy the array without creating
+ * any wrappers.
+ */
+public abstract class PrimitiveValueList extends AbstractList<AbstractConfigValue> implements RandomAccess {
+
+    /**
+     * Field of the list backing {@link SimpleConfigList}, which doesn't
+     * expose it, or {@code null} if it can't be accessed. Shared with
+     * {@link ConfigFootprint}.
+     */
+    final static Field listValue = listValue();
+
+    final protected ConfigOrigin origin;
+
+    private PrimitiveValueList(ConfigOrigin origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * Creates compact backing list if all elements have the same primitive
+     * type ({@link Integer}, {@link Long}, {@link Double} or {@link Boolean}),
+     * otherwise returns {@code null}.
+     */
+    static PrimitiveValueList of(ConfigOrigin origin, Collection<?> values) {
+        if (values.isEmpty())
+            return null;
+
+        Class<?> type = null;
+        for (Object value : values) {
+            if (value == null)
+                return null;
+            if (type == null)
+                type = value.getClass();
+            else if (type != value.getClass())
+                return null;
+        }
+
+        int i = 0;
+        if (type == Integer.class) {
+            int[] array = new int[values.size()];
+            for (Object value : values)
+                array[i++] = (Integer) value;
+            return new Ints(origin, array);
+        } else if (type == Long.class) {
+            long[] array = new long[values.size()];
+            for (Object value : values)
+                array[i++] = (Long) value;
+            return new Longs(origin, array);
+        } else if (type == Double.class) {
+            double[] array = new double[values.size()];
+            for (Object value : values)
+                array[i++] = (Double) value;
+            return new Doubles(origin, array);
+        } else if (type == Boolean.class) {
+            BitSet bits = new BitSet(values.size());
+            for (Object value : values)
+                bits.set(i++, (Boolean) value);
+            return new Booleans(origin, bits, values.size());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns elements of the list as {@code int[]} without boxing if the list
+     * is backed by a compact primitive array.
+     *
+     * @param list config list of numbers
+     * @return array of elements
+     * @throws ConfigException.WrongType if some element is not a number
+     */
+    public static int[] toIntArray(ConfigList list) {
+        PrimitiveValueList backing = backingList(list);
+        if (backing instanceof Ints)
+            return ((Ints) backing).values.clone();
+
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = number(list, i).intValueRangeChecked(String.valueOf(i));
+        return array;
+    }
+
+    /**
+     * Returns elements of the list as {@code long[]} without boxing if the list
+     * is backed by a compact primitive array.
+     *
+     * @param list config list of numbers
+     * @return array of elements
+     * @throws ConfigException.WrongType if some element is not a number
+     */
+    public static long[] toLongArray(ConfigList list) {
+        PrimitiveValueList backing = backingList(list);
+        if (backing instanceof Longs)
+            return ((Longs) backing).values.clone();
+
+        long[] array = new long[list.size()];
+        if (backing instanceof Ints) {
+            int[] values = ((Ints) backing).values;
+            for (int i = 0; i < array.length; i++)
+                array[i] = values[i];
+            return array;
+        }
+
+        for (int i = 0; i < array.length; i++)
+            array[i] = number(list, i).longValue();
+        return array;
+    }
+
+    /**
+     * Returns elements of the list as {@code double[]} without boxing if the list
+     * is backed by a compact primitive array.
+     *
+     * @param list config list of numbers
+     * @return array of elements
+     * @throws ConfigException.WrongType if some element is not a number
+     */
+    public static double[] toDoubleArray(ConfigList list) {
+        PrimitiveValueList backing = backingList(list);
+        if (backing instanceof Doubles)
+            return ((Doubles) backing).values.clone();
+
+        double[] array = new double[list.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = number(list, i).doubleValue();
+        return array;
+    }
+
+    /**
+     * Returns elements of the list as {@code boolean[]} without boxing if the list
+     * is backed by a compact bit set.
+     *
+     * @param list config list of booleans
+     * @return array of elements
+     * @throws ConfigException.WrongType if some element is not a boolean
+     */
+    public static boolean[] toBooleanArray(ConfigList list) {
+        PrimitiveValueList backing = backingList(list);
+        boolean[] array = new boolean[list.size()];
+        if (backing instanceof Booleans) {
+            BitSet values = ((Booleans) backing).values;
+            for (int i = values.nextSetBit(0); i >= 0; i = values.nextSetBit(i + 1))
+                array[i] = true;
+            return array;
+        }
+
+        for (int i = 0; i < array.length; i++) {
+            ConfigValue value = list.get(i);
+            if (!(value instanceof ConfigBoolean))
+                throw new ConfigException.WrongType(value.origin(), String.valueOf(i),
+                    "list of BOOLEAN", "list of " + value.valueType().name());
+            array[i] = ((ConfigBoolean) value).unwrapped();
+        }
+        return array;
+    }
+
+    private static ConfigNumber number(ConfigList list, int index) {
+        ConfigValue value = list.get(index);
+        if (!(value instanceof ConfigNumber))
+            throw new ConfigException.WrongType(value.origin(), String.valueOf(index),
+                "list of NUMBER", "list of " + value.valueType().name());
+        return (ConfigNumber) value;
+    }
+
+    /**
+     * Finds the list backing a config list, or {@code null} if it can't be
+     * read, in which case the bulk accessors read elements one by one.
+     */
+    private static PrimitiveValueList backingList(ConfigList list) {
+        if (listValue == null || !(list instanceof SimpleConfigList))
+            return null;
+
+        try {
+            Object backing = listValue.get(list);
+            return backing instanceof PrimitiveValueList ? (PrimitiveValueList) backing : null;
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Field listValue() {
+        try {
+            Field field = SimpleConfigList.class.getDeclaredField("value");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    static final class Ints extends PrimitiveValueList {
+        final private int[] values;
+
+        Ints(ConfigOrigin origin, int[] values) {
+            super(origin);
+            this.values = values;
+        }
+
+        @Override
+        public AbstractConfigValue get(int index) {
+            return new ConfigInt(origin, values[index], null);
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    static final class Longs extends PrimitiveValueList {
+        final private long[] values;
+
+        Longs(ConfigOrigin origin, long[] values) {
+            super(origin);
+            this.values = values;
+        }
+
+        @Override
+        public AbstractConfigValue get(int index) {
+            return new ConfigLong(origin, values[index], null);
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    static final class Doubles extends PrimitiveValueList {
+        final private double[] values;
+
+        Doubles(ConfigOrigin origin, double[] values) {
+            super(origin);
+            this.values = values;
+        }
+
+        @Override
+        public AbstractConfigValue get(int index) {
+            return new ConfigDouble(origin, values[index], null);
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    static final class Booleans extends PrimitiveValueList {
+        final private BitSet values;
+        final private int size;
+
+        Booleans(ConfigOrigin origin, BitSet values, int size) {
+            super(origin);
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public AbstractConfigValue get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            return new ConfigBoolean(origin, values.get(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
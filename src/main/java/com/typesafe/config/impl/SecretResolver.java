@@ -0,0 +1,355 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.SecretStore;
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigResolver;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves substitutions of secrets, such as {@code ${secret:db/password}},
+ * with values fetched from a {@link SecretStore} and cached for a time to
+ * live.
+ *
+ * <p>
+ * Set the resolver with {@link YamlParseOptions#setSecretResolver} to have
+ * secret references collected while YAML documents are parsed;
+ * {@link com.github.vitalibo.config.ConfigFactory#load} then fetches all of
+ * them at once with {@link #prefetch()} before resolving. Names are
+ * fetched in batches of at most {@link #setMaxBatchSize max batch size},
+ * in parallel on the executor of the resolver. Secrets which aren't cached
+ * when looked up, for example referenced from HOCON, are fetched one by one.
+ *
+ * <p>
+ * To use the resolver with other configs, append it to the resolve options:
+ *
+ * <pre>
+ *     config.resolve(ConfigResolveOptions.defaults().appendResolver(secrets))
+ * </pre>
+ */
+public final class SecretResolver implements ConfigResolver {
+
+    final static String PREFIX = "secret:";
+
+    final private SecretStore store;
+    final private long ttlNanos;
+    final private Executor executor;
+    final private LongSupplier clock;
+    final private ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+    final private Set<String> references = ConcurrentHashMap.newKeySet();
+    private volatile int maxBatchSize = Integer.MAX_VALUE;
+    private volatile Throwable lastError;
+
+    /**
+     * Creates resolver which fetches batches on the common fork/join pool.
+     *
+     * @param store store of secrets
+     * @param ttl   time to live of fetched secrets
+     */
+    public SecretResolver(SecretStore store, Duration ttl) {
+        this(store, ttl, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates resolver which fetches batches on the given executor.
+     *
+     * @param store    store of secrets
+     * @param ttl      time to live of fetched secrets
+     * @param executor executor to fetch batches on
+     */
+    public SecretResolver(SecretStore store, Duration ttl, Executor executor) {
+        this(store, ttl, executor, System::nanoTime);
+    }
+
+    SecretResolver(SecretStore store, Duration ttl, Executor executor, LongSupplier clock) {
+        if (ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+
+        this.store = store;
+        this.ttlNanos = ttl.toNanos();
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the maximum number of secrets fetched in one call to the store.
+     * Larger sets of names are split into batches fetched in parallel.
+     *
+     * @param maxBatchSize maximum number of names per call
+     * @return this resolver
+     */
+    public SecretResolver setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * @return number of cached secrets, including expired ones
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Forgets all cached secrets and collected references.
+     */
+    public void clear() {
+        cache.clear();
+        references.clear();
+    }
+
+    /**
+     * Gets the error of the last background refresh, if it failed.
+     *
+     * @return error or null if the last refresh succeeded
+     */
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Fetches all collected secret references which aren't cached or have
+     * expired.
+     *
+     * @throws ConfigException.Generic if the store fails
+     */
+    public void prefetch() {
+        Set<String> names = new HashSet<>();
+        long now = clock.getAsLong();
+        for (String name : references) {
+            Entry entry = cache.get(name);
+            if (entry == null || entry.expired(now))
+                names.add(name);
+        }
+
+        fetch(names);
+    }
+
+    /**
+     * Fetches all cached secrets again, extending their time to live.
+     * Configs resolved after the refresh get the new values.
+     *
+     * @throws ConfigException.Generic if the store fails; cached values
+     *                                 are kept
+     */
+    public void refresh() {
+        try {
+            fetch(new HashSet<>(cache.keySet()));
+            lastError = null;
+        } catch (RuntimeException e) {
+            lastError = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Refreshes cached secrets on the given executor twice per time to
+     * live, so that they don't expire while the store is available.
+     * Failed refreshes are retried on the next schedule.
+     *
+     * @param executor executor to refresh on
+     * @return handle which stops refreshing when closed
+     */
+    public Refreshing scheduleRefresh(ScheduledExecutorService executor) {
+        long period = Math.max(ttlNanos / 2, 1);
+        return new Refreshing(executor.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException ignored) {
+                // cached values are kept, error is available from getLastError
+            }
+        }, period, period, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Returns the secret for a path starting with {@code secret:}, fetching
+     * it if it isn't cached or has expired.
+     *
+     * @param path the unresolved path
+     * @return the secret, or null if the path isn't a secret reference or
+     * the store has no such secret
+     * @throws ConfigException.Generic if the store fails
+     */
+    @Override
+    public ConfigValue lookup(String path) {
+        String name = name(ConfigUtil.splitPath(path));
+        if (name == null)
+            return null;
+
+        Entry entry = cache.get(name);
+        if (entry == null || entry.expired(clock.getAsLong())) {
+            fetch(Collections.singleton(name));
+            entry = cache.get(name);
+        }
+
+        return entry != null ? entry.value : null;
+    }
+
+    @Override
+    public ConfigResolver withFallback(ConfigResolver fallback) {
+        if (fallback == this)
+            return this;
+        else
+            return new Fallback(this, fallback);
+    }
+
+    /**
+     * Collects a substitution path, if it is a secret reference, to be
+     * fetched by {@link #prefetch()}.
+     */
+    void reference(Path path) {
+        if (path.first().startsWith(PREFIX))
+            references.add(name(pathElements(path)));
+    }
+
+    private static List<String> pathElements(Path path) {
+        List<String> elements = new ArrayList<>(path.length());
+        for (Path p = path; p != null; p = p.remainder()) {
+            elements.add(p.first());
+        }
+        return elements;
+    }
+
+    private static String name(List<String> elements) {
+        if (elements.isEmpty() || !elements.get(0).startsWith(PREFIX))
+            return null;
+
+        return String.join(".", elements).substring(PREFIX.length());
+    }
+
+    private void fetch(Set<String> names) {
+        if (names.isEmpty())
+            return;
+
+        Map<String, String> values;
+        if (names.size() <= maxBatchSize) {
+            values = fetchBatch(names);
+        } else {
+            List<CompletableFuture<Map<String, String>>> futures = new ArrayList<>();
+            for (Set<String> batch : partition(names, maxBatchSize)) {
+                futures.add(CompletableFuture.supplyAsync(() -> fetchBatch(batch), executor));
+            }
+
+            values = new HashMap<>();
+            try {
+                for (CompletableFuture<Map<String, String>> future : futures) {
+                    values.putAll(future.join());
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof ConfigException)
+                    throw (ConfigException) e.getCause();
+                throw e;
+            }
+        }
+
+        long expiresAt = clock.getAsLong() + ttlNanos;
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            if (names.contains(value.getKey()) && value.getValue() != null)
+                cache.put(value.getKey(), new Entry(ConfigValueFactory
+                    .fromAnyRef(value.getValue(), "secret " + value.getKey()), expiresAt));
+        }
+    }
+
+    private Map<String, String> fetchBatch(Set<String> names) {
+        try {
+            return store.fetch(Collections.unmodifiableSet(names));
+        } catch (Exception e) {
+            throw new ConfigException.Generic("failed to fetch secrets " + names + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Set<String>> partition(Set<String> names, int size) {
+        List<Set<String>> batches = new ArrayList<>();
+        Set<String> batch = null;
+        for (String name : names) {
+            if (batch == null || batch.size() == size) {
+                batch = new HashSet<>();
+                batches.add(batch);
+            }
+            batch.add(name);
+        }
+        return batches;
+    }
+
+    private static final class Entry {
+        final ConfigValue value;
+        final long expiresAt;
+
+        Entry(ConfigValue value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean expired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private static final class Fallback implements ConfigResolver {
+        final private ConfigResolver first;
+        final private ConfigResolver second;
+
+        Fallback(ConfigResolver first, ConfigResolver second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public ConfigValue lookup(String path) {
+            ConfigValue value = first.lookup(path);
+            return value != null ? value : second.lookup(path);
+        }
+
+        @Override
+        public ConfigResolver withFallback(ConfigResolver fallback) {
+            ConfigResolver withFallback = second.withFallback(fallback);
+            if (withFallback == second)
+                return this;
+            else
+                return new Fallback(first, withFallback);
+        }
+    }
+
+    /**
+     * Handle of background refreshing started by {@link #scheduleRefresh}.
+     */
+    public static final class Refreshing implements AutoCloseable {
+        final private ScheduledFuture<?> future;
+
+        private Refreshing(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        /**
+         * Stops refreshing. A refresh in progress completes.
+         */
+        @Override
+        public void close() {
+            future.cancel(false);
+        }
+    }
+
+}
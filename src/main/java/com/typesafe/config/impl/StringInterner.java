@@ -0,0 +1,121 @@
+package com.typesafe.config.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded table deduplicating keys and short string values converted by
+ * {@link YamlParser}. Strings are referenced weakly, so an interned string
+ * is dropped from the table as soon as no config refers to it anymore.
+ *
+ * <p>
+ * The table is split into independently locked segments to keep contention
+ * low when many documents are converted concurrently. Once a segment is full
+ * new strings are no longer interned, but are returned unchanged.
+ */
+public final class StringInterner {
+
+    final private static int DEFAULT_MAX_SIZE = 1 << 16;
+    final private static int DEFAULT_MAX_LENGTH = 64;
+    final private static int SEGMENTS = 16;
+
+    final private Segment[] segments;
+    final private int maxSegmentSize;
+    final private int maxLength;
+    final private LongAdder lookups = new LongAdder();
+    final private LongAdder hits = new LongAdder();
+    final private LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates table holding up to 65536 strings of up to 64 characters.
+     */
+    public StringInterner() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param maxSize   maximum number of strings held by the table
+     * @param maxLength strings longer than this are never interned
+     */
+    public StringInterner(int maxSize, int maxLength) {
+        if (maxSize < 0 || maxLength < 0)
+            throw new IllegalArgumentException("maxSize and maxLength must be non-negative");
+
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+        this.maxSegmentSize = (maxSize + SEGMENTS - 1) / SEGMENTS;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns canonical instance equal to the given string.
+     */
+    String intern(String string) {
+        if (string == null || string.length() > maxLength)
+            return string;
+
+        lookups.increment();
+        int h = string.hashCode();
+        Segment segment = segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+        synchronized (segment) {
+            WeakReference<String> reference = segment.table.get(string);
+            String canonical = reference != null ? reference.get() : null;
+            if (canonical != null) {
+                hits.increment();
+                return canonical;
+            }
+
+            if (segment.table.size() >= maxSegmentSize) {
+                rejected.increment();
+                return string;
+            }
+
+            segment.table.put(string, new WeakReference<>(string));
+            return string;
+        }
+    }
+
+    /**
+     * @return number of strings currently held by the table
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.table.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return number of strings looked up in the table
+     */
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return number of strings replaced by an already interned instance
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of strings not interned because the table was full
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private static final class Segment {
+        final private Map<String, WeakReference<String>> table = new WeakHashMap<>();
+    }
+
+}
@@ -0,0 +1,300 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigOrigin;
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SnakeYAML constructor which remembers line numbers of the values in
+ * constructed mappings and sequences. Lines are kept as a plain {@code int[]}
+ * next to the collection and resolved to origins of the document only when
+ * the values are converted by {@link YamlParser}.
+ *
+ * <p>
+ * Scalars tagged {@code !include} are replaced with the value of the
+ * included document, and scalars tagged {@code !duration} or {@code !bytes}
+ * with a {@link ConfigUnitString}; {@link YamlParser} keeps such values as
+ * they are.
+ */
+final class YamlConstructor extends Constructor {
+
+    final static String DURATION_TAG = "!duration";
+    final static String BYTES_TAG = "!bytes";
+
+    final private YamlOrigins origins;
+    final private boolean lineNumbers;
+    final private YamlIncludes.Context includes;
+    // lines before the part of the document parsed by this constructor
+    final private int lineOffset;
+    private long nodes;
+
+    YamlConstructor(YamlOrigins origins, boolean lineNumbers, YamlIncludes.Context includes) {
+        this(origins, lineNumbers, includes, 0);
+    }
+
+    YamlConstructor(YamlOrigins origins, boolean lineNumbers, YamlIncludes.Context includes, int lineOffset) {
+        this.origins = origins;
+        this.lineNumbers = lineNumbers;
+        this.includes = includes;
+        this.lineOffset = lineOffset;
+        this.yamlConstructors.put(new Tag(YamlIncludes.TAG), new ConstructInclude());
+        this.yamlConstructors.put(new Tag(DURATION_TAG), new ConstructUnitString(true));
+        this.yamlConstructors.put(new Tag(BYTES_TAG), new ConstructUnitString(false));
+    }
+
+    /**
+     * Returns origin of the element of a collection constructed by this class,
+     * or fallback origin for any other object.
+     */
+    static ConfigOrigin origin(Object collection, int index, ConfigOrigin fallback) {
+        if (collection instanceof Marked)
+            return ((Marked) collection).origin(index);
+        else
+            return fallback;
+    }
+
+    /**
+     * Merges mappings constructed from consecutive parts of one document
+     * into the mapping the whole document would be constructed to. As when
+     * the whole document is constructed, the last of duplicate keys wins
+     * and takes the place of its last occurrence.
+     */
+    static Map<Object, Object> merge(List<Map<Object, Object>> mappings) {
+        int size = 0;
+        for (Map<Object, Object> mapping : mappings) {
+            size += mapping.size();
+        }
+
+        Map<Object, Object> merged;
+        Map<Object, Integer> keyLines = new HashMap<>();
+        Map<Object, Object> first = mappings.get(0);
+        if (first instanceof MarkedMap)
+            merged = new MarkedMap(size, ((MarkedMap) first).origins);
+        else
+            merged = new LinkedHashMap<>(size);
+
+        for (Map<Object, Object> mapping : mappings) {
+            int i = 0;
+            for (Map.Entry<Object, Object> entry : mapping.entrySet()) {
+                merged.remove(entry.getKey());
+                merged.put(entry.getKey(), entry.getValue());
+                if (mapping instanceof MarkedMap)
+                    keyLines.put(entry.getKey(), ((MarkedMap) mapping).line(i++));
+            }
+        }
+
+        if (merged instanceof MarkedMap) {
+            int[] lines = new int[merged.size()];
+            int i = 0;
+            for (Object key : merged.keySet()) {
+                lines[i++] = keyLines.get(key);
+            }
+            ((MarkedMap) merged).lines = lines;
+        }
+        return merged;
+    }
+
+    /**
+     * @return number of nodes constructed so far
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Starts parsing of the documents included from the given node tree if
+     * there is more than one of them, so that they are parsed concurrently.
+     * Errors are left to be reported when the includes are constructed.
+     */
+    void prefetch(Node root) {
+        List<ScalarNode> found = new ArrayList<>();
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (!visited.add(node))
+                continue;
+
+            if (node instanceof MappingNode) {
+                for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                    pending.push(tuple.getKeyNode());
+                    pending.push(tuple.getValueNode());
+                }
+            } else if (node instanceof SequenceNode) {
+                pending.addAll(((SequenceNode) node).getValue());
+            } else if (node instanceof ScalarNode && YamlIncludes.TAG.equals(node.getTag().getValue())) {
+                found.add((ScalarNode) node);
+            }
+        }
+
+        if (found.size() < 2)
+            return;
+
+        for (ScalarNode node : found) {
+            try {
+                includes.prefetch(node.getValue(), line(node));
+            } catch (RuntimeException ignored) {
+                // reported by construct
+            }
+        }
+    }
+
+    /**
+     * Constructs the document of the given node, null if there is none.
+     */
+    Object construct(Node root) {
+        return root != null ? constructDocument(root) : null;
+    }
+
+    @Override
+    protected Object constructObjectNoCheck(Node node) {
+        nodes++;
+        return super.constructObjectNoCheck(node);
+    }
+
+    @Override
+    protected Map<Object, Object> createDefaultMap(int initSize) {
+        if (!lineNumbers)
+            return super.createDefaultMap(initSize);
+        else
+            return new MarkedMap(initSize, origins);
+    }
+
+    @Override
+    protected List<Object> createDefaultList(int initSize) {
+        if (!lineNumbers)
+            return super.createDefaultList(initSize);
+        else
+            return new MarkedList(initSize, origins);
+    }
+
+    @Override
+    protected void constructMapping2ndStep(MappingNode node, Map<Object, Object> mapping) {
+        super.constructMapping2ndStep(node, mapping);
+        if (!(mapping instanceof MarkedMap))
+            return;
+
+        // duplicated keys keep the position of the first occurrence
+        // but the value of the last one, same as in the mapping
+        Map<Object, Integer> keyLines = new HashMap<>();
+        for (NodeTuple tuple : node.getValue()) {
+            keyLines.put(constructObject(tuple.getKeyNode()), line(tuple.getValueNode()));
+        }
+
+        int[] lines = new int[mapping.size()];
+        int i = 0;
+        for (Object key : mapping.keySet()) {
+            Integer line = keyLines.get(key);
+            lines[i++] = line != null ? line : 0;
+        }
+
+        ((MarkedMap) mapping).lines = lines;
+    }
+
+    @Override
+    protected void constructSequenceStep2(SequenceNode node, Collection<Object> collection) {
+        super.constructSequenceStep2(node, collection);
+        if (!(collection instanceof MarkedList))
+            return;
+
+        List<Node> nodes = node.getValue();
+        int[] lines = new int[nodes.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = line(nodes.get(i));
+        }
+
+        ((MarkedList) collection).lines = lines;
+    }
+
+    private int line(Node node) {
+        return node.getStartMark() != null ? node.getStartMark().getLine() + 1 + lineOffset : 0;
+    }
+
+    private final class ConstructInclude extends AbstractConstruct {
+        @Override
+        public Object construct(Node node) {
+            return includes.include(constructScalar((ScalarNode) node), line(node));
+        }
+    }
+
+    private final class ConstructUnitString extends AbstractConstruct {
+        final private boolean duration;
+
+        ConstructUnitString(boolean duration) {
+            this.duration = duration;
+        }
+
+        @Override
+        public Object construct(Node node) {
+            String value = constructScalar((ScalarNode) node);
+            // same origin as the value would get when converted
+            ConfigOrigin origin = lineNumbers ? origins.origin(line(node)) : origins.document().withLineNumber(0);
+            if (duration)
+                return ConfigUnitString.duration(origin, value, DURATION_TAG);
+            else
+                return ConfigUnitString.memorySize(origin, value, BYTES_TAG);
+        }
+    }
+
+    private interface Marked {
+        ConfigOrigin origin(int index);
+    }
+
+    private static final class MarkedMap extends LinkedHashMap<Object, Object> implements Marked {
+        private static final long serialVersionUID = 1L;
+
+        final private transient YamlOrigins origins;
+        private int[] lines;
+
+        MarkedMap(int initSize, YamlOrigins origins) {
+            super(initSize);
+            this.origins = origins;
+        }
+
+        int line(int index) {
+            return lines != null && index < lines.length ? lines[index] : 0;
+        }
+
+        @Override
+        public ConfigOrigin origin(int index) {
+            return origins.origin(line(index));
+        }
+    }
+
+    private static final class MarkedList extends ArrayList<Object> implements Marked {
+        private static final long serialVersionUID = 1L;
+
+        final private transient YamlOrigins origins;
+        private int[] lines;
+
+        MarkedList(int initSize, YamlOrigins origins) {
+            super(initSize);
+            this.origins = origins;
+        }
+
+        @Override
+        public ConfigOrigin origin(int index) {
+            return origins.origin(lines != null && index < lines.length ? lines[index] : 0);
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigOrigin;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Cache of YAML documents included with the {@code !include} tag. Each
+ * document is parsed once per cache, keyed by its canonical location, and
+ * the parsed value is shared by all documents including it. Sharing one
+ * cache between parses, via {@link YamlParseOptions#setIncludes}, makes a
+ * fragment included by many files a single instance; the cache should then
+ * be used with the same options for all parses.
+ *
+ * <p>
+ * Include locations are resolved relative to the including document and,
+ * if nothing is found there, as classpath resources. When a document has
+ * several includes they are parsed concurrently on the executor of the
+ * cache; a thread waiting for an include which hasn't started yet parses
+ * it itself, so a small or busy executor can't deadlock nested includes.
+ * Include cycles, also ones between documents parsed on different threads,
+ * are reported as parse errors, and failed documents aren't cached.
+ */
+public final class YamlIncludes {
+
+    final static String TAG = "!include";
+
+    final private ConcurrentHashMap<String, Include> documents = new ConcurrentHashMap<>();
+    // included documents each document is waiting for, guarded by itself
+    final private Map<String, List<String>> waiting = new HashMap<>();
+    final private Executor executor;
+
+    /**
+     * Creates cache which parses includes on the common fork/join pool.
+     */
+    public YamlIncludes() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates cache which parses includes on the given executor.
+     *
+     * @param executor executor to parse includes on
+     */
+    public YamlIncludes(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return number of cached documents, failed ones are not cached
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Forgets all cached documents.
+     */
+    public void clear() {
+        documents.clear();
+    }
+
+    Context context(URL document, ClassLoader loader, YamlParseOptions options) {
+        return new Context(document, null, loader, options);
+    }
+
+    /**
+     * Records that the document is waiting for the included one, unless
+     * the included document is waiting for it, directly or through other
+     * documents, which is an include cycle.
+     */
+    private void await(String document, String include, ConfigOrigin origin) {
+        synchronized (waiting) {
+            checkCycle(document, include, origin);
+            waiting.computeIfAbsent(document, key -> new ArrayList<>()).add(include);
+        }
+    }
+
+    private void checkCycle(String document, String include, ConfigOrigin origin) {
+        synchronized (waiting) {
+            List<String> cycle = path(include, document);
+            if (cycle != null) {
+                cycle.add(include);
+                throw new ConfigException.Parse(origin, "include cycle: " + String.join(" -> ", cycle));
+            }
+        }
+    }
+
+    private void awaited(String document, String include) {
+        synchronized (waiting) {
+            List<String> includes = waiting.get(document);
+            includes.remove(include);
+            if (includes.isEmpty())
+                waiting.remove(document);
+        }
+    }
+
+    // path of waiting documents between the given ones, null if there is none
+    private List<String> path(String from, String to) {
+        Map<String, String> previous = new HashMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        previous.put(from, from);
+        pending.add(from);
+        while (!pending.isEmpty()) {
+            String document = pending.poll();
+            if (document.equals(to)) {
+                LinkedList<String> path = new LinkedList<>();
+                for (String key = to; !key.equals(from); key = previous.get(key)) {
+                    path.addFirst(key);
+                }
+                path.addFirst(from);
+                return path;
+            }
+
+            for (String include : waiting.getOrDefault(document, Collections.emptyList())) {
+                if (previous.putIfAbsent(include, document) == null)
+                    pending.add(include);
+            }
+        }
+        return null;
+    }
+
+    private static String canonical(URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                Path path = Paths.get(url.toURI());
+                return (Files.exists(path) ? path.toRealPath() : path.normalize()).toUri().toString();
+            }
+
+            return url.toURI().normalize().toString();
+        } catch (URISyntaxException | IOException | RuntimeException e) {
+            return url.toExternalForm();
+        }
+    }
+
+    private static boolean exists(URL url) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return Files.isRegularFile(Paths.get(url.toURI()));
+            } catch (URISyntaxException | RuntimeException e) {
+                return false;
+            }
+        }
+
+        try {
+            url.openStream().close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Includes made from a single document.
+     */
+    final class Context {
+        final private URL document;
+        final private ClassLoader loader;
+        final private YamlParseOptions options;
+        // canonical location, computed on the first include of a root document
+        private volatile String key;
+
+        private Context(URL document, String key, ClassLoader loader, YamlParseOptions options) {
+            this.document = document;
+            this.key = key;
+            this.loader = loader;
+            this.options = options;
+        }
+
+        YamlParseOptions options() {
+            return options;
+        }
+
+        /**
+         * Starts parsing of the included document unless it is cached.
+         */
+        FutureTask<AbstractConfigValue> prefetch(String location, int line) {
+            ConfigOrigin origin = origin(line);
+            URL url = resolve(location, origin);
+            String includeKey = canonical(url);
+            // fails fast, before parsing a document which would wait for this one
+            checkCycle(key(), includeKey, origin);
+            return task(url, includeKey);
+        }
+
+        /**
+         * Gets value of the included document, parsing it on the calling
+         * thread if no other thread has started to.
+         */
+        AbstractConfigValue include(String location, int line) {
+            ConfigOrigin origin = origin(line);
+            URL url = resolve(location, origin);
+            String includeKey = canonical(url);
+            String key = key();
+            await(key, includeKey, origin);
+            try {
+                FutureTask<AbstractConfigValue> task = task(url, includeKey);
+                task.run();
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConfigException.Generic("interrupted while including " + location, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ConfigException)
+                    throw (ConfigException) e.getCause();
+                throw new ConfigException.Generic("failed to include " + location + ": "
+                    + e.getCause().getMessage(), e.getCause());
+            } finally {
+                awaited(key, includeKey);
+            }
+        }
+
+        private FutureTask<AbstractConfigValue> task(URL url, String includeKey) {
+            Include task = documents.get(includeKey);
+            if (task != null)
+                return task;
+
+            Include created = new Include(includeKey, url, new Context(url, includeKey, loader, options));
+            task = documents.putIfAbsent(includeKey, created);
+            if (task != null)
+                return task;
+
+            try {
+                executor.execute(created);
+            } catch (RejectedExecutionException ignored) {
+                // parsed by the first thread which needs it
+            }
+            return created;
+        }
+
+        private ConfigOrigin origin(int line) {
+            return SimpleConfigOrigin.newURL(document).withLineNumber(line);
+        }
+
+        private String key() {
+            String key = this.key;
+            if (key == null)
+                this.key = key = canonical(document);
+            return key;
+        }
+
+        private URL resolve(String location, ConfigOrigin origin) {
+            try {
+                URL url = new URL(document, location);
+                if (exists(url))
+                    return url;
+            } catch (MalformedURLException ignored) {
+                // not a location relative to the document
+            }
+
+            URL resource = loader != null
+                ? loader.getResource(location.startsWith("/") ? location.substring(1) : location)
+                : null;
+            if (resource != null)
+                return resource;
+
+            throw new ConfigException.IO(origin, "included document not found: " + location);
+        }
+    }
+
+    /**
+     * Parsing of an included document, forgotten by the cache if it fails
+     * so that the document is parsed again by the next include.
+     */
+    private final class Include extends FutureTask<AbstractConfigValue> {
+        final private String key;
+
+        private Include(String key, URL url, Context context) {
+            super(() -> YamlParser.parseInclude(url, context));
+            this.key = key;
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            documents.remove(key, this);
+            super.setException(t);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigOrigin;
+
+import java.util.Arrays;
+
+/**
+ * Flyweight table of origins for values of a single YAML document. All
+ * values found on the same line share one origin, which is created only
+ * when the first value on that line is converted.
+ *
+ * <p>
+ * The table is read and filled by fork/join workers without locks. Racing
+ * workers may each create the origin of a line, or lose an origin when
+ * the table grows; origins are immutable and equal, so the only cost is a
+ * duplicate instance.
+ */
+final class YamlOrigins {
+
+    final private SimpleConfigOrigin document;
+    private volatile SimpleConfigOrigin[] lines = new SimpleConfigOrigin[64];
+
+    YamlOrigins(SimpleConfigOrigin document) {
+        this.document = document;
+    }
+
+    /**
+     * @return origin of the whole document
+     */
+    SimpleConfigOrigin document() {
+        return document;
+    }
+
+    /**
+     * @param line 1-based line number
+     * @return origin of values found on the given line
+     */
+    ConfigOrigin origin(int line) {
+        if (line <= 0)
+            return document;
+
+        SimpleConfigOrigin[] lines = this.lines;
+        if (line >= lines.length)
+            this.lines = lines = Arrays.copyOf(lines, Math.max(line + 1, lines.length * 2));
+
+        SimpleConfigOrigin origin = lines[line];
+        if (origin == null) {
+            origin = document.withLineNumber(line);
+            lines[line] = origin;
+        }
+
+        return origin;
+    }
+
+}
@@ -1,5 +1,9 @@
 package com.typesafe.config.impl;
 
+import com.github.vitalibo.config.LoadRecorder;
+import com.github.vitalibo.config.LoadStage;
+import com.github.vitalibo.config.YamlParseOptions;
+import com.github.vitalibo.config.jfr.ConfigEvents;
 import com.typesafe.config.ConfigException;
 import com.typesafe.config.ConfigMemorySize;
 import com.typesafe.config.ConfigObject;
@@ -7,11 +11,21 @@ import com.typesafe.config.ConfigOrigin;
 import com.typesafe.config.ConfigParseOptions;
 import com.typesafe.config.ConfigValue;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,7 +44,6 @@ public final class YamlParser {
         defaultValueOrigin, Collections.emptyList());
     final private static SimpleConfigObject defaultEmptyObject = SimpleConfigObject
         .empty(defaultValueOrigin);
-    final private static Yaml yaml = new Yaml();
 
     private YamlParser() {
     }
@@ -59,37 +72,303 @@ public final class YamlParser {
             return SimpleConfigOrigin.newSimple(originDescription);
     }
 
+    private static <T extends AbstractConfigValue> T canonical(T value, YamlParseOptions options) {
+        CanonicalValueTable canonicalValues = options.getCanonicalValues();
+        if (canonicalValues == null)
+            return value;
+
+        T canonical = canonicalValues.canonicalize(value);
+        if (canonical != value)
+            record(options, LoadRecorder::cacheHit);
+        return canonical;
+    }
+
+    private static String interned(String string, YamlParseOptions options) {
+        StringInterner stringInterner = options.getStringInterner();
+        if (stringInterner == null)
+            return string;
+
+        String interned = stringInterner.intern(string);
+        if (interned != string)
+            record(options, LoadRecorder::cacheHit);
+        return interned;
+    }
+
+    private static void record(YamlParseOptions options, Consumer<LoadRecorder> counter) {
+        LoadRecorder recorder = options.getLoadRecorder();
+        if (recorder != null)
+            counter.accept(recorder);
+    }
+
+    private static void record(AbstractConfigValue value, YamlParseOptions options) {
+        if (options.getLoadRecorder() == null)
+            return;
+
+        if (value instanceof AbstractConfigObject) {
+            record(options, LoadRecorder::object);
+        } else if (value instanceof SimpleConfigList) {
+            record(options, LoadRecorder::list);
+        } else if (value instanceof ConfigReference) {
+            record(options, LoadRecorder::reference);
+        } else if (!(value instanceof ConfigConcatenation)) {
+            // pieces of concatenation are recorded when it is created
+            record(options, LoadRecorder::scalar);
+        }
+    }
+
+    private static boolean parallel(int size, YamlParseOptions options) {
+        int threshold = options.getParallelThreshold();
+        return threshold > 0 && size >= threshold;
+    }
+
+    /**
+     * Fills the array with values made by the converter from their
+     * indexes, in parallel on the fork/join pool of the options. Values
+     * converted in parallel may convert large maps and lists of their own
+     * in parallel too, within the same pool.
+     */
+    private static <T> T[] convertAll(T[] values, IntFunction<T> converter, YamlParseOptions options) {
+        ForkJoinPool pool = pool(options);
+        // a few tasks per worker balance the load without much overhead
+        int leafSize = Math.max(1, values.length / (pool.getParallelism() * 4));
+        ConvertTask<T> task = new ConvertTask<>(values, converter, 0, values.length, leafSize);
+        if (ForkJoinTask.getPool() == pool)
+            task.invoke();
+        else
+            pool.invoke(task);
+        return values;
+    }
+
+    private static ForkJoinPool pool(YamlParseOptions options) {
+        ForkJoinPool pool = options.getForkJoinPool();
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    private static ConfigEvents.Span begin(LoadStage stage, YamlParseOptions options) {
+        LoadRecorder recorder = options.getLoadRecorder();
+        if (recorder == null)
+            return ConfigEvents.begin(stage);
+        else
+            return recorder.begin(stage);
+    }
+
     public static ConfigValue fromAnyRef(Object object, String originDescription) {
+        return fromAnyRef(object, originDescription, YamlParseOptions.defaults());
+    }
+
+    public static ConfigValue fromAnyRef(Object object, String originDescription,
+                                         YamlParseOptions options) {
         ConfigOrigin origin = valueOrigin(originDescription);
-        return fromAnyRef(object, origin, FromMapMode.KEYS_ARE_KEYS);
+        return fromAnyRef(object, origin, FromMapMode.KEYS_ARE_KEYS, options);
     }
 
     public static ConfigObject parseResourcesYamlSyntax(String resourceBasename,
                                                         ConfigParseOptions baseOptions) {
+        return parseResourcesYamlSyntax(resourceBasename, baseOptions, YamlParseOptions.defaults());
+    }
+
+    public static ConfigObject parseResourcesYamlSyntax(String resourceBasename,
+                                                        ConfigParseOptions baseOptions,
+                                                        YamlParseOptions options) {
         final ClassLoader classLoader = baseOptions.getClassLoader();
+        ConfigEvents.Span span = begin(LoadStage.RESOURCE_LOOKUP, options);
         URL url = Stream.of(resourceBasename, resourceBasename + ".yaml", resourceBasename + ".yml")
             .map(classLoader::getResource)
             .filter(Objects::nonNull)
             .findFirst()
-            .orElseThrow(() -> new ConfigException.Missing(resourceBasename));
-
-        try {
-            return YamlParser.fromPathMap(yaml.load(url.openStream()), String.format(
-                "%s @ %s:%s: 0", resourceBasename, url.getProtocol(), url.getFile()));
+            .orElse(null);
+        span.end(resourceBasename, 0, 0);
+        if (url == null)
+            throw new ConfigException.Missing(resourceBasename);
+
+        span = begin(LoadStage.FILE_READ, options);
+        byte[] bytes;
+        try (InputStream stream = url.openStream()) {
+            bytes = readAllBytes(stream);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        span.end(resourceBasename, bytes.length, 0);
+
+        return parse(SimpleConfigOrigin.newResource(resourceBasename, url), resourceBasename, bytes,
+            includes(options).context(url, classLoader, options));
+    }
+
+    public static ConfigObject parseUrlYamlSyntax(URL url, YamlParseOptions options) {
+        ConfigEvents.Span span = begin(LoadStage.FILE_READ, options);
+        byte[] bytes;
+        try (InputStream stream = url.openStream()) {
+            bytes = readAllBytes(stream);
+        } catch (IOException e) {
+            throw new ConfigException.IO(SimpleConfigOrigin.newURL(url), e.getMessage(), e);
+        }
+        span.end(url.toExternalForm(), bytes.length, 0);
+
+        return parseYamlSyntax(url, bytes, options);
+    }
+
+    public static ConfigObject parseYamlSyntax(URL url, byte[] bytes, YamlParseOptions options) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null)
+            classLoader = YamlParser.class.getClassLoader();
+        return parse(SimpleConfigOrigin.newURL(url), url.toExternalForm(), bytes,
+            includes(options).context(url, classLoader, options));
+    }
+
+    private static YamlIncludes includes(YamlParseOptions options) {
+        YamlIncludes includes = options.getIncludes();
+        return includes != null ? includes : new YamlIncludes();
+    }
+
+    private static ConfigObject parse(SimpleConfigOrigin documentOrigin, String name, byte[] bytes,
+                                      YamlIncludes.Context includes) {
+        AbstractConfigValue value = parseDocument(documentOrigin, name, bytes, includes, false);
+        if (!(value instanceof ConfigObject))
+            throw new ConfigException.WrongType(value.origin(), name, "object at document root",
+                value.valueType().name());
+        return (ConfigObject) value;
+    }
+
+    // included documents may be of any type, not only objects; they are read and parsed
+    // within the YAML_PARSE stage of the includer, possibly on another thread, so only
+    // flight recorder sees their own stages and the load recorder doesn't count them twice
+    static AbstractConfigValue parseInclude(URL url, YamlIncludes.Context includes) {
+        ConfigEvents.Span span = ConfigEvents.begin(LoadStage.FILE_READ);
+        byte[] bytes;
+        try (InputStream stream = url.openStream()) {
+            bytes = readAllBytes(stream);
+        } catch (IOException e) {
+            throw new ConfigException.IO(SimpleConfigOrigin.newURL(url), e.getMessage(), e);
+        }
+        span.end(url.toExternalForm(), bytes.length, 0);
+
+        return parseDocument(SimpleConfigOrigin.newURL(url), url.toExternalForm(), bytes, includes, true);
+    }
+
+    private static AbstractConfigValue parseDocument(SimpleConfigOrigin documentOrigin, String name, byte[] bytes,
+                                                     YamlIncludes.Context includes, boolean included) {
+        YamlParseOptions options = includes.options();
+        ConfigEvents.Span span = included ? ConfigEvents.begin(LoadStage.YAML_PARSE)
+            : begin(LoadStage.YAML_PARSE, options);
+        YamlOrigins origins = new YamlOrigins(documentOrigin);
+        long[] nodes = new long[1];
+        Object document = null;
+        int splitThreshold = options.getSplitThreshold();
+        if (splitThreshold > 0 && bytes.length >= splitThreshold)
+            document = constructSplit(origins, bytes, includes, nodes);
+
+        if (document == null) {
+            YamlConstructor constructor = new YamlConstructor(origins, options.getLineNumbers(), includes);
+            Node node = new Yaml(constructor).compose(new UnicodeReader(new ByteArrayInputStream(bytes)));
+            if (node != null)
+                constructor.prefetch(node);
+            document = constructor.construct(node);
+            nodes[0] = constructor.nodes();
+        }
+        span.end(name, bytes.length, nodes[0]);
+
+        // root object describes the whole document
+        ConfigOrigin origin = origins.document().withLineNumber(0);
+        if (document == null)
+            return emptyObject(origin);
+
+        span = included ? ConfigEvents.begin(LoadStage.VALUE_CONVERSION)
+            : begin(LoadStage.VALUE_CONVERSION, options);
+        AbstractConfigValue value = fromAnyRef(document, origin, FromMapMode.KEYS_ARE_PATHS, options);
+        span.end(name, 0, nodes[0]);
+        return value;
+    }
+
+    /**
+     * Parses the document split at keys of the root mapping into about a
+     * chunk per worker of the fork/join pool, and merges the mappings the
+     * chunks are constructed to.
+     *
+     * @return the merged mapping, or null if the document can't be split
+     * or any chunk fails, so that the document is parsed as a whole
+     */
+    private static Object constructSplit(YamlOrigins origins, byte[] bytes, YamlIncludes.Context includes,
+                                         long[] nodes) {
+        YamlParseOptions options = includes.options();
+        List<int[]> chunks = YamlSplitter.split(bytes, pool(options).getParallelism());
+        if (chunks == null)
+            return null;
+
+        YamlConstructor[] constructors = new YamlConstructor[chunks.size()];
+        Object[] documents = convertAll(new Object[chunks.size()], index -> {
+            int[] chunk = chunks.get(index);
+            YamlConstructor constructor = new YamlConstructor(origins, options.getLineNumbers(), includes, chunk[2]);
+            constructors[index] = constructor;
+            try {
+                Node node = new Yaml(constructor).compose(new UnicodeReader(
+                    new ByteArrayInputStream(bytes, chunk[0], chunk[1] - chunk[0])));
+                if (node == null)
+                    return null;
+                constructor.prefetch(node);
+                return constructor.construct(node);
+            } catch (RuntimeException e) {
+                // reported when the document is parsed as a whole
+                return null;
+            }
+        }, options);
+
+        List<Map<Object, Object>> mappings = new ArrayList<>(documents.length);
+        long constructed = 0;
+        for (int i = 0; i < documents.length; i++) {
+            if (!(documents[i] instanceof Map))
+                return null;
+
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> mapping = (Map<Object, Object>) documents[i];
+            mappings.add(mapping);
+            constructed += constructors[i].nodes();
+        }
+
+        nodes[0] = constructed;
+        return YamlConstructor.merge(mappings);
+    }
+
+    private static byte[] readAllBytes(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(stream.available(), 8192));
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+
+        return out.toByteArray();
     }
 
     public static ConfigObject fromPathMap(
         Map<String, ? extends Object> pathMap, String originDescription) {
+        return fromPathMap(pathMap, originDescription, YamlParseOptions.defaults());
+    }
+
+    public static ConfigObject fromPathMap(
+        Map<String, ? extends Object> pathMap, String originDescription, YamlParseOptions options) {
         ConfigOrigin origin = valueOrigin(originDescription);
-        return (ConfigObject) fromAnyRef(pathMap, origin,
-            FromMapMode.KEYS_ARE_PATHS);
+        ConfigEvents.Span span = begin(LoadStage.PATH_MAP, options);
+        ConfigObject object = (ConfigObject) fromAnyRef(pathMap, origin,
+            FromMapMode.KEYS_ARE_PATHS, options);
+        span.end(origin.description(), 0, pathMap.size());
+        return object;
     }
 
     static AbstractConfigValue fromAnyRef(Object object, ConfigOrigin origin,
                                           FromMapMode mapMode) {
+        return fromAnyRef(object, origin, mapMode, YamlParseOptions.defaults());
+    }
+
+    static AbstractConfigValue fromAnyRef(Object object, ConfigOrigin origin,
+                                          FromMapMode mapMode, YamlParseOptions options) {
+        AbstractConfigValue value = convert(object, origin, mapMode, options);
+        if (value != object)
+            record(value, options);
+        return canonical(value, options);
+    }
+
+    private static AbstractConfigValue convert(Object object, ConfigOrigin origin,
+                                               FromMapMode mapMode, YamlParseOptions options) {
         if (origin == null)
             throw new ConfigException.BugOrBroken(
                 "origin not supposed to be null");
@@ -110,7 +389,7 @@ public final class YamlParser {
                 return defaultFalseValue;
             }
         } else if (object instanceof String) {
-            return YamlParser.fromString(origin, (String) object);
+            return YamlParser.fromString(origin, (String) object, options);
         } else if (object instanceof Number) {
             // here we always keep the same type that was passed to us,
             // rather than figuring out if a Long would fit in an Int
@@ -128,13 +407,17 @@ public final class YamlParser {
                     ((Number) object).doubleValue(), null);
             }
         } else if (object instanceof Duration) {
-            return new ConfigLong(origin, ((Duration) object).toMillis(), null);
+            return ConfigUnitString.of(origin, (Duration) object);
         } else if (object instanceof Map) {
             if (((Map<?, ?>) object).isEmpty())
                 return emptyObject(origin);
 
             if (mapMode == FromMapMode.KEYS_ARE_KEYS) {
-                Map<String, AbstractConfigValue> values = new HashMap<String, AbstractConfigValue>();
+                if (parallel(((Map<?, ?>) object).size(), options))
+                    return fromMapParallel(origin, (Map<?, ?>) object, options);
+
+                Map<String, AbstractConfigValue> values = new LinkedHashMap<String, AbstractConfigValue>();
+                int index = 0;
                 for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
                     Object key = entry.getKey();
                     if (!(key instanceof String))
@@ -142,22 +425,40 @@ public final class YamlParser {
                             "bug in method caller: not valid to create ConfigObject from map with non-String key: "
                                 + key);
                     AbstractConfigValue value = fromAnyRef(entry.getValue(),
-                        origin, mapMode);
-                    values.put((String) key, value);
+                        YamlConstructor.origin(object, index++, origin), mapMode, options);
+                    values.put(interned((String) key, options), value);
                 }
 
-                return new SimpleConfigObject(origin, values);
+                return new SimpleConfigObject(origin, CompactValueMap.of(values));
             } else {
-                return YamlParser.fromPathMap(origin, (Map<?, ?>) object);
+                return YamlParser.fromPathMap(origin, (Map<?, ?>) object, options);
             }
         } else if (object instanceof Iterable) {
             Iterator<?> i = ((Iterable<?>) object).iterator();
             if (!i.hasNext())
                 return emptyList(origin);
 
+            // homogeneous sequences of numbers or booleans are kept
+            // in primitive arrays instead of one value per element
+            if (object instanceof Collection) {
+                PrimitiveValueList primitives = PrimitiveValueList.of(origin, (Collection<?>) object);
+                if (primitives != null)
+                    return new SimpleConfigList(origin, primitives, ResolveStatus.RESOLVED);
+
+                if (parallel(((Collection<?>) object).size(), options)) {
+                    Object[] elements = ((Collection<?>) object).toArray();
+                    AbstractConfigValue[] values = convertAll(new AbstractConfigValue[elements.length],
+                        index -> fromAnyRef(elements[index], YamlConstructor.origin(object, index, origin),
+                            mapMode, options), options);
+                    return new SimpleConfigList(origin, Arrays.asList(values));
+                }
+            }
+
             List<AbstractConfigValue> values = new ArrayList<AbstractConfigValue>();
+            int index = 0;
             while (i.hasNext()) {
-                AbstractConfigValue v = fromAnyRef(i.next(), origin, mapMode);
+                AbstractConfigValue v = fromAnyRef(i.next(),
+                    YamlConstructor.origin(object, index++, origin), mapMode, options);
                 values.add(v);
             }
 
@@ -171,9 +472,36 @@ public final class YamlParser {
         }
     }
 
+    private static AbstractConfigObject fromMapParallel(ConfigOrigin origin, Map<?, ?> map,
+                                                        YamlParseOptions options) {
+        Map.Entry<?, ?>[] entries = map.entrySet().toArray(new Map.Entry<?, ?>[0]);
+        for (Map.Entry<?, ?> entry : entries) {
+            if (!(entry.getKey() instanceof String))
+                throw new ConfigException.BugOrBroken(
+                    "bug in method caller: not valid to create ConfigObject from map with non-String key: "
+                        + entry.getKey());
+        }
+
+        AbstractConfigValue[] converted = convertAll(new AbstractConfigValue[entries.length],
+            index -> fromAnyRef(entries[index].getValue(), YamlConstructor.origin(map, index, origin),
+                FromMapMode.KEYS_ARE_KEYS, options), options);
+
+        Map<String, AbstractConfigValue> values = new LinkedHashMap<String, AbstractConfigValue>();
+        for (int i = 0; i < entries.length; i++) {
+            values.put(interned((String) entries[i].getKey(), options), converted[i]);
+        }
+
+        return new SimpleConfigObject(origin, CompactValueMap.of(values));
+    }
+
     static AbstractConfigObject fromPathMap(ConfigOrigin origin,
-                                            Map<?, ?> pathExpressionMap) {
-        Map<Path, Object> pathMap = new HashMap<Path, Object>();
+                                            Map<?, ?> pathExpressionMap, YamlParseOptions options) {
+        if (parallel(pathExpressionMap.size(), options))
+            return fromPathMapParallel(origin, pathExpressionMap, options);
+
+        Map<Path, Object> pathMap = new LinkedHashMap<Path, Object>();
+        Map<Path, ConfigOrigin> pathOrigins = new HashMap<Path, ConfigOrigin>();
+        int index = 0;
         for (Map.Entry<?, ?> entry : pathExpressionMap.entrySet()) {
             Object keyObj = entry.getKey();
             if (!(keyObj instanceof String)) {
@@ -182,18 +510,42 @@ public final class YamlParser {
             }
             Path path = Path.newPath((String) keyObj);
             pathMap.put(path, entry.getValue());
+            pathOrigins.put(path, YamlConstructor.origin(pathExpressionMap, index++, origin));
+        }
+        return fromPathMap(origin, pathMap, pathOrigins, false /* from properties */, options);
+    }
+
+    private static AbstractConfigObject fromPathMapParallel(ConfigOrigin origin,
+                                                            Map<?, ?> pathExpressionMap, YamlParseOptions options) {
+        Map.Entry<?, ?>[] entries = pathExpressionMap.entrySet().toArray(new Map.Entry<?, ?>[0]);
+        for (Map.Entry<?, ?> entry : entries) {
+            if (!(entry.getKey() instanceof String)) {
+                throw new ConfigException.BugOrBroken(
+                    "Map has a non-string as a key, expecting a path expression as a String");
+            }
+        }
+
+        Path[] paths = convertAll(new Path[entries.length],
+            index -> Path.newPath((String) entries[index].getKey()), options);
+
+        Map<Path, Object> pathMap = new LinkedHashMap<Path, Object>();
+        Map<Path, ConfigOrigin> pathOrigins = new HashMap<Path, ConfigOrigin>();
+        for (int i = 0; i < entries.length; i++) {
+            pathMap.put(paths[i], entries[i].getValue());
+            pathOrigins.put(paths[i], YamlConstructor.origin(pathExpressionMap, i, origin));
         }
-        return fromPathMap(origin, pathMap, false /* from properties */);
+        return fromPathMap(origin, pathMap, pathOrigins, false /* from properties */, options);
     }
 
     private static AbstractConfigObject fromPathMap(ConfigOrigin origin,
-                                                    Map<Path, Object> pathMap, boolean convertedFromProperties) {
+                                                    Map<Path, Object> pathMap, Map<Path, ConfigOrigin> pathOrigins,
+                                                    boolean convertedFromProperties, YamlParseOptions options) {
         /*
          * First, build a list of paths that will have values, either string or
          * object values.
          */
-        Set<Path> scopePaths = new HashSet<Path>();
-        Set<Path> valuePaths = new HashSet<Path>();
+        Set<Path> scopePaths = new LinkedHashSet<Path>();
+        Set<Path> valuePaths = new LinkedHashSet<Path>();
         for (Path path : pathMap.keySet()) {
             // add value's path
             valuePaths.add(path);
@@ -228,15 +580,45 @@ public final class YamlParser {
         /*
          * Create maps for the object-valued values.
          */
-        Map<String, AbstractConfigValue> root = new HashMap<String, AbstractConfigValue>();
+        Map<String, AbstractConfigValue> root = new LinkedHashMap<String, AbstractConfigValue>();
         Map<Path, Map<String, AbstractConfigValue>> scopes = new HashMap<Path, Map<String, AbstractConfigValue>>();
 
         for (Path path : scopePaths) {
-            Map<String, AbstractConfigValue> scope = new HashMap<String, AbstractConfigValue>();
+            Map<String, AbstractConfigValue> scope = new LinkedHashMap<String, AbstractConfigValue>();
             scopes.put(path, scope);
         }
 
+        /*
+         * Reserve keys in the order they appear in the map, so that objects
+         * created later from the scopes don't end up after the values.
+         */
+        for (Path path : pathMap.keySet()) {
+            Path next = path;
+            while (next != null) {
+                Path parentPath = next.parent();
+                Map<String, AbstractConfigValue> parent = parentPath != null ? scopes
+                    .get(parentPath) : root;
+                if (parent.containsKey(next.last()))
+                    break;
+                parent.put(interned(next.last(), options), null);
+                // scope objects start where the first of their values is
+                if (next != path)
+                    pathOrigins.put(next, pathOrigins.get(path));
+                next = parentPath;
+            }
+        }
+
+        /* Convert values, in parallel if there are many of them */
+        AbstractConfigValue[] converted = null;
+        if (!convertedFromProperties && parallel(valuePaths.size(), options)) {
+            Path[] paths = valuePaths.toArray(new Path[0]);
+            converted = convertAll(new AbstractConfigValue[paths.length],
+                index -> YamlParser.fromAnyRef(pathMap.get(paths[index]), pathOrigins.get(paths[index]),
+                    FromMapMode.KEYS_ARE_PATHS, options), options);
+        }
+
         /* Store string values in the associated scope maps */
+        int index = 0;
         for (Path path : valuePaths) {
             Path parentPath = path.parent();
             Map<String, AbstractConfigValue> parent = parentPath != null ? scopes
@@ -252,12 +634,17 @@ public final class YamlParser {
                     // silently ignore non-string values in Properties
                     value = null;
                 }
+            } else if (converted != null) {
+                value = converted[index];
             } else {
-                value = YamlParser.fromAnyRef(pathMap.get(path), origin,
-                    FromMapMode.KEYS_ARE_PATHS);
+                value = YamlParser.fromAnyRef(pathMap.get(path), pathOrigins.get(path),
+                    FromMapMode.KEYS_ARE_PATHS, options);
             }
+            index++;
             if (value != null)
                 parent.put(last, value);
+            else if (!scopePaths.contains(path))
+                parent.remove(last);
         }
 
         /*
@@ -289,40 +676,64 @@ public final class YamlParser {
             Map<String, AbstractConfigValue> parent = parentPath != null ? scopes
                 .get(parentPath) : root;
 
-            AbstractConfigObject o = new SimpleConfigObject(origin, scope,
-                ResolveStatus.RESOLVED, false /* ignoresFallbacks */);
+            record(options, LoadRecorder::object);
+            AbstractConfigObject o = canonical(new SimpleConfigObject(pathOrigins.get(scopePath), CompactValueMap.of(scope),
+                ResolveStatus.RESOLVED, false /* ignoresFallbacks */), options);
             parent.put(scopePath.last(), o);
         }
 
         // return root config object
-        return new SimpleConfigObject(origin, root, ResolveStatus.fromValues(root.values()),
+        return new SimpleConfigObject(origin, CompactValueMap.of(root), ResolveStatus.fromValues(root.values()),
             false /* ignoresFallbacks */);
     }
 
     static AbstractConfigValue fromString(ConfigOrigin origin, String string) {
+        return fromString(origin, string, YamlParseOptions.defaults());
+    }
+
+    static AbstractConfigValue fromString(ConfigOrigin origin, String string, YamlParseOptions options) {
         if (!string.contains("$")) {
-            return new ConfigString.Quoted(origin, string);
+            String value = interned(string, options);
+            if (options.getUnitStrings()) {
+                ConfigUnitString unitString = ConfigUnitString.parse(origin, value);
+                if (unitString != null)
+                    return unitString;
+            }
+
+            return new ConfigString.Quoted(origin, value);
         }
 
         final List<AbstractConfigValue> pieces = Arrays
             .stream(string.split("(?<!\\$)\\Q$\\E"))
-            .flatMap(s -> fromStringPiece(origin, s))
+            .flatMap(s -> fromStringPiece(origin, s, options))
             .collect(Collectors.toList());
 
         if (pieces.size() == 1) {
             return pieces.get(0);
         }
 
+        // escaped dollars without substitutions are one string
+        if (pieces.stream().noneMatch(piece -> piece instanceof ConfigReference)) {
+            return new ConfigString.Quoted(origin, interned(pieces.stream()
+                .map(piece -> ((ConfigString) piece).unwrapped())
+                .collect(Collectors.joining()), options));
+        }
+
+        for (AbstractConfigValue piece : pieces) {
+            record(piece, options);
+        }
+
         return new ConfigConcatenation(origin, pieces);
     }
 
-    private static Stream<AbstractConfigValue> fromStringPiece(ConfigOrigin origin, String string) {
+    private static Stream<AbstractConfigValue> fromStringPiece(ConfigOrigin origin, String string,
+                                                               YamlParseOptions options) {
         if (string.isEmpty()) {
             return Stream.empty();
         }
 
         if (string.startsWith("$") || !string.startsWith("{")) {
-            return Stream.of(new ConfigString.Quoted(origin, string));
+            return Stream.of(new ConfigString.Quoted(origin, interned(string, options)));
         }
 
         int index = string.indexOf("}");
@@ -331,17 +742,56 @@ public final class YamlParser {
                 origin, "String substitutions should ended with '}'.");
         }
 
+        final Path path = new Path(string.substring(1, index).split("\\."));
+        if (options.getSecretResolver() != null) {
+            options.getSecretResolver().reference(path);
+        }
+
         final ConfigReference reference = new ConfigReference(origin,
-            new SubstitutionExpression(
-                new Path(string.substring(1, index).split("\\.")),
-                false));
+            new SubstitutionExpression(path, false));
 
         if (index == string.length() - 1) {
             return Stream.of(reference);
         }
 
         return Stream.of(reference, new ConfigString.Quoted(
-            origin, string.substring(index + 1)));
+            origin, interned(string.substring(index + 1), options)));
+    }
+
+    /**
+     * Converts a range of indexes, splitting it in halves until it is
+     * small enough to convert on one thread.
+     */
+    private static final class ConvertTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final private T[] values;
+        final private IntFunction<T> converter;
+        final private int from;
+        final private int to;
+        final private int leafSize;
+
+        ConvertTask(T[] values, IntFunction<T> converter, int from, int to, int leafSize) {
+            this.values = values;
+            this.converter = converter;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    values[i] = converter.apply(i);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ConvertTask<>(values, converter, from, middle, leafSize),
+                new ConvertTask<>(values, converter, middle, to, leafSize));
+        }
     }
 
 }
@@ -0,0 +1,404 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Renders resolved config values as YAML documents, walking the objects
+ * and lists of the value and writing straight to the output, without
+ * copying the value into plain Java collections first. Rendered objects
+ * parse with {@link YamlParser} to values equal to the rendered ones.
+ *
+ * <p>
+ * This object is immutable, so the "setters" return a new object.
+ *
+ * <pre>
+ *     YamlRenderer.defaults()
+ *         .setOriginComments(true)
+ *         .render(config.root(), writer);
+ * </pre>
+ */
+public final class YamlRenderer {
+
+    final private static YamlRenderer DEFAULTS = new YamlRenderer(false);
+
+    final private boolean originComments;
+
+    private YamlRenderer(boolean originComments) {
+        this.originComments = originComments;
+    }
+
+    /**
+     * @return renderer with the default options
+     */
+    public static YamlRenderer defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Set to true to end the line of every value with a comment describing
+     * its origin, such as the file and line it was loaded from.
+     *
+     * @param originComments true to render origin comments
+     * @return renderer with the "origin comments" flag set
+     */
+    public YamlRenderer setOriginComments(boolean originComments) {
+        if (this.originComments == originComments)
+            return this;
+        else
+            return new YamlRenderer(originComments);
+    }
+
+    /**
+     * Gets the current "origin comments" flag.
+     *
+     * @return whether origin comments are rendered
+     */
+    public boolean getOriginComments() {
+        return originComments;
+    }
+
+    /**
+     * Renders the value as a YAML document.
+     *
+     * @param value resolved value to render
+     * @return the document
+     * @throws ConfigException.NotResolved if the value is not resolved
+     */
+    public String render(ConfigValue value) {
+        StringBuilder out = new StringBuilder();
+        try {
+            render(value, out);
+        } catch (IOException e) {
+            throw new ConfigException.BugOrBroken("StringBuilder threw IOException", e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Renders the value as a YAML document to the writer. Values are
+     * written in small pieces, so an unbuffered writer is best wrapped in
+     * a {@link java.io.BufferedWriter}.
+     *
+     * @param value  resolved value to render
+     * @param writer writer to render to
+     * @throws IOException                 if the writer fails
+     * @throws ConfigException.NotResolved if the value is not resolved
+     */
+    public void render(ConfigValue value, Writer writer) throws IOException {
+        render(value, (Appendable) writer);
+    }
+
+    /**
+     * Renders the value as a YAML document encoded in UTF-8 to the buffer,
+     * starting at its position.
+     *
+     * @param value  resolved value to render
+     * @param buffer buffer to render to
+     * @throws BufferOverflowException     if the document doesn't fit the buffer
+     * @throws ConfigException.NotResolved if the value is not resolved
+     */
+    public void render(ConfigValue value, ByteBuffer buffer) {
+        try {
+            render(value, new Utf8Appendable(buffer));
+        } catch (IOException e) {
+            throw new ConfigException.BugOrBroken("ByteBuffer threw IOException", e);
+        }
+    }
+
+    private void render(ConfigValue value, Appendable out) throws IOException {
+        if (((AbstractConfigValue) value).resolveStatus() != ResolveStatus.RESOLVED)
+            throw new ConfigException.NotResolved(
+                "need to Config#resolve() a config before rendering it, see the API docs for Config#resolve()");
+
+        if (!empty(value)) {
+            if (value instanceof ConfigObject)
+                renderObject((ConfigObject) value, 0, false, out);
+            else
+                renderList((ConfigList) value, 0, false, out);
+        } else {
+            renderScalar(value, out);
+            renderComment(value, out);
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Renders entries of the object, the first of them on the current line
+     * if the line is continued after a list item indicator.
+     */
+    private void renderObject(ConfigObject object, int indent, boolean continued, Appendable out)
+        throws IOException {
+        boolean first = true;
+        for (String key : object.keySet()) {
+            if (!first || !continued)
+                indent(indent, out);
+            first = false;
+
+            // keys are parsed as path expressions
+            renderString(Path.hasFunkyChars(key) || key.isEmpty() ? ConfigImplUtil.renderJsonString(key) : key, out);
+            out.append(':');
+            ConfigValue value = object.get(key);
+            if (empty(value)) {
+                out.append(' ');
+                renderScalar(value, out);
+                renderComment(value, out);
+                out.append('\n');
+            } else {
+                renderComment(value, out);
+                out.append('\n');
+                if (value instanceof ConfigObject)
+                    renderObject((ConfigObject) value, indent + 2, false, out);
+                else
+                    renderList((ConfigList) value, indent + 2, false, out);
+            }
+        }
+    }
+
+    /**
+     * Renders items of the list, the first of them on the current line if
+     * the line is continued after a list item indicator.
+     */
+    private void renderList(ConfigList list, int indent, boolean continued, Appendable out) throws IOException {
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0 || !continued)
+                indent(indent, out);
+
+            out.append("- ");
+            ConfigValue value = list.get(i);
+            if (empty(value)) {
+                renderScalar(value, out);
+                renderComment(value, out);
+                out.append('\n');
+            } else if (value instanceof ConfigObject) {
+                renderObject((ConfigObject) value, indent + 2, true, out);
+            } else {
+                renderList((ConfigList) value, indent + 2, true, out);
+            }
+        }
+    }
+
+    // scalars, empty objects and empty lists are rendered on one line
+    private static boolean empty(ConfigValue value) {
+        if (value instanceof ConfigObject)
+            return ((ConfigObject) value).isEmpty();
+        else if (value instanceof ConfigList)
+            return ((ConfigList) value).isEmpty();
+        else
+            return true;
+    }
+
+    private static void renderScalar(ConfigValue value, Appendable out) throws IOException {
+        switch (value.valueType()) {
+            case OBJECT:
+                out.append("{}");
+                break;
+            case LIST:
+                out.append("[]");
+                break;
+            case NULL:
+                out.append("null");
+                break;
+            case BOOLEAN:
+            case NUMBER:
+                renderNumberOrBoolean(value.unwrapped(), out);
+                break;
+            default:
+                renderString(escapeSubstitutions((String) value.unwrapped()), out);
+                break;
+        }
+    }
+
+    private static void renderNumberOrBoolean(Object value, Appendable out) throws IOException {
+        if (value instanceof Double) {
+            double d = (Double) value;
+            if (Double.isNaN(d))
+                out.append(".nan");
+            else if (Double.isInfinite(d))
+                out.append(d > 0 ? ".inf" : "-.inf");
+            else
+                out.append(Double.toString(d));
+        } else {
+            out.append(value.toString());
+        }
+    }
+
+    /**
+     * Doubles the first dollar of every run of dollars, which
+     * {@link YamlParser} reads as a dollar rather than a substitution.
+     */
+    private static String escapeSubstitutions(String s) {
+        if (s.indexOf('$') < 0)
+            return s;
+
+        StringBuilder sb = new StringBuilder(s.length() + 4);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '$' && (i == 0 || s.charAt(i - 1) != '$'))
+                sb.append('$');
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static void renderString(String s, Appendable out) throws IOException {
+        if (plain(s)) {
+            out.append(s);
+            return;
+        }
+
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || (c >= 0x7F && c <= 0x9F) || c == '\u2028' || c == '\u2029' || c == '\uFEFF') {
+                        out.append("\\u");
+                        String hex = Integer.toHexString(c);
+                        for (int j = hex.length(); j < 4; j++) {
+                            out.append('0');
+                        }
+                        out.append(hex);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * @return true if the string is read back as the same string when
+     * rendered without quotes, which is checked conservatively
+     */
+    private static boolean plain(String s) {
+        if (s.isEmpty())
+            return false;
+
+        char first = s.charAt(0);
+        if (!(first >= 'a' && first <= 'z' || first >= 'A' && first <= 'Z' || first == '_'))
+            return false;
+
+        for (int i = 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '_' || c == '-' || c == '.' || c == '/'))
+                return false;
+        }
+
+        // booleans and nulls of YAML 1.1
+        switch (s.toLowerCase()) {
+            case "true":
+            case "false":
+            case "yes":
+            case "no":
+            case "on":
+            case "off":
+            case "y":
+            case "n":
+            case "null":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void renderComment(ConfigValue value, Appendable out) throws IOException {
+        if (!originComments)
+            return;
+
+        String description = value.origin().description();
+        out.append(" # ");
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            out.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+
+    private static void indent(int indent, Appendable out) throws IOException {
+        for (int i = 0; i < indent; i++) {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Encodes characters to UTF-8 straight into a byte buffer.
+     */
+    private static final class Utf8Appendable implements Appendable {
+        final private ByteBuffer buffer;
+        private char highSurrogate;
+
+        Utf8Appendable(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    return this;
+                }
+                buffer.put((byte) '?');
+            }
+
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,286 @@
+package com.typesafe.config.impl;
+
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-scan of a YAML document for keys of the root mapping, the lines
+ * starting at column 0 outside of quoted scalars and flow collections.
+ * The document can be split at such lines into chunks which are parsed
+ * independently, each of them a mapping of its own.
+ *
+ * <p>
+ * The scan only needs to be conservative: a line it takes for a key
+ * which is not one leaves a chunk that fails to parse or is not a
+ * mapping, and the document is parsed as a whole then. Documents which
+ * may be valid but can't be split, such as those with directives, with
+ * several documents, a root merge key, a root that isn't a block
+ * mapping or more aliases than a document may have, are not split at
+ * all. Chunks are never split between an anchor and an alias to it.
+ */
+final class YamlSplitter {
+
+    final private static int MAX_ALIASES = new LoaderOptions().getMaxAliasesForCollections();
+
+    private YamlSplitter() {
+    }
+
+    /**
+     * Splits the document into about the given number of chunks of equal
+     * size.
+     *
+     * @return list of chunks, each {start offset, end offset, 0-based line
+     * of the start}, or null if the document can't be split
+     */
+    static List<int[]> split(byte[] bytes, int chunks) {
+        List<int[]> keys = scan(bytes);
+        if (keys == null || keys.isEmpty() || chunks < 2)
+            return null;
+
+        List<int[]> result = new ArrayList<>();
+        int size = bytes.length / chunks;
+        int start = 0;
+        int line = 0;
+        for (int[] key : keys) {
+            if (key[0] - start < size)
+                continue;
+
+            result.add(new int[]{start, key[0], line});
+            start = key[0];
+            line = key[1];
+        }
+        result.add(new int[]{start, bytes.length, line});
+        return result.size() < 2 ? null : result;
+    }
+
+    /**
+     * @return offsets and 0-based lines of keys of the root mapping, except
+     * the first one, or null if the document can't be split
+     */
+    static List<int[]> scan(byte[] bytes) {
+        // other encodings than UTF-8 are recognized by byte order mark
+        if (bytes.length > 1 && (bytes[0] == 0 || (bytes[0] & 0xFF) == 0xFE || (bytes[0] & 0xFF) == 0xFF))
+            return null;
+        if (unicodeBreaks(bytes))
+            return null;
+
+        List<int[]> keys = new ArrayList<>();
+        Map<String, Integer> anchors = new HashMap<>();
+        List<int[]> aliases = new ArrayList<>();
+        int aliasCount = 0;
+        boolean content = false;
+        boolean block = false;
+        byte quote = 0;
+        int depth = 0;
+        int line = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            int end = lineEnd(bytes, i);
+            if (quote == 0 && depth == 0) {
+                byte first = bytes[i];
+                boolean indented = i == end || first == ' ' || first == '\t';
+                if (block && indented) {
+                    i = next(bytes, end);
+                    line++;
+                    continue;
+                }
+                block = false;
+
+                if (!indented && first != '#') {
+                    switch (first) {
+                        case '%':
+                        case '?':
+                        case '[':
+                        case '{':
+                        case '|':
+                        case '>':
+                        case ':':
+                        case '@':
+                        case '`':
+                            return null;
+                        case '-':
+                            if (startsWith(bytes, i, end, "---")) {
+                                // only a marker of the start of the single document
+                                if (content || !blank(bytes, i + 3, end))
+                                    return null;
+                                i = next(bytes, end);
+                                line++;
+                                continue;
+                            } else if (i + 1 == end || bytes[i + 1] == ' ' || bytes[i + 1] == '\t') {
+                                return null;
+                            }
+                            break;
+                        case '.':
+                            if (startsWith(bytes, i, end, "..."))
+                                return null;
+                            break;
+                        case '<':
+                            if (i + 1 < end && bytes[i + 1] == '<')
+                                return null;
+                            break;
+                        default:
+                            break;
+                    }
+
+                    // keys with anchors or tags stay in the chunk before them
+                    if (content && first != '&' && first != '*' && first != '!')
+                        keys.add(new int[]{i, line});
+                    content = true;
+                }
+            }
+
+            // scan the line for quoted scalars, flow collections, anchors,
+            // aliases, comments and block scalar indicators
+            boolean token = true;
+            int j = i;
+            while (j < end) {
+                byte c = bytes[j];
+                if (quote == '"') {
+                    if (c == '\\')
+                        j++;
+                    else if (c == '"')
+                        quote = 0;
+                    j++;
+                    continue;
+                } else if (quote == '\'') {
+                    if (c == '\'' && j + 1 < end && bytes[j + 1] == '\'')
+                        j++;
+                    else if (c == '\'')
+                        quote = 0;
+                    j++;
+                    continue;
+                }
+
+                if (c == ' ' || c == '\t') {
+                    j++;
+                    continue;
+                }
+
+                if (c == '#' && (j == i || bytes[j - 1] == ' ' || bytes[j - 1] == '\t'))
+                    break;
+
+                if (token && (c == '"' || c == '\'')) {
+                    quote = c;
+                    token = false;
+                } else if ((token || depth > 0) && (c == '[' || c == '{')) {
+                    depth++;
+                    token = true;
+                } else if (depth > 0 && (c == ']' || c == '}')) {
+                    depth--;
+                    token = false;
+                } else if (depth > 0 && c == ',') {
+                    token = true;
+                } else if (token && (c == '&' || c == '*')) {
+                    int from = j + 1;
+                    j = from;
+                    while (j < end && !separator(bytes[j])) {
+                        j++;
+                    }
+                    String name = new String(bytes, from, j - from, StandardCharsets.UTF_8);
+                    if (c == '&') {
+                        anchors.put(name, from);
+                    } else {
+                        // the limit of aliases applies to the whole document
+                        if (++aliasCount > MAX_ALIASES)
+                            return null;
+                        Integer anchor = anchors.get(name);
+                        if (anchor != null)
+                            aliases.add(new int[]{anchor, from});
+                    }
+                    continue;
+                } else if (token && c == '!') {
+                    while (j < end && !separator(bytes[j])) {
+                        j++;
+                    }
+                    continue;
+                } else if (token && depth == 0 && (c == '|' || c == '>')) {
+                    block = true;
+                    break;
+                } else if (c == ':' && (j + 1 == end || separator(bytes[j + 1]))) {
+                    token = true;
+                } else if (token && c == '-' && (j + 1 == end || bytes[j + 1] == ' ' || bytes[j + 1] == '\t')) {
+                    token = true;
+                } else {
+                    // plain scalar, up to ": " or " #"
+                    token = false;
+                }
+                j++;
+            }
+
+            i = next(bytes, end);
+            line++;
+        }
+
+        // aliases must be parsed with their anchors, keys are in order of offsets
+        aliases.sort(Comparator.comparingInt(alias -> alias[0]));
+        List<int[]> result = new ArrayList<>(keys.size());
+        int next = 0;
+        int until = -1;
+        for (int[] key : keys) {
+            while (next < aliases.size() && aliases.get(next)[0] < key[0]) {
+                until = Math.max(until, aliases.get(next++)[1]);
+            }
+            if (key[0] >= until)
+                result.add(key);
+        }
+        return result;
+    }
+
+    private static int lineEnd(byte[] bytes, int from) {
+        int i = from;
+        while (i < bytes.length && bytes[i] != '\n' && bytes[i] != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int next(byte[] bytes, int end) {
+        if (end < bytes.length && bytes[end] == '\r' && end + 1 < bytes.length && bytes[end + 1] == '\n')
+            return end + 2;
+        return end + 1;
+    }
+
+    private static boolean startsWith(byte[] bytes, int from, int end, String prefix) {
+        if (end - from < prefix.length())
+            return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes[from + i] != prefix.charAt(i))
+                return false;
+        }
+        return from + prefix.length() == end || separator(bytes[from + prefix.length()]);
+    }
+
+    private static boolean blank(byte[] bytes, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (bytes[i] == '#')
+                return bytes[i - 1] == ' ' || bytes[i - 1] == '\t';
+            if (bytes[i] != ' ' && bytes[i] != '\t')
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean separator(byte c) {
+        return c == ' ' || c == '\t' || c == ',' || c == '[' || c == ']' || c == '{' || c == '}';
+    }
+
+    // NEL, LS and PS in UTF-8 are line breaks too, which would shift line numbers
+    private static boolean unicodeBreaks(byte[] bytes) {
+        for (int i = 0; i < bytes.length - 1; i++) {
+            if ((bytes[i] & 0xFF) == 0xC2 && (bytes[i + 1] & 0xFF) == 0x85)
+                return true;
+            if ((bytes[i] & 0xFF) == 0xE2 && i + 2 < bytes.length && (bytes[i + 1] & 0xFF) == 0x80
+                && ((bytes[i + 2] & 0xFF) == 0xA8 || (bytes[i + 2] & 0xFF) == 0xA9))
+                return true;
+        }
+        return false;
+    }
+
+}
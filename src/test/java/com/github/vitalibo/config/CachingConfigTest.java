@@ -0,0 +1,110 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.impl.ForwardingConfig;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CachingConfigTest {
+
+    private enum Letter {a, b, c}
+
+    @Test
+    public void testGetters() {
+        Config plain = ConfigFactory.load("test.yaml");
+        CachingConfig actual = CachingConfig.of(plain);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(actual.getInt("ints.fortyTwo"), 42);
+            Assert.assertEquals(actual.getDouble("floats.fortyTwoPointOne"), 42.1);
+            Assert.assertEquals(actual.getString("strings.abcdAgain"), "abcd");
+            Assert.assertEquals(actual.getStringList("arrays.ofString"), Arrays.asList("a", "b", "c"));
+            Assert.assertEquals(actual.getEnumList(Letter.class, "arrays.ofString"),
+                Arrays.asList(Letter.a, Letter.b, Letter.c));
+            Assert.assertEquals(actual.getEnum(Letter.class, "strings.a"), Letter.a);
+            Assert.assertEquals(actual.getDuration("durations.halfSecond"), Duration.ofMillis(500));
+            Assert.assertEquals(actual.getDuration("durations.halfSecond", TimeUnit.MICROSECONDS), 500_000);
+            Assert.assertEquals(actual.getDurationList("durations.secondsList", TimeUnit.SECONDS),
+                Arrays.asList(1L, 2L, 3L, 4L));
+            Assert.assertEquals(actual.getBytes("memsizes.halfMeg"), Long.valueOf(512 * 1024));
+            Assert.assertEquals(actual.getConfigList("arrays.ofObject").get(0).getInt("fortyTwo"), 42);
+            Assert.assertTrue(actual.getIsNull("nulls.null"));
+        }
+
+        Assert.assertEquals(actual.getMisses(), 12);
+        Assert.assertEquals(actual.getHits(), 24);
+        Assert.assertEquals(actual.size(), 12);
+        Assert.assertSame(actual.getStringList("arrays.ofString"), actual.getStringList("arrays.ofString"));
+        Assert.assertSame(actual.getConfig("ints"), actual.getConfig("ints"));
+        Assert.assertTrue(actual.getConfig("ints") instanceof CachingConfig);
+        Assert.assertSame(CachingConfig.of(actual), actual);
+        Assert.assertSame(actual.resolve(), actual);
+    }
+
+    @Test
+    public void testUnmodifiableLists() {
+        CachingConfig config = CachingConfig.of(ConfigFactory.load("test.yaml"));
+
+        List<Integer> actual = config.getIntList("arrays.ofInt");
+
+        Assert.assertThrows(UnsupportedOperationException.class, () -> actual.add(4));
+    }
+
+    @Test
+    public void testFailuresNotCached() {
+        CachingConfig config = CachingConfig.of(ConfigFactory.load("test.yaml"));
+
+        for (int i = 0; i < 2; i++) {
+            Assert.assertThrows(ConfigException.Missing.class, () -> config.getInt("ints.missing"));
+            Assert.assertThrows(ConfigException.WrongType.class, () -> config.getInt("strings.a"));
+        }
+
+        Assert.assertEquals(config.size(), 0);
+        Assert.assertEquals(config.getMisses(), 4);
+    }
+
+    @Test
+    public void testLoad() {
+        Config actual = ConfigFactory.load("test.yaml", ConfigParseOptions.defaults(),
+            ConfigResolveOptions.defaults(), YamlParseOptions.defaults().setCachedGetters(true));
+
+        Assert.assertTrue(actual instanceof CachingConfig);
+        Assert.assertEquals(actual.getInt("ints.fortyTwoAgain"), 42);
+        Assert.assertFalse(ConfigFactory.load("test.yaml") instanceof CachingConfig);
+    }
+
+    @Test
+    public void testAsFallback() {
+        CachingConfig cached = CachingConfig.of(ConfigFactory.parseString("x = 0, y = 2"));
+
+        Config actual = ConfigFactory.parseString("x = 1").withFallback(cached);
+
+        Assert.assertEquals(actual.getInt("x"), 1);
+        Assert.assertEquals(actual.getInt("y"), 2);
+        Assert.assertEquals(cached.withFallback(CachingConfig.of(ConfigFactory.parseString("z = 3"))).getInt("z"), 3);
+    }
+
+    @Test
+    public void testAsResolveSource() {
+        CachingConfig source = CachingConfig.of(ConfigFactory.parseString("a = 1"));
+        CachingConfig cached = CachingConfig.of(ConfigFactory.parseString("b = ${a}"));
+
+        Config actual = cached.resolveWith(source);
+
+        Assert.assertEquals(actual.getInt("b"), 1);
+        Assert.assertEquals(ConfigFactory.parseString("b = ${a}").resolveWith(ForwardingConfig.unwrap(source))
+            .getInt("b"), 1);
+        CachingConfig.of(ConfigFactory.parseString("b = 1"))
+            .checkValid(CachingConfig.of(ConfigFactory.parseString("b = 2")));
+        actual.checkValid(ForwardingConfig.unwrap(CachingConfig.of(ConfigFactory.parseString("b = 2"))));
+    }
+
+}
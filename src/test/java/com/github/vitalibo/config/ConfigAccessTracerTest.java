@@ -0,0 +1,117 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ConfigAccessTracerTest {
+
+    @Test
+    public void testSnapshot() {
+        ConfigAccessTracer tracer = new ConfigAccessTracer();
+        Config config = tracer.trace(ConfigFactory.parseResources("test.yaml").resolve());
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(config.getInt("ints.fortyTwo"), 42);
+        }
+        Assert.assertEquals(config.getConfig("ints").getInt("fortyTwoAgain"), 42);
+
+        Map<String, ConfigAccessTracer.Access> actual = tracer.snapshot();
+        Assert.assertEquals(new ArrayList<>(actual.keySet()),
+            Arrays.asList("ints.fortyTwo", "ints.fortyTwoAgain"));
+        Assert.assertEquals(actual.get("ints.fortyTwo").getReads(), 3);
+        Assert.assertNotNull(actual.get("ints.fortyTwo").getFirstAccess());
+    }
+
+    @Test
+    public void testUnusedPaths() {
+        ConfigAccessTracer tracer = new ConfigAccessTracer();
+        Config config = tracer.trace(ConfigFactory.parseResources("test.yaml").resolve());
+
+        config.getObject("ints");
+        config.getString("strings.abcd");
+
+        Set<String> actual = tracer.unusedPaths(config);
+        Assert.assertFalse(actual.isEmpty());
+        Assert.assertFalse(actual.contains("ints.fortyTwo"));
+        Assert.assertFalse(actual.contains("strings.abcd"));
+        Assert.assertTrue(actual.contains("strings.abcdAgain"));
+    }
+
+    @Test
+    public void testUnusedPathsOfConfig() {
+        ConfigAccessTracer tracer = new ConfigAccessTracer();
+        Config config = tracer.trace(ConfigFactory.parseString("db { url = x, password = y, pool = 4 }"));
+
+        Config db = config.getConfig("db");
+        db.getString("url");
+
+        Assert.assertEquals(tracer.unusedPaths(config), new HashSet<>(Arrays.asList("db.password", "db.pool")));
+    }
+
+    @Test
+    public void testAsFallback() {
+        ConfigAccessTracer tracer = new ConfigAccessTracer();
+        Config traced = tracer.trace(ConfigFactory.parseString("x = 0, y = 2"));
+
+        Config actual = ConfigFactory.parseString("x = 1").withFallback(traced);
+
+        Assert.assertEquals(actual.getInt("x"), 1);
+        Assert.assertEquals(actual.getInt("y"), 2);
+    }
+
+    @Test
+    public void testUnusedPathsQuoted() {
+        ConfigAccessTracer tracer = new ConfigAccessTracer();
+        Config config = tracer.trace(ConfigFactory.parseString("a { \"b.c\" = 1, d = 2, e = 3 }"));
+
+        config.getInt("a.\"b.c\"");
+        config.getInt("\"a\".\"d\"");
+
+        Assert.assertEquals(tracer.unusedPaths(config), Collections.singleton("a.e"));
+        Assert.assertEquals(tracer.snapshot().keySet(), new HashSet<>(Arrays.asList("a.\"b.c\"", "a.d")));
+    }
+
+    @Test
+    public void testSampling() {
+        ConfigAccessTracer tracer = new ConfigAccessTracer(10);
+        Config config = tracer.trace(ConfigFactory.parseResources("test.yaml").resolve());
+
+        for (int i = 0; i < 10_000; i++) {
+            config.getInt("ints.fortyTwo");
+        }
+
+        long actual = tracer.snapshot().get("ints.fortyTwo").getReads();
+        Assert.assertTrue(actual > 8_000 && actual < 12_000, String.valueOf(actual));
+    }
+
+    @Test
+    public void testExportEvery() throws InterruptedException {
+        ConfigAccessTracer tracer = new ConfigAccessTracer();
+        tracer.trace(ConfigFactory.parseResources("test.yaml")).getInt("ints.fortyTwo");
+        CountDownLatch latch = new CountDownLatch(2);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            tracer.exportEvery(executor, 10, TimeUnit.MILLISECONDS, snapshot -> {
+                if (snapshot.containsKey("ints.fortyTwo"))
+                    latch.countDown();
+            });
+
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -1,9 +1,24 @@
 package com.github.vitalibo.config;
 
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.impl.CanonicalValueTable;
+import com.typesafe.config.impl.StringInterner;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 public class ConfigFactoryTest {
 
     @Test
@@ -44,4 +59,111 @@ public class ConfigFactoryTest {
         Assert.assertEquals(actual.getInt("foo.bar"), 123);
     }
 
+    @Test
+    public void testParseResourcesYamlCanonicalValues() {
+        CanonicalValueTable table = new CanonicalValueTable();
+        YamlParseOptions options = YamlParseOptions.defaults().setCanonicalValues(table);
+
+        Config first = ConfigFactory.parseResources("test.yaml", ConfigParseOptions.defaults(), options);
+        Config second = ConfigFactory.parseResources("test.yaml", ConfigParseOptions.defaults(), options);
+
+        Assert.assertSame(first.root(), second.root());
+        Assert.assertTrue(table.hits() > 0);
+    }
+
+    @Test
+    public void testLoadWithReport() {
+        LoadResult actual = ConfigFactory.loadWithReport("test.yaml");
+
+        Assert.assertEquals(actual.getConfig().getInt("ints.fortyTwo"), 42);
+        ConfigLoadReport report = actual.getReport();
+        for (LoadStage stage : new LoadStage[]{LoadStage.RESOURCE_LOOKUP, LoadStage.FILE_READ,
+            LoadStage.YAML_PARSE, LoadStage.VALUE_CONVERSION, LoadStage.MERGE, LoadStage.RESOLVE}) {
+            Assert.assertTrue(report.getTime(stage).toNanos() > 0, stage.name());
+        }
+        Assert.assertEquals(report.getTime(LoadStage.PATH_MAP).toNanos(), 0);
+        Assert.assertTrue(report.getAllocatedBytes(LoadStage.YAML_PARSE) > 0);
+        Assert.assertTrue(report.getObjects() > 0);
+        Assert.assertTrue(report.getLists() > 0);
+        Assert.assertTrue(report.getScalars() > report.getObjects());
+        Assert.assertTrue(report.getReferences() > 0);
+        Assert.assertEquals(report.getCacheHits(), 0);
+    }
+
+    @Test
+    public void testLoadWithReportCacheHits() {
+        YamlParseOptions options = YamlParseOptions.defaults()
+            .setStringInterner(new StringInterner());
+        ConfigFactory.loadWithReport("test.yaml", ConfigParseOptions.defaults(),
+            ConfigResolveOptions.defaults(), options);
+
+        LoadResult actual = ConfigFactory.loadWithReport("test.yaml", ConfigParseOptions.defaults(),
+            ConfigResolveOptions.defaults(), options);
+
+        Assert.assertTrue(actual.getReport().getCacheHits() > 0);
+    }
+
+    @Test
+    public void testLoadAsync() throws Exception {
+        Config actual = ConfigFactory.loadAsync("test.yaml").get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(actual.getInt("ints.fortyTwo"), 42);
+        Assert.assertTrue(actual.hasPath("user.home"));
+    }
+
+    @Test
+    public void testLoadAsyncDefaultExecutorBounded() throws Exception {
+        Executor executor = AsyncExecutors.defaultExecutor();
+        if (!(executor instanceof ThreadPoolExecutor))
+            throw new SkipException("loads run on virtual threads");
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+
+        List<CompletableFuture<Config>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(ConfigFactory.loadAsync("test.yaml"));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        for (CompletableFuture<Config> future : futures) {
+            Assert.assertEquals(future.get().getInt("ints.fortyTwo"), 42);
+        }
+        Assert.assertEquals(pool.getMaximumPoolSize(), AsyncExecutors.POOL_SIZE);
+        Assert.assertTrue(pool.getLargestPoolSize() <= AsyncExecutors.POOL_SIZE);
+    }
+
+    @Test
+    public void testLoadAsyncCancel() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            LoadRecorder recorder = new LoadRecorder();
+            CompletableFuture<Config> future = ConfigFactory.loadAsync("test.yaml", ConfigParseOptions.defaults(),
+                ConfigResolveOptions.defaults(), YamlParseOptions.defaults().setLoadRecorder(recorder), executor);
+
+            Assert.assertTrue(future.cancel(true));
+            latch.countDown();
+            executor.submit(() -> null).get(10, TimeUnit.SECONDS);
+
+            Assert.assertTrue(future.isCancelled());
+            Assert.assertEquals(recorder.report().getTime(LoadStage.RESOURCE_LOOKUP).toNanos(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParseResourcesAsync() throws Exception {
+        Config actual = ConfigFactory.parseResourcesAsync("test.yaml", ConfigParseOptions.defaults(),
+            YamlParseOptions.defaults(), Runnable::run).get();
+
+        Assert.assertEquals(actual.getInt("ints.fortyTwo"), 42);
+        Assert.assertFalse(actual.hasPath("user.home"));
+    }
+
 }
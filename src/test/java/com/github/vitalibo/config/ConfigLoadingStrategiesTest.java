@@ -0,0 +1,145 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigLoadingStrategy;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.DefaultConfigLoadingStrategy;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConfigLoadingStrategiesTest {
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(ConfigLoadingStrategies.STRATEGY_PROPERTY_NAME);
+        ConfigLoadingStrategies.clear();
+    }
+
+    @Test
+    public void testGet() {
+        ClassLoader loader = getClass().getClassLoader();
+
+        ConfigLoadingStrategy actual = ConfigLoadingStrategies.get(loader);
+
+        Assert.assertTrue(actual instanceof DefaultConfigLoadingStrategy);
+        Assert.assertSame(ConfigLoadingStrategies.get(loader), actual);
+        ConfigLoadingStrategies.clear();
+        Assert.assertNotSame(ConfigLoadingStrategies.get(loader), actual);
+    }
+
+    @Test
+    public void testGetProperty() {
+        ClassLoader loader = getClass().getClassLoader();
+        System.setProperty(ConfigLoadingStrategies.STRATEGY_PROPERTY_NAME, YamlConfigLoadingStrategy.class.getName());
+
+        ConfigLoadingStrategy actual = ConfigLoadingStrategies.get(loader);
+
+        Assert.assertTrue(actual instanceof YamlConfigLoadingStrategy);
+        Assert.assertSame(ConfigLoadingStrategies.get(loader), actual);
+
+        System.setProperty(ConfigLoadingStrategies.STRATEGY_PROPERTY_NAME,
+            Fixed.class.getName() + ", " + YamlConfigLoadingStrategy.class.getName());
+        Config config = ConfigLoadingStrategies.get(loader).parseApplicationConfig(
+            ConfigParseOptions.defaults().setClassLoader(loader));
+        Assert.assertEquals(config.getString("strategy"), "fixed");
+
+        System.setProperty(ConfigLoadingStrategies.STRATEGY_PROPERTY_NAME, "com.example.Missing");
+        Assert.expectThrows(ConfigException.BugOrBroken.class, () -> ConfigLoadingStrategies.get(loader));
+    }
+
+    @Test
+    public void testGetServiceLoader() throws IOException {
+        Path directory = Files.createTempDirectory("strategies");
+        Path services = Files.createDirectories(directory.resolve("META-INF/services"));
+        Files.write(services.resolve(ConfigLoadingStrategy.class.getName()),
+            Fixed.class.getName().getBytes(StandardCharsets.UTF_8));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()},
+            getClass().getClassLoader())) {
+            ConfigLoadingStrategy actual = ConfigLoadingStrategies.get(loader);
+
+            Assert.assertTrue(actual instanceof Fixed);
+            Assert.assertSame(ConfigLoadingStrategies.get(loader), actual);
+            Assert.assertTrue(ConfigLoadingStrategies.get(getClass().getClassLoader())
+                instanceof DefaultConfigLoadingStrategy);
+        }
+    }
+
+    @Test
+    public void testYamlFirst() throws IOException {
+        Path directory = Files.createTempDirectory("application");
+        Files.write(directory.resolve("application.yaml"), "a: yaml\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("application.conf"), "a = hocon, b = hocon".getBytes(StandardCharsets.UTF_8));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            Config actual = ConfigLoadingStrategies.yamlFirst()
+                .parseApplicationConfig(ConfigParseOptions.defaults().setClassLoader(loader));
+
+            Assert.assertEquals(actual.getString("a"), "yaml");
+            Assert.assertFalse(actual.hasPath("b"));
+        }
+    }
+
+    @Test
+    public void testComposite() {
+        ConfigLoadingStrategy strategy = ConfigLoadingStrategies.composite(
+            options -> ConfigFactory.parseString("a = 1"),
+            options -> ConfigFactory.parseString("a = 2, b = 2"));
+
+        Config actual = strategy.parseApplicationConfig(ConfigParseOptions.defaults());
+
+        Assert.assertEquals(actual.getInt("a"), 1);
+        Assert.assertEquals(actual.getInt("b"), 2);
+    }
+
+    @Test
+    public void testSnapshotFirst() {
+        Config[] snapshot = new Config[1];
+        ConfigLoadingStrategy strategy = ConfigLoadingStrategies.snapshotFirst(
+            () -> snapshot[0], new Fixed());
+
+        Assert.assertEquals(strategy.parseApplicationConfig(ConfigParseOptions.defaults())
+            .getString("strategy"), "fixed");
+        snapshot[0] = ConfigFactory.parseString("strategy = snapshot");
+        Assert.assertEquals(strategy.parseApplicationConfig(ConfigParseOptions.defaults())
+            .getString("strategy"), "snapshot");
+    }
+
+    @Test
+    public void testCached() {
+        AtomicInteger loads = new AtomicInteger();
+        ConfigLoadingStrategies.Cached strategy = ConfigLoadingStrategies.cached(options -> {
+            loads.incrementAndGet();
+            return ConfigFactory.parseString("a = 1");
+        });
+        ConfigParseOptions options = ConfigParseOptions.defaults().setClassLoader(getClass().getClassLoader());
+
+        Config actual = strategy.parseApplicationConfig(options);
+
+        Assert.assertSame(strategy.parseApplicationConfig(options), actual);
+        Assert.assertEquals(loads.get(), 1);
+        strategy.clear();
+        strategy.parseApplicationConfig(options);
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+    public static class Fixed implements ConfigLoadingStrategy {
+
+        @Override
+        public Config parseApplicationConfig(ConfigParseOptions parseOptions) {
+            return ConfigFactory.parseString("strategy = fixed");
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConfigRegistryTest {
+
+    @Test
+    public void testRegister() {
+        ConfigRegistry registry = new ConfigRegistry();
+
+        ConfigRegistry.Snapshot actual = registry.register("test", "test.yaml");
+
+        Assert.assertEquals(actual.getVersion(), 1);
+        Assert.assertEquals(actual.getVersion("test"), 1);
+        Assert.assertEquals(actual.getNames(), new HashSet<>(Arrays.asList("test")));
+        Assert.assertEquals(registry.get("test").getInt("ints.fortyTwoAgain"), 42);
+        Assert.assertSame(registry.snapshot(), actual);
+    }
+
+    @Test
+    public void testReload() {
+        ConfigRegistry registry = new ConfigRegistry();
+        AtomicInteger loads = new AtomicInteger();
+        registry.register("a", () -> ConfigFactory.parseString("n = " + loads.incrementAndGet()));
+        registry.register("b", () -> ConfigFactory.parseString("n = 0"));
+        ConfigRegistry.Snapshot before = registry.snapshot();
+
+        ConfigRegistry.Snapshot actual = registry.reload("a");
+
+        Assert.assertEquals(actual.getVersion(), 3);
+        Assert.assertEquals(actual.get("a").getInt("n"), 2);
+        Assert.assertEquals(actual.getVersion("a"), 3);
+        Assert.assertEquals(actual.getVersion("b"), 2);
+        Assert.assertSame(actual.get("b"), before.get("b"));
+        Assert.assertEquals(before.get("a").getInt("n"), 1);
+    }
+
+    @Test
+    public void testRemove() {
+        ConfigRegistry registry = new ConfigRegistry();
+        registry.register("a", () -> ConfigFactory.empty());
+
+        ConfigRegistry.Snapshot actual = registry.remove("a");
+
+        Assert.assertEquals(actual.getVersion(), 2);
+        Assert.assertFalse(actual.contains("a"));
+        Assert.assertSame(registry.remove("a"), actual);
+        Assert.assertThrows(IllegalArgumentException.class, () -> registry.get("a"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> registry.reload("a"));
+    }
+
+    @Test
+    public void testReloadAllConsistent() throws Exception {
+        ConfigRegistry registry = new ConfigRegistry();
+        AtomicInteger generation = new AtomicInteger();
+        for (String name : Arrays.asList("a", "b", "c")) {
+            registry.register(name, () -> ConfigFactory.parseString("generation = " + generation.get()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<Long>> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            readers.add(executor.submit(() -> {
+                long reads = 0;
+                long version = 0;
+                while (!stop.get()) {
+                    ConfigRegistry.Snapshot snapshot = registry.snapshot();
+                    Assert.assertTrue(snapshot.getVersion() >= version);
+                    version = snapshot.getVersion();
+                    int expected = snapshot.get("a").getInt("generation");
+                    for (String name : Arrays.asList("b", "c")) {
+                        Config config = snapshot.get(name);
+                        Assert.assertEquals(config.getInt("generation"), expected);
+                    }
+                    reads++;
+                }
+                return reads;
+            }));
+        }
+
+        for (int i = 1; i <= 200; i++) {
+            generation.set(i);
+            registry.reloadAll();
+        }
+        stop.set(true);
+        for (Future<Long> reader : readers) {
+            Assert.assertTrue(reader.get() > 0);
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(registry.snapshot().getVersion(), 203);
+        Assert.assertEquals(registry.get("c").getInt("generation"), 200);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.impl.YamlParser;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConfigUnitsTest {
+
+    private static final Config parsed = YamlParser.parseResourcesYamlSyntax("test.yaml",
+        ConfigParseOptions.defaults(), YamlParseOptions.defaults().setUnitStrings(true)).toConfig().resolve();
+    private static final Config plain = YamlParser.parseResourcesYamlSyntax("test.yaml",
+        ConfigParseOptions.defaults()).toConfig().resolve();
+
+    @Test
+    public void testGetDuration() {
+        for (String key : parsed.getConfig("durations").root().keySet()) {
+            String path = "durations." + key;
+            if (key.endsWith("List"))
+                continue;
+
+            Assert.assertEquals(ConfigUnits.getDuration(parsed, path), plain.getDuration(path), path);
+            Assert.assertEquals(ConfigUnits.getDuration(plain, path), plain.getDuration(path), path);
+            Assert.assertEquals(ConfigUnits.getDuration(parsed, path, TimeUnit.MICROSECONDS),
+                plain.getDuration(path, TimeUnit.MICROSECONDS), path);
+        }
+    }
+
+    @Test
+    public void testGetMemorySize() {
+        for (String key : parsed.getConfig("memsizes").root().keySet()) {
+            String path = "memsizes." + key;
+            if (key.endsWith("List"))
+                continue;
+
+            Assert.assertEquals(ConfigUnits.getMemorySize(parsed, path), plain.getMemorySize(path), path);
+            if (!key.startsWith("yottabyte"))
+                Assert.assertEquals(ConfigUnits.getBytes(parsed, path), plain.getBytes(path), path);
+        }
+    }
+
+    @Test
+    public void testGetBytesTooLarge() {
+        Assert.assertThrows(ConfigException.BadValue.class, () ->
+            ConfigUnits.getBytes(parsed, "memsizes.yottabyte"));
+    }
+
+}
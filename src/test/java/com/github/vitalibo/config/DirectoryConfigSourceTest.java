@@ -0,0 +1,120 @@
+package com.github.vitalibo.config;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class DirectoryConfigSourceTest {
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("configmap");
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // lays out version of the mount the way kubelet does
+    private void publish(String version, String... files) throws IOException {
+        Path data = directory.resolve(".." + version);
+        for (int i = 0; i < files.length; i += 2) {
+            write(data.resolve(files[i]), files[i + 1]);
+        }
+
+        Path link = directory.resolve("..data_tmp");
+        Files.createSymbolicLink(link, Paths.get(data.getFileName().toString()));
+        Files.move(link, directory.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+        for (int i = 0; i < files.length; i += 2) {
+            Path top = directory.resolve(Paths.get(files[i]).getName(0));
+            if (!Files.exists(top, LinkOption.NOFOLLOW_LINKS))
+                Files.createSymbolicLink(top, Paths.get("..data").resolve(top.getFileName()));
+        }
+    }
+
+    @Test
+    public void testParseDirectory() throws IOException {
+        write(directory.resolve("db.host"), "localhost\n");
+        write(directory.resolve("db/port"), "5432");
+        write(directory.resolve("application.yaml"), "db:\n  host: ignored\n  user: admin\nlog: INFO\n");
+        write(directory.resolve("db/pool.yml"), "size: 8\n");
+        write(directory.resolve(".hidden"), "secret");
+
+        Config actual = ConfigFactory.parseDirectory(directory);
+
+        Assert.assertEquals(actual.getString("db.host"), "localhost");
+        Assert.assertEquals(actual.getInt("db.port"), 5432);
+        Assert.assertEquals(actual.getString("db.user"), "admin");
+        Assert.assertEquals(actual.getInt("db.size"), 8);
+        Assert.assertEquals(actual.getString("log"), "INFO");
+        Assert.assertFalse(actual.hasPath("hidden"));
+        Assert.assertTrue(actual.getValue("db.host").origin().description().contains("db.host"));
+    }
+
+    @Test
+    public void testParseDirectoryConflict() throws IOException {
+        write(directory.resolve("a"), "1");
+        write(directory.resolve("a.b"), "2");
+
+        ConfigException.BadPath e = Assert.expectThrows(ConfigException.BadPath.class, () ->
+            ConfigFactory.parseDirectory(directory));
+
+        Assert.assertTrue(e.getMessage().contains("file a.b is nested in the value of file a"), e.getMessage());
+
+        Files.delete(directory.resolve("a.b"));
+        write(directory.resolve("a.x/y"), "3");
+        e = Assert.expectThrows(ConfigException.BadPath.class, () -> ConfigFactory.parseDirectory(directory));
+        Assert.assertTrue(e.getMessage().contains("file a.x" + File.separator + "y is nested"), e.getMessage());
+    }
+
+    @Test
+    public void testRefreshDataLink() throws IOException {
+        publish("2024_01_01", "db.host", "first", "db.port", "1");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            DirectoryConfigSource source = new DirectoryConfigSource(directory, YamlParseOptions.defaults(), executor);
+
+            Config first = source.get();
+            Assert.assertEquals(first.getString("db.host"), "first");
+            Assert.assertEquals(first.root().size(), 1);
+            Assert.assertFalse(source.refresh());
+            Assert.assertSame(source.get(), first);
+
+            publish("2024_01_02", "db.host", "second", "db.port", "2");
+            Assert.assertTrue(source.refresh());
+            Assert.assertEquals(source.get().getString("db.host"), "second");
+            Assert.assertEquals(source.get().getInt("db.port"), 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRefreshPlainDirectory() throws IOException {
+        write(directory.resolve("key"), "first");
+        DirectoryConfigSource source = new DirectoryConfigSource(directory);
+        Assert.assertEquals(source.get().getString("key"), "first");
+
+        write(directory.resolve("key"), "second");
+
+        Assert.assertTrue(source.refresh());
+        Assert.assertEquals(source.get().getString("key"), "second");
+    }
+
+}
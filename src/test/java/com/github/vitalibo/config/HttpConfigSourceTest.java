@@ -0,0 +1,185 @@
+package com.github.vitalibo.config;
+
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HttpConfigSourceTest {
+
+    private HttpServer server;
+    private volatile String body;
+    private volatile int status;
+    private AtomicInteger requests;
+    private AtomicInteger notModified;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        body = "foo:\n  bar: 1\n";
+        status = 200;
+        requests = new AtomicInteger();
+        notModified = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+            } else if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    @Test
+    public void testConditionalGet() throws IOException {
+        HttpConfigSource source = new HttpConfigSource(url("/application.yaml"));
+
+        Config first = source.get();
+        Assert.assertEquals(first.getInt("foo.bar"), 1);
+        Assert.assertEquals(first.getValue("foo.bar").origin().lineNumber(), 2);
+
+        Assert.assertFalse(source.refresh());
+        Assert.assertSame(source.get(), first);
+        Assert.assertEquals(notModified.get(), 1);
+
+        body = "foo:\n  bar: 2\n";
+        Assert.assertTrue(source.refresh());
+        Assert.assertEquals(source.get().getInt("foo.bar"), 2);
+        Assert.assertEquals(requests.get(), 3);
+    }
+
+    @Test
+    public void testKeepsLastGoodSnapshot() throws IOException {
+        HttpConfigSource source = new HttpConfigSource(url("/application.yaml"));
+        Config first = source.get();
+
+        status = 500;
+        try {
+            source.refresh();
+            Assert.fail();
+        } catch (ConfigException.IO e) {
+            Assert.assertTrue(e.getMessage().contains("500"));
+        }
+
+        Assert.assertSame(source.get(), first);
+        Assert.assertNotNull(source.getLastError());
+    }
+
+    @Test(expectedExceptions = ConfigException.IO.class)
+    public void testGetFailed() throws IOException {
+        status = 404;
+
+        new HttpConfigSource(url("/application.yaml")).get();
+    }
+
+    @Test
+    public void testHocon() throws IOException {
+        body = "foo { bar = 3 }";
+
+        Config actual = new HttpConfigSource(url("/application.conf")).get();
+
+        Assert.assertEquals(actual.getInt("foo.bar"), 3);
+    }
+
+    @Test
+    public void testPoll() throws Exception {
+        HttpConfigSource source = new HttpConfigSource(url("/application.yaml"));
+        source.get();
+        BlockingQueue<Config> updates = new LinkedBlockingQueue<>();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try (HttpConfigSource.Polling ignored = source.poll(executor, Duration.ofMillis(20), 0.5, updates::add)) {
+            Thread.sleep(200);
+            Assert.assertTrue(updates.isEmpty());
+            Assert.assertTrue(notModified.get() > 0);
+
+            body = "foo:\n  bar: 4\n";
+            Config actual = updates.poll(10, TimeUnit.SECONDS);
+
+            Assert.assertNotNull(actual);
+            Assert.assertEquals(actual.getInt("foo.bar"), 4);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPollListenerError() throws Exception {
+        HttpConfigSource source = new HttpConfigSource(url("/application.yaml"));
+        source.get();
+        body = "foo:\n  bar: 4\n";
+        BlockingQueue<Config> updates = new LinkedBlockingQueue<>();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            HttpConfigSource.Polling polling = source.poll(executor, Duration.ofMillis(200), 0, config -> {
+                updates.add(config);
+                throw new IllegalStateException("listener failed");
+            });
+            Assert.assertNotNull(updates.poll(10, TimeUnit.SECONDS));
+            polling.close();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (source.getLastError() == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Assert.assertTrue(source.getLastError() instanceof IllegalStateException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParseUrlYaml() throws IOException {
+        Config actual = ConfigFactory.parseURL(url("/application.yaml"));
+
+        Assert.assertEquals(actual.getInt("foo.bar"), 1);
+    }
+
+    @Test
+    public void testParseUrlYamlWithSyntax() throws IOException {
+        body = "foo { bar = 5 }";
+
+        Config actual = ConfigFactory.parseURL(url("/application.yaml"),
+            ConfigParseOptions.defaults().setSyntax(ConfigSyntax.CONF));
+
+        Assert.assertEquals(actual.getInt("foo.bar"), 5);
+    }
+
+}
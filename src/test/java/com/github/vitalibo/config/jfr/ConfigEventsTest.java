@@ -0,0 +1,61 @@
+package com.github.vitalibo.config.jfr;
+
+import com.github.vitalibo.config.ConfigFactory;
+import com.github.vitalibo.config.LoadStage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class ConfigEventsTest {
+
+    @Test
+    public void testBeginDisabled() {
+        for (LoadStage stage : LoadStage.values()) {
+            Assert.assertSame(ConfigEvents.begin(stage), ConfigEvents.NOOP);
+        }
+    }
+
+    @Test
+    public void testLoadEvents() throws Exception {
+        Path file = Files.createTempFile("config", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ResourceLookupEvent.class);
+            recording.enable(FileReadEvent.class);
+            recording.enable(YamlParseEvent.class);
+            recording.enable(ValueConversionEvent.class);
+            recording.enable(ResolveEvent.class);
+            recording.enable(MergeEvent.class);
+            recording.start();
+            ConfigFactory.load("test.yaml");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(o -> o.getEventType().getName().startsWith("com.github.vitalibo.config."))
+            .collect(Collectors.toMap(o -> o.getEventType().getName(), Function.identity(), (a, b) -> a));
+        Files.delete(file);
+
+        Assert.assertEquals(events.keySet().size(), 6);
+        Assert.assertEquals(events.get("com.github.vitalibo.config.ResourceLookup").getString("resource"), "test.yaml");
+        RecordedEvent read = events.get("com.github.vitalibo.config.FileRead");
+        Assert.assertEquals(read.getLong("bytesRead"), Files.size(Paths.get("src/test/resources/test.yaml")));
+        RecordedEvent parse = events.get("com.github.vitalibo.config.YamlParse");
+        Assert.assertTrue(parse.getLong("nodeCount") > 0);
+        Assert.assertFalse(parse.getDuration().isNegative());
+        Assert.assertEquals(events.get("com.github.vitalibo.config.ValueConversion").getLong("nodeCount"),
+            parse.getLong("nodeCount"));
+        Assert.assertTrue(events.containsKey("com.github.vitalibo.config.Merge"));
+        Assert.assertTrue(events.containsKey("com.github.vitalibo.config.Resolve"));
+    }
+
+}
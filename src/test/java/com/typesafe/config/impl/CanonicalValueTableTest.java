@@ -0,0 +1,90 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.Arrays;
+
+public class CanonicalValueTableTest {
+
+    private static final ConfigOrigin origin = SimpleConfigOrigin.newSimple("default");
+
+    @Test
+    public void testCanonicalizeSharedSubtrees() {
+        CanonicalValueTable table = new CanonicalValueTable();
+        YamlParseOptions options = YamlParseOptions.defaults().setCanonicalValues(table);
+
+        ConfigObject first = YamlParser.fromPathMap(new Yaml().load(
+            "name: first\nretry: {attempts: 3, backoff: [1, 2, 4]}\ntls: {enabled: true}"), "first", options);
+        ConfigObject second = YamlParser.fromPathMap(new Yaml().load(
+            "name: second\nretry: {backoff: [1, 2, 4], attempts: 3}\ntls: {enabled: true}"), "second", options);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.get("retry"), second.get("retry"));
+        Assert.assertSame(first.get("tls"), second.get("tls"));
+        Assert.assertTrue(table.hits() > 0);
+        Assert.assertEquals(table.size(), table.misses());
+    }
+
+    @Test
+    public void testCanonicalizeKeepsTypes() {
+        CanonicalValueTable table = new CanonicalValueTable();
+
+        AbstractConfigValue integer = table.canonicalize(new ConfigInt(origin, 1, null));
+        AbstractConfigValue floating = table.canonicalize(new ConfigDouble(origin, 1.0, null));
+        AbstractConfigValue quoted = table.canonicalize(new ConfigString.Quoted(origin, "a"));
+        AbstractConfigValue unquoted = table.canonicalize(new ConfigString.Unquoted(origin, "a"));
+
+        Assert.assertTrue(integer instanceof ConfigInt);
+        Assert.assertTrue(floating instanceof ConfigDouble);
+        Assert.assertTrue(quoted instanceof ConfigString.Quoted);
+        Assert.assertTrue(unquoted instanceof ConfigString.Unquoted);
+        Assert.assertEquals(table.size(), 4);
+    }
+
+    @Test
+    public void testCanonicalizeNestedByIdentity() {
+        CanonicalValueTable table = new CanonicalValueTable();
+        SimpleConfigList inner = table.canonicalize(new SimpleConfigList(origin, Arrays.asList(
+            new ConfigInt(origin, 1, null), new ConfigInt(origin, 2, null))));
+        SimpleConfigList other = new SimpleConfigList(origin, Arrays.asList(
+            new ConfigInt(origin, 1, null), new ConfigInt(origin, 2, null)));
+
+        SimpleConfigList outer = table.canonicalize(
+            new SimpleConfigList(origin, Arrays.asList(inner)));
+        SimpleConfigList notCanonicalChild = table.canonicalize(
+            new SimpleConfigList(origin, Arrays.asList(other)));
+
+        Assert.assertSame(table.canonicalize(other), inner);
+        Assert.assertFalse(notCanonicalChild == outer);
+        Assert.assertSame(table.canonicalize(new SimpleConfigList(origin, Arrays.asList(inner))), outer);
+    }
+
+    @Test
+    public void testCanonicalizeSkipsUnresolved() {
+        CanonicalValueTable table = new CanonicalValueTable();
+        ConfigReference reference = new ConfigReference(origin,
+            new SubstitutionExpression(new Path("foo"), false));
+
+        Assert.assertSame(table.canonicalize(reference), reference);
+        Assert.assertEquals(table.size(), 0);
+    }
+
+    @Test
+    public void testClear() {
+        CanonicalValueTable table = new CanonicalValueTable();
+        table.canonicalize(new ConfigInt(origin, 1, null));
+        table.canonicalize(new ConfigInt(origin, 1, null));
+
+        table.clear();
+
+        Assert.assertEquals(table.size(), 0);
+        Assert.assertEquals(table.hits(), 0);
+        Assert.assertEquals(table.misses(), 0);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import org.openjdk.jol.info.GraphLayout;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CompactValueMapTest {
+
+    private static final ConfigOrigin origin = SimpleConfigOrigin.newSimple("default");
+
+    @Test
+    public void testOf() {
+        Map<String, AbstractConfigValue> map = new LinkedHashMap<>();
+        map.put("b", new ConfigInt(origin, 1, null));
+        map.put("a", new ConfigInt(origin, 2, null));
+
+        Map<String, AbstractConfigValue> actual = CompactValueMap.of(map);
+
+        Assert.assertTrue(actual instanceof CompactValueMap);
+        Assert.assertEquals(actual, map);
+        Assert.assertEquals(actual.hashCode(), map.hashCode());
+        Assert.assertEquals(new ArrayList<>(actual.keySet()), Arrays.asList("b", "a"));
+        Assert.assertEquals(actual.get("a"), new ConfigInt(origin, 2, null));
+        Assert.assertNull(actual.get("c"));
+        Assert.assertTrue(actual.containsKey("b"));
+        Assert.assertFalse(actual.containsKey("c"));
+    }
+
+    @Test
+    public void testOfAboveThreshold() {
+        Map<String, AbstractConfigValue> map = new HashMap<>();
+        for (int i = 0; i <= CompactValueMap.THRESHOLD; i++) {
+            map.put("key" + i, new ConfigInt(origin, i, null));
+        }
+
+        Assert.assertSame(CompactValueMap.of(map), map);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testImmutable() {
+        CompactValueMap.of(new HashMap<>()).put("a", new ConfigInt(origin, 1, null));
+    }
+
+    @Test
+    public void testKeyOrder() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("z", 1);
+        map.put("a.y", 2);
+        map.put("m", 3);
+        map.put("a.b", 4);
+
+        ConfigObject actual = YamlParser.fromPathMap(map, "default");
+
+        Assert.assertEquals(new ArrayList<>(actual.keySet()), Arrays.asList("z", "a", "m"));
+        Assert.assertEquals(new ArrayList<>(((ConfigObject) actual.get("a")).keySet()), Arrays.asList("y", "b"));
+    }
+
+    @Test
+    public void testRetainedSize() {
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            yaml.append("service").append(i).append(":\n")
+                .append("  host: host").append(i).append(".example.com\n")
+                .append("  port: ").append(8000 + i).append('\n')
+                .append("  retry:\n")
+                .append("    attempts: 3\n")
+                .append("    backoff: 100ms\n")
+                .append("  tls:\n")
+                .append("    enabled: true\n")
+                .append("    protocol: TLSv1.3\n")
+                .append("  timeouts:\n")
+                .append("    connect: 1s\n")
+                .append("    read: 5s\n")
+                .append("    write: 5s\n");
+        }
+        Map<String, Object> source = new Yaml().load(yaml.toString());
+
+        AbstractConfigObject compact = (AbstractConfigObject) YamlParser.fromPathMap(source, "default");
+        AbstractConfigObject hashed = hashed(compact);
+
+        Assert.assertEquals(compact, hashed);
+        long compactSize = GraphLayout.parseInstance(compact).totalSize();
+        long hashedSize = GraphLayout.parseInstance(hashed).totalSize();
+        Assert.assertTrue(compactSize * 10 < hashedSize * 9,
+            "compact: " + compactSize + " bytes, hashed: " + hashedSize + " bytes");
+    }
+
+    private static AbstractConfigObject hashed(AbstractConfigObject object) {
+        Map<String, AbstractConfigValue> map = new HashMap<>();
+        for (Map.Entry<String, ?> entry : object.entrySet()) {
+            AbstractConfigValue value = (AbstractConfigValue) entry.getValue();
+            map.put(entry.getKey(), value instanceof AbstractConfigObject
+                ? hashed((AbstractConfigObject) value) : value);
+        }
+
+        return new SimpleConfigObject(object.origin(), map);
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+import org.openjdk.jol.info.GraphLayout;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.List;
+
+public class ConfigFootprintTest {
+
+    private static String yaml(int services) {
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < services; i++) {
+            yaml.append("service").append(i).append(":\n")
+                .append("  host: host").append(i).append(".example.com\n")
+                .append("  port: ").append(8000 + i).append('\n')
+                .append("  retry:\n")
+                .append("    attempts: 3\n")
+                .append("    backoff: 100ms\n")
+                .append("  allowlist: [10, 20, 30]\n")
+                .append("  tags: [a").append(i).append(", b, c]\n");
+        }
+        yaml.append("big:\n");
+        for (int i = 0; i < 100; i++) {
+            yaml.append("  key").append(i).append(": value").append(i).append('\n');
+        }
+
+        return yaml.toString();
+    }
+
+    private static ConfigObject parse(String yaml) {
+        return (ConfigObject) YamlParser.fromAnyRef(new Yaml().load(yaml),
+            SimpleConfigOrigin.newSimple("test"), FromMapMode.KEYS_ARE_PATHS);
+    }
+
+    @Test
+    public void testOf() {
+        ConfigFootprint actual = ConfigFootprint.of(parse(yaml(3)));
+
+        Assert.assertEquals(actual.getObjects(), 1 + 3 * 2 + 1);
+        Assert.assertEquals(actual.getLists(), 3 * 2);
+        Assert.assertEquals(actual.getScalars(), 3 * 4 + 3 * 3 + 100);
+        Assert.assertEquals(actual.getMaps(), actual.getObjects());
+        Assert.assertTrue(actual.getStrings() > 100);
+        Assert.assertTrue(actual.getOrigins() >= 1);
+        Assert.assertTrue(actual.getShared() > 0);
+        List<ConfigFootprint.Subtree> largest = actual.getLargest(2);
+        Assert.assertEquals(largest.size(), 2);
+        Assert.assertEquals(largest.get(0).getPath(), "big");
+        Assert.assertTrue(largest.get(0).getRetainedBytes() > largest.get(1).getRetainedBytes());
+        Assert.assertTrue(largest.get(0).getRetainedBytes() < actual.getRetainedBytes());
+    }
+
+    @Test
+    public void testDuplicates() {
+        ConfigFootprint actual = ConfigFootprint.of(parse(yaml(3)));
+
+        Assert.assertEquals(actual.getDuplicates().size(), 4);
+        ConfigFootprint.Duplicate duplicate = actual.getDuplicates().get(0);
+        Assert.assertTrue(duplicate.getRetainedBytes() > 0);
+        Assert.assertTrue(duplicate.getDuplicateOf().startsWith("service0."));
+    }
+
+    @Test
+    public void testOfCanonicalValues() {
+        CanonicalValueTable table = new CanonicalValueTable();
+        ConfigObject object = (ConfigObject) YamlParser.fromAnyRef(new Yaml().load(yaml(3)),
+            SimpleConfigOrigin.newSimple("test"), FromMapMode.KEYS_ARE_PATHS,
+            YamlParseOptions.defaults().setCanonicalValues(table));
+
+        ConfigFootprint actual = ConfigFootprint.of(object);
+
+        Assert.assertTrue(actual.getDuplicates().isEmpty());
+        Assert.assertTrue(actual.getRetainedBytes() < ConfigFootprint.of(parse(yaml(3))).getRetainedBytes());
+    }
+
+    @Test
+    public void testRetainedBytesAgainstJol() {
+        ConfigObject object = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults());
+        ConfigObject large = parse(yaml(500));
+
+        for (ConfigObject o : new ConfigObject[]{object, large}) {
+            long estimated = ConfigFootprint.of(o).getRetainedBytes();
+            long exact = GraphLayout.parseInstance(o).totalSize();
+
+            Assert.assertTrue(Math.abs(estimated - exact) < exact / 5, estimated + " vs " + exact);
+        }
+    }
+
+}
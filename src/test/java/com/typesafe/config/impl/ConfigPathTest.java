@@ -0,0 +1,85 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+public class ConfigPathTest {
+
+    private static final Config CONFIG = ConfigFactory.parseString(
+        "a { b { int = 42, long = 3000000000, double = 1.5, flag = true, name = foo, timeout = 2s, none = null } }");
+
+    @Test
+    public void testGetters() {
+        Assert.assertEquals(ConfigPath.of("a.b.int").getInt(CONFIG), 42);
+        Assert.assertEquals(ConfigPath.of("a.b.long").getLong(CONFIG), 3000000000L);
+        Assert.assertEquals(ConfigPath.of("a.b.double").getDouble(CONFIG), 1.5);
+        Assert.assertTrue(ConfigPath.of("a.b.flag").getBoolean(CONFIG));
+        Assert.assertEquals(ConfigPath.of("a.b.name").getString(CONFIG), "foo");
+        Assert.assertEquals(ConfigPath.of("a.b.int").getString(CONFIG), "42");
+        Assert.assertEquals(ConfigPath.of("a.b.timeout").getDuration(CONFIG), Duration.ofSeconds(2));
+        Assert.assertEquals(ConfigPath.of("a.b").getConfig(CONFIG), CONFIG.getConfig("a.b"));
+        Assert.assertEquals(ConfigPath.of("a").getObject(CONFIG), CONFIG.getObject("a"));
+        Assert.assertEquals(ConfigPath.of("a.b.name").getValue(CONFIG), CONFIG.getValue("a.b.name"));
+    }
+
+    @Test
+    public void testHasPath() {
+        Assert.assertTrue(ConfigPath.of("a.b.int").hasPath(CONFIG));
+        Assert.assertFalse(ConfigPath.of("a.b.none").hasPath(CONFIG));
+        Assert.assertFalse(ConfigPath.of("a.b.missing").hasPath(CONFIG));
+        Assert.assertFalse(ConfigPath.of("a.b.int.c").hasPath(CONFIG));
+    }
+
+    @Test
+    public void testExceptions() {
+        ConfigException.WrongType wrongType = Assert.expectThrows(ConfigException.WrongType.class,
+            () -> ConfigPath.of("a.b.name").getInt(CONFIG));
+        Assert.assertTrue(wrongType.getMessage().contains("a.b.name"));
+        ConfigException.Missing missing = Assert.expectThrows(ConfigException.Missing.class,
+            () -> ConfigPath.of("a.c.d").getString(CONFIG));
+        Assert.assertTrue(missing.getMessage().contains("a.c"));
+        Assert.expectThrows(ConfigException.Null.class, () -> ConfigPath.of("a.b.none").getString(CONFIG));
+        Assert.expectThrows(ConfigException.WrongType.class, () -> ConfigPath.of("a.b.long").getInt(CONFIG));
+        Assert.expectThrows(ConfigException.BadPath.class, () -> ConfigPath.of("a..b"));
+    }
+
+    @Test
+    public void testOtherConfigs() {
+        Config overlay = OverlayConfig.of(CONFIG).withValue("a.b.int", ConfigValueFactory.fromAnyRef(7));
+
+        Assert.assertEquals(ConfigPath.of("a.b.int").getInt(overlay), 7);
+        Assert.assertEquals(ConfigPath.of("a.b.name").getString(overlay), "foo");
+    }
+
+    @Test
+    public void testUnitStrings() {
+        Config config = ConfigUnitString.of(SimpleConfigOrigin.newSimple("test"), Duration.ofNanos(1500001))
+            .atKey("timeout");
+
+        Assert.assertEquals(ConfigPath.of("timeout").getDuration(config), Duration.ofNanos(1500001));
+    }
+
+    @Test
+    public void testPathCache() {
+        PathCache cache = new PathCache(1);
+
+        ConfigPath path = cache.get("a.b");
+        Assert.assertSame(cache.get("a.b"), path);
+        Assert.assertEquals(cache.get("c.d"), ConfigPath.of("c.d"));
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertEquals(cache.lookups(), 3);
+        Assert.assertEquals(cache.hits(), 1);
+        Assert.assertEquals(cache.rejected(), 1);
+
+        cache.clear();
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertEquals(path.getExpression(), "a.b");
+    }
+
+}
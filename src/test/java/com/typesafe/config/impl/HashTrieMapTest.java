@@ -0,0 +1,67 @@
+package com.typesafe.config.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HashTrieMapTest {
+
+    @Test
+    public void testPlus() {
+        HashTrieMap<String, Integer> map = HashTrieMap.empty();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            map = map.plus("key" + i, i);
+            expected.put("key" + i, i);
+        }
+
+        Assert.assertEquals(map.size(), 10_000);
+        Map<String, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(map.get("key4242"), Integer.valueOf(4242));
+        Assert.assertNull(map.get("key10000"));
+    }
+
+    @Test
+    public void testPersistent() {
+        HashTrieMap<String, Integer> before = HashTrieMap.<String, Integer>empty().plus("a", 1).plus("b", 2);
+
+        HashTrieMap<String, Integer> after = before.plus("a", 3).plus("c", 4);
+
+        Assert.assertEquals(before.size(), 2);
+        Assert.assertEquals(before.get("a"), Integer.valueOf(1));
+        Assert.assertNull(before.get("c"));
+        Assert.assertEquals(after.size(), 3);
+        Assert.assertEquals(after.get("a"), Integer.valueOf(3));
+        Assert.assertEquals(after.get("c"), Integer.valueOf(4));
+    }
+
+    @Test
+    public void testPlusSameValue() {
+        Integer value = 1;
+        HashTrieMap<String, Integer> map = HashTrieMap.<String, Integer>empty().plus("a", value);
+
+        Assert.assertSame(map.plus("a", value), map);
+    }
+
+    @Test
+    public void testCollisions() {
+        // "Aa" and "BB" have equal hash codes
+        HashTrieMap<String, Integer> map = HashTrieMap.<String, Integer>empty()
+            .plus("Aa", 1).plus("BB", 2).plus("AaAa", 3).plus("BBBB", 4).plus("AaBB", 5);
+
+        map = map.plus("BB", 6);
+
+        Assert.assertEquals(map.size(), 5);
+        Assert.assertEquals(map.get("Aa"), Integer.valueOf(1));
+        Assert.assertEquals(map.get("BB"), Integer.valueOf(6));
+        Assert.assertEquals(map.get("AaAa"), Integer.valueOf(3));
+        Assert.assertEquals(map.get("BBBB"), Integer.valueOf(4));
+        Assert.assertEquals(map.get("AaBB"), Integer.valueOf(5));
+        Assert.assertNull(map.get("BBAa"));
+    }
+
+}
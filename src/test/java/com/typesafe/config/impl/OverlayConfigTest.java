@@ -0,0 +1,112 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class OverlayConfigTest {
+
+    private static final Config base = ConfigFactory.parseString(
+        "a { b { c = 1, d = 2 }, e = [1, 2] }, f = foo, g { h = 10s }");
+
+    @Test
+    public void testWithValue() {
+        Config expected = base
+            .withValue("a.b.c", ConfigValueFactory.fromAnyRef(3))
+            .withValue("f.x", ConfigValueFactory.fromAnyRef("bar"))
+            .withValue("a.b", ConfigValueFactory.fromMap(Collections.singletonMap("y", 4)))
+            .withValue("a.b.z", ConfigValueFactory.fromAnyRef(5))
+            .withValue("new.key", ConfigValueFactory.fromAnyRef(true));
+
+        OverlayConfig actual = OverlayConfig.of(base)
+            .withValue("a.b.c", ConfigValueFactory.fromAnyRef(3))
+            .withValue("f.x", ConfigValueFactory.fromAnyRef("bar"))
+            .withValue("a.b", ConfigValueFactory.fromMap(Collections.singletonMap("y", 4)))
+            .withValue("a.b.z", ConfigValueFactory.fromAnyRef(5))
+            .withValue("new.key", ConfigValueFactory.fromAnyRef(true));
+
+        Assert.assertEquals(actual.root(), expected.root());
+        Assert.assertEquals(actual.getInt("a.b.y"), 4);
+        Assert.assertEquals(actual.getInt("a.b.z"), 5);
+        Assert.assertFalse(actual.hasPath("a.b.c"));
+        Assert.assertEquals(actual.getString("f.x"), "bar");
+        Assert.assertTrue(actual.getBoolean("new.key"));
+        Assert.assertEquals(actual.getIntList("a.e"), Arrays.asList(1, 2));
+        Assert.assertEquals(actual.getDuration("g.h").getSeconds(), 10);
+        Assert.assertEquals(actual.getConfig("a").root(), expected.getConfig("a").root());
+        Assert.assertEquals(actual.getObject("a.b"), expected.getObject("a.b"));
+        Assert.assertThrows(ConfigException.Missing.class, () -> actual.getInt("a.b.c"));
+        Assert.assertEquals(actual.toConfig(), expected);
+        Assert.assertEquals(expected, actual.toConfig());
+        Assert.assertNotEquals(actual, expected);
+        Assert.assertNotEquals(expected, actual);
+    }
+
+    @Test
+    public void testWithValueKeepsBase() {
+        OverlayConfig overlay = OverlayConfig.of(base);
+
+        OverlayConfig first = overlay.withValue("a.b.c", ConfigValueFactory.fromAnyRef(3));
+        OverlayConfig second = overlay.withValue("a.b.c", ConfigValueFactory.fromAnyRef(4));
+
+        Assert.assertEquals(overlay.getInt("a.b.c"), 1);
+        Assert.assertEquals(first.getInt("a.b.c"), 3);
+        Assert.assertEquals(second.getInt("a.b.c"), 4);
+        Assert.assertEquals(second.getInt("a.b.d"), 2);
+        Assert.assertSame(second.getValue("g.h"), base.getValue("g.h"));
+    }
+
+    @Test
+    public void testGetConfig() {
+        OverlayConfig overlay = OverlayConfig.of(base).withValue("a.b.c", ConfigValueFactory.fromAnyRef(3));
+
+        Config actual = overlay.getConfig("a");
+
+        Assert.assertTrue(actual instanceof OverlayConfig);
+        Assert.assertEquals(actual.getInt("b.c"), 3);
+        Assert.assertEquals(actual.getInt("b.d"), 2);
+        Assert.assertSame(overlay.getConfig("g"), base.getConfig("g"));
+    }
+
+    @Test
+    public void testWithOverrides() {
+        Config overrides = ConfigFactory.parseString("a { b { c = 3, x {} }, e = [3] }, f { y = 1 }, g {}");
+        Config expected = overrides.withFallback(base);
+
+        OverlayConfig actual = OverlayConfig.of(base).withOverrides(overrides);
+
+        Assert.assertEquals(actual.root(), expected.root());
+        Assert.assertEquals(actual.getInt("a.b.c"), 3);
+        Assert.assertEquals(actual.getInt("a.b.d"), 2);
+        Assert.assertEquals(actual.getDuration("g.h").getSeconds(), 10);
+    }
+
+    @Test
+    public void testWithOverridesUnresolved() {
+        Config overrides = ConfigFactory.parseString("f = ${f}-bar");
+
+        Config actual = OverlayConfig.of(base).withOverrides(overrides).resolve();
+
+        Assert.assertEquals(actual.getString("f"), "foo-bar");
+    }
+
+    @Test
+    public void testWithFallback() {
+        Config fallback = ConfigFactory.parseString("a.b.x = 1, z = 2");
+        OverlayConfig overlay = OverlayConfig.of(base).withValue("a.b.c", ConfigValueFactory.fromAnyRef(3));
+
+        Config actual = ConfigFactory.parseString("y = 1").withFallback(overlay.withFallback(fallback));
+
+        Assert.assertEquals(actual.getInt("a.b.c"), 3);
+        Assert.assertEquals(actual.getInt("a.b.x"), 1);
+        Assert.assertEquals(actual.getInt("z"), 2);
+        Assert.assertEquals(actual.getInt("y"), 1);
+    }
+
+}
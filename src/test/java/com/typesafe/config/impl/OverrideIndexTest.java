@@ -0,0 +1,111 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+public class OverrideIndexTest {
+
+    @Test
+    public void testApply() {
+        Map<String, String> env = new HashMap<>();
+        env.put("CONFIG_FORCE_a_b__c", "env");
+        env.put("CONFIG_FORCE_x", "env");
+        env.put("HOME", "/root");
+        Properties properties = new Properties();
+        properties.setProperty("a.d", "property");
+        properties.setProperty("x", "property");
+        properties.setProperty("n.m", "property");
+        properties.setProperty("java.version.date", "ignored");
+        OverrideIndex index = OverrideIndex.global().refresh(env, properties);
+        Config config = ConfigFactory.parseString("a { b-c = 0, e = 1 }, x = { y = 5 }, n = 1, r = ${a.e}");
+
+        for (boolean withEnv : new boolean[]{true, false}) {
+            Config actual = index.apply(config, withEnv);
+
+            Assert.assertTrue(actual instanceof OverlayConfig);
+            Assert.assertEquals(actual.resolve().root(),
+                index.toConfig(withEnv).withFallback(config).resolve().root());
+        }
+        Assert.assertEquals(index.size(), 5);
+        Assert.assertEquals(index.apply(config, true).resolve().getString("a.b-c"), "env");
+        Assert.assertEquals(index.apply(config, true).resolve().getString("x"), "env");
+        Assert.assertEquals(index.apply(config, false).resolve().getString("x"), "property");
+        Assert.assertEquals(index.apply(config, false).resolve().getInt("a.b-c"), 0);
+    }
+
+    @Test
+    public void testApplyObjectsWin() {
+        Properties properties = new Properties();
+        properties.setProperty("a", "1");
+        properties.setProperty("a.b", "2");
+        OverrideIndex index = OverrideIndex.global().refresh(new HashMap<>(), properties);
+        Config config = ConfigFactory.parseString("a = 0");
+
+        Config actual = index.apply(config, false);
+
+        Assert.assertEquals(actual.getString("a.b"), "2");
+        Assert.assertEquals(actual.root(), index.toConfig(false).withFallback(config).root());
+    }
+
+    @Test
+    public void testApplyUnresolvedPath() {
+        Properties properties = new Properties();
+        properties.setProperty("a.c", "2");
+        OverrideIndex index = OverrideIndex.global().refresh(new HashMap<>(), properties);
+        Config config = ConfigFactory.parseString("base { b = 1 }, a = ${base}");
+
+        Config actual = index.apply(config, false);
+
+        Assert.assertFalse(actual instanceof OverlayConfig);
+        Assert.assertEquals(actual.resolve().getConfig("a").root().unwrapped(),
+            ConfigFactory.parseString("b = 1, c = \"2\"").root().unwrapped());
+    }
+
+    @Test
+    public void testRefresh() {
+        Map<String, String> env = new HashMap<>();
+        env.put("CONFIG_FORCE_a", "1");
+        Properties properties = new Properties();
+        properties.setProperty("b", "2");
+        OverrideIndex index = OverrideIndex.global().refresh(env, properties);
+
+        Assert.assertSame(index.refresh(new HashMap<>(env), (Properties) properties.clone()), index);
+
+        env.put("CONFIG_FORCE_a", "3");
+        OverrideIndex changed = index.refresh(env, properties);
+        Assert.assertNotSame(changed, index);
+        Assert.assertEquals(changed.toConfig(true).getString("a"), "3");
+        Assert.assertEquals(index.toConfig(true).getString("a"), "1");
+
+        properties.remove("b");
+        OverrideIndex removed = changed.refresh(env, properties);
+        Assert.assertEquals(removed.size(), 1);
+        Assert.assertFalse(removed.toConfig(true).hasPath("b"));
+    }
+
+    @Test
+    public void testLoad() {
+        System.setProperty("ints.fortyTwo", "43");
+        try {
+            com.github.vitalibo.config.ConfigFactory.invalidateCaches();
+
+            Config actual = com.github.vitalibo.config.ConfigFactory.load("test.yaml");
+
+            Assert.assertTrue(actual instanceof SimpleConfig);
+            Assert.assertEquals(actual.getInt("ints.fortyTwo"), 43);
+            Assert.assertEquals(actual, com.github.vitalibo.config.ConfigFactory.load("test.yaml"));
+        } finally {
+            System.clearProperty("ints.fortyTwo");
+            com.github.vitalibo.config.ConfigFactory.invalidateCaches();
+        }
+
+        Assert.assertEquals(com.github.vitalibo.config.ConfigFactory.load("test.yaml").getInt("ints.fortyTwo"), 42);
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.typesafe.config.impl;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigParseOptions;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PrimitiveValueListTest {
+
+    private static final ConfigOrigin origin = SimpleConfigOrigin.newSimple("default");
+
+    @Test
+    public void testOfInts() {
+        PrimitiveValueList actual = PrimitiveValueList.of(origin, Arrays.asList(1, 2, 3));
+
+        Assert.assertTrue(actual instanceof PrimitiveValueList.Ints);
+        Assert.assertEquals(actual, Arrays.asList(
+            new ConfigInt(origin, 1, null), new ConfigInt(origin, 2, null), new ConfigInt(origin, 3, null)));
+        Assert.assertSame(actual.get(0).origin(), origin);
+    }
+
+    @Test
+    public void testOfLongs() {
+        PrimitiveValueList actual = PrimitiveValueList.of(origin, Arrays.asList(1L, 2L));
+
+        Assert.assertTrue(actual instanceof PrimitiveValueList.Longs);
+        Assert.assertEquals(actual.get(1), new ConfigLong(origin, 2L, null));
+    }
+
+    @Test
+    public void testOfDoubles() {
+        PrimitiveValueList actual = PrimitiveValueList.of(origin, Arrays.asList(3.14, 4.14));
+
+        Assert.assertTrue(actual instanceof PrimitiveValueList.Doubles);
+        Assert.assertEquals(actual.get(0), new ConfigDouble(origin, 3.14, null));
+    }
+
+    @Test
+    public void testOfBooleans() {
+        PrimitiveValueList actual = PrimitiveValueList.of(origin, Arrays.asList(true, false, false));
+
+        Assert.assertTrue(actual instanceof PrimitiveValueList.Booleans);
+        Assert.assertEquals(actual.size(), 3);
+        Assert.assertEquals(actual.get(0), new ConfigBoolean(origin, true));
+        Assert.assertEquals(actual.get(2), new ConfigBoolean(origin, false));
+    }
+
+    @Test
+    public void testOfNotHomogeneous() {
+        Assert.assertNull(PrimitiveValueList.of(origin, Arrays.asList(1, 2L)));
+        Assert.assertNull(PrimitiveValueList.of(origin, Arrays.asList(1, null)));
+        Assert.assertNull(PrimitiveValueList.of(origin, Arrays.asList("a", "b")));
+        Assert.assertNull(PrimitiveValueList.of(origin, Collections.emptyList()));
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testBooleansOutOfBounds() {
+        PrimitiveValueList.of(origin, Arrays.asList(true, false)).get(2);
+    }
+
+    @Test
+    public void testBulkAccessors() {
+        Config actual = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults())
+            .toConfig()
+            .resolve();
+
+        Assert.assertEquals(PrimitiveValueList.toIntArray(actual.getList("arrays.ofInt")), new int[]{1, 2, 3});
+        Assert.assertEquals(PrimitiveValueList.toLongArray(actual.getList("arrays.ofInt")), new long[]{1, 2, 3});
+        Assert.assertEquals(PrimitiveValueList.toDoubleArray(actual.getList("arrays.ofDouble")),
+            new double[]{3.14, 4.14, 5.14});
+        Assert.assertEquals(PrimitiveValueList.toBooleanArray(actual.getList("arrays.ofBoolean")),
+            new boolean[]{true, false});
+    }
+
+    @Test
+    public void testBulkAccessorsCompact() {
+        ConfigList list = new SimpleConfigList(origin, PrimitiveValueList.of(origin, Arrays.asList(1, 2)));
+
+        Assert.assertNotNull(PrimitiveValueList.listValue);
+        Assert.assertEquals(PrimitiveValueList.toIntArray(list), new int[]{1, 2});
+        Assert.assertEquals(PrimitiveValueList.toDoubleArray(list), new double[]{1, 2});
+        Assert.assertTrue(list.contains(new ConfigInt(origin, 2, null)));
+        Assert.assertFalse(list.contains(new ConfigInt(origin, 3, null)));
+    }
+
+    @Test
+    public void testBulkAccessorsNotCompact() {
+        ConfigList list = new SimpleConfigList(origin, Arrays.asList(
+            new ConfigInt(origin, 1, null), new ConfigLong(origin, 2L, null)));
+
+        Assert.assertEquals(PrimitiveValueList.toIntArray(list), new int[]{1, 2});
+        Assert.assertEquals(PrimitiveValueList.toLongArray(list), new long[]{1, 2});
+    }
+
+    @Test(expectedExceptions = ConfigException.WrongType.class)
+    public void testBulkAccessorsWrongType() {
+        ConfigList list = new SimpleConfigList(origin, Collections.singletonList(
+            new ConfigString.Quoted(origin, "a")));
+
+        PrimitiveValueList.toIntArray(list);
+    }
+
+}
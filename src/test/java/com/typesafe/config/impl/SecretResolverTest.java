@@ -0,0 +1,154 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.ConfigFactory;
+import com.github.vitalibo.config.SecretStore;
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigResolveOptions;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SecretResolverTest {
+
+    private FakeSecretStore store;
+    private AtomicLong clock;
+    private SecretResolver secrets;
+
+    @BeforeMethod
+    public void setUp() {
+        store = new FakeSecretStore();
+        store.secrets.put("db/password", "s3cr3t");
+        store.secrets.put("db/ssl", "true");
+        store.secrets.put("api/key.v1", "k1");
+        store.secrets.put("api/key.v2", "k2");
+        clock = new AtomicLong();
+        secrets = new SecretResolver(store, Duration.ofMinutes(5), Runnable::run, clock::get);
+    }
+
+    @Test
+    public void testLoad() {
+        Config actual = ConfigFactory.load("secrets.yaml", ConfigParseOptions.defaults(),
+            ConfigResolveOptions.defaults(), YamlParseOptions.defaults().setSecretResolver(secrets));
+
+        Assert.assertEquals(actual.getString("database.password"), "s3cr3t");
+        Assert.assertEquals(actual.getString("database.url"), "jdbc:postgresql://db:5432/app?ssl=true");
+        Assert.assertEquals(actual.getStringList("api.keys"), Arrays.asList("k1", "k2"));
+        Assert.assertEquals(actual.getValue("database.password").origin().description(), "secret db/password");
+        Assert.assertEquals(store.batches, Collections.singletonList(
+            new HashSet<>(Arrays.asList("db/password", "db/ssl", "api/key.v1", "api/key.v2"))));
+    }
+
+    @Test
+    public void testPrefetchBatches() {
+        ConfigFactory.parseResources("secrets.yaml", ConfigParseOptions.defaults(),
+            YamlParseOptions.defaults().setSecretResolver(secrets));
+        secrets.setMaxBatchSize(3);
+
+        secrets.prefetch();
+        secrets.prefetch();
+
+        Assert.assertEquals(store.batches.size(), 2);
+        Assert.assertTrue(store.batches.stream().allMatch(batch -> batch.size() <= 3));
+        Assert.assertEquals(secrets.size(), 4);
+    }
+
+    @Test
+    public void testLookup() {
+        Assert.assertEquals(secrets.lookup("\"secret:db/password\"").unwrapped(), "s3cr3t");
+        Assert.assertEquals(secrets.lookup("\"secret:api/key\".v1").unwrapped(), "k1");
+        Assert.assertNull(secrets.lookup("\"secret:missing\""));
+        Assert.assertNull(secrets.lookup("db.password"));
+        Assert.assertEquals(store.batches.size(), 3);
+
+        secrets.lookup("\"secret:db/password\"");
+        Assert.assertEquals(store.batches.size(), 3);
+
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        secrets.lookup("\"secret:db/password\"");
+        Assert.assertEquals(store.batches.size(), 4);
+    }
+
+    @Test
+    public void testResolveMissing() {
+        Config config = com.typesafe.config.ConfigFactory.parseString("a = ${\"secret:missing\"}");
+
+        Assert.expectThrows(ConfigException.UnresolvedSubstitution.class,
+            () -> config.resolve(ConfigResolveOptions.defaults().appendResolver(secrets)));
+    }
+
+    @Test
+    public void testRefresh() {
+        Config config = com.typesafe.config.ConfigFactory.parseString("a = ${\"secret:db/password\"}");
+        ConfigResolveOptions options = ConfigResolveOptions.defaults().appendResolver(secrets);
+        Assert.assertEquals(config.resolve(options).getString("a"), "s3cr3t");
+
+        store.secrets.put("db/password", "rotated");
+        secrets.refresh();
+        Assert.assertEquals(config.resolve(options).getString("a"), "rotated");
+
+        store.failure = new IllegalStateException("unavailable");
+        Assert.expectThrows(ConfigException.Generic.class, () -> secrets.refresh());
+        Assert.assertEquals(config.resolve(options).getString("a"), "rotated");
+        Assert.assertSame(secrets.getLastError().getCause(), store.failure);
+    }
+
+    @Test
+    public void testScheduleRefresh() throws InterruptedException {
+        SecretResolver secrets = new SecretResolver(store, Duration.ofMillis(20));
+        secrets.lookup("\"secret:db/password\"");
+        CountDownLatch latch = new CountDownLatch(2);
+        store.listener = latch::countDown;
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+        try (SecretResolver.Refreshing ignored = secrets.scheduleRefresh(executor)) {
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(store.batches.get(1), Collections.singleton("db/password"));
+    }
+
+    private static class FakeSecretStore implements SecretStore {
+        final Map<String, String> secrets = new ConcurrentHashMap<>();
+        final List<Set<String>> batches = new CopyOnWriteArrayList<>();
+        volatile Exception failure;
+        volatile Runnable listener;
+
+        @Override
+        public Map<String, String> fetch(Set<String> names) throws Exception {
+            batches.add(new HashSet<>(names));
+            if (listener != null)
+                listener.run();
+            if (failure != null)
+                throw failure;
+
+            Map<String, String> values = new HashMap<>();
+            for (String name : names) {
+                if (secrets.containsKey(name))
+                    values.put(name, secrets.get(name));
+            }
+            return values;
+        }
+    }
+
+}
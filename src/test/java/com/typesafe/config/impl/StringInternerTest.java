@@ -0,0 +1,62 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.ConfigObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.yaml.snakeyaml.Yaml;
+
+public class StringInternerTest {
+
+    @Test
+    public void testIntern() {
+        StringInterner interner = new StringInterner();
+        String first = new String("enabled");
+        String second = new String("enabled");
+
+        Assert.assertSame(interner.intern(first), first);
+        Assert.assertSame(interner.intern(second), first);
+        Assert.assertEquals(interner.size(), 1);
+        Assert.assertEquals(interner.lookups(), 2);
+        Assert.assertEquals(interner.hits(), 1);
+    }
+
+    @Test
+    public void testInternTooLong() {
+        StringInterner interner = new StringInterner(16, 3);
+        String string = new String("abcd");
+
+        Assert.assertSame(interner.intern(string), string);
+        Assert.assertEquals(interner.size(), 0);
+        Assert.assertEquals(interner.lookups(), 0);
+    }
+
+    @Test
+    public void testInternBounded() {
+        StringInterner interner = new StringInterner(0, 64);
+        String string = new String("INFO");
+
+        Assert.assertSame(interner.intern(string), string);
+        Assert.assertFalse(interner.intern(new String("INFO")) == string);
+        Assert.assertEquals(interner.size(), 0);
+        Assert.assertEquals(interner.rejected(), 2);
+    }
+
+    @Test
+    public void testInternDuringConversion() {
+        StringInterner interner = new StringInterner();
+        YamlParseOptions options = YamlParseOptions.defaults().setStringInterner(interner);
+
+        ConfigObject first = YamlParser.fromPathMap(new Yaml().load(
+            "log: {level: INFO}\nregion: us-east-1"), "first", options);
+        ConfigObject second = YamlParser.fromPathMap(new Yaml().load(
+            "log.level: INFO\nregion: us-east-1"), "second", options);
+
+        Assert.assertSame(first.toConfig().getString("log.level"), second.toConfig().getString("log.level"));
+        Assert.assertSame(first.toConfig().getString("region"), second.toConfig().getString("region"));
+        Assert.assertSame(((ConfigObject) first.get("log")).keySet().iterator().next(),
+            ((ConfigObject) second.get("log")).keySet().iterator().next());
+        Assert.assertTrue(interner.hits() >= 4);
+    }
+
+}
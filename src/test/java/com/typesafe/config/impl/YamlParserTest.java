@@ -1,19 +1,35 @@
 package com.typesafe.config.impl;
 
+import com.github.vitalibo.config.ConfigLoadReport;
+import com.github.vitalibo.config.LoadRecorder;
+import com.github.vitalibo.config.LoadStage;
+import com.github.vitalibo.config.YamlParseOptions;
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
 import com.typesafe.config.ConfigMemorySize;
 import com.typesafe.config.ConfigObject;
 import com.typesafe.config.ConfigOrigin;
 import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigValue;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public class YamlParserTest {
@@ -29,6 +45,38 @@ public class YamlParserTest {
         Assert.assertTrue(description.matches("test\\.yaml @ file:/.+/test\\.yaml: 0"));
     }
 
+    @Test
+    public void testParseResourcesYamlSyntaxLineNumbers() {
+        ConfigObject object = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults());
+        Config actual = object.toConfig().resolve();
+
+        Assert.assertEquals(actual.getValue("ints").origin().lineNumber(), 2);
+        Assert.assertEquals(actual.getValue("ints.fortyTwo").origin().lineNumber(), 2);
+        Assert.assertEquals(((ConfigObject) object.get("ints")).get("fortyTwoAgain").origin().lineNumber(), 3);
+        Assert.assertEquals(actual.getValue("arrays.ofInt").origin().lineNumber(), 31);
+        Assert.assertEquals(((ConfigList) ((ConfigObject) object.get("arrays")).get("ofString")).get(1)
+            .origin().lineNumber(), 36);
+        Assert.assertSame(actual.getValue("ints.fortyTwo").origin(), actual.getValue("ints").origin());
+        Assert.assertTrue(actual.getValue("ints.fortyTwo").origin().description()
+            .matches("test\\.yaml @ file:/.+/test\\.yaml: 2"));
+        try {
+            actual.getInt("strings.abcd");
+            Assert.fail();
+        } catch (ConfigException.WrongType e) {
+            Assert.assertTrue(e.getMessage().contains("test.yaml: 12"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testParseResourcesYamlSyntaxWithoutLineNumbers() {
+        ConfigObject actual = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults(),
+            YamlParseOptions.defaults().setLineNumbers(false));
+
+        Assert.assertSame(actual.toConfig().getValue("ints.fortyTwo").origin(), actual.origin());
+        Assert.assertSame(((ConfigList) ((ConfigObject) actual.get("arrays")).get("ofString")).get(1)
+            .origin(), actual.origin());
+    }
+
     @Test
     public void testParseResourcesYamlSyntaxInts() {
         Config actual = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults())
@@ -163,6 +211,332 @@ public class YamlParserTest {
             new BigInteger("1000000000000000000000000"), new BigInteger("500000000000000000000000")));
     }
 
+    @Test
+    public void testParseYamlSyntaxUnitTags() throws IOException {
+        java.nio.file.Path file = write(Files.createTempDirectory("units").resolve("units.yaml"),
+            "timeout: !duration 1500us\nsize: !bytes 0.5M\nhuge: !bytes 1YB\nplain: 1500us\n");
+
+        Config actual = YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), YamlParseOptions.defaults()).toConfig();
+
+        ConfigUnitString timeout = (ConfigUnitString) actual.getValue("timeout");
+        Assert.assertEquals(timeout.getDuration(), Duration.ofNanos(1_500_000));
+        Assert.assertNull(timeout.getMemorySize());
+        Assert.assertEquals(timeout.origin().lineNumber(), 1);
+        Assert.assertEquals(actual.getString("timeout"), "1500us");
+        Assert.assertEquals(actual.getDuration("timeout"), Duration.ofNanos(1_500_000));
+        ConfigUnitString size = (ConfigUnitString) actual.getValue("size");
+        Assert.assertEquals(size.getMemorySize().toBytes(), 512L * 1024);
+        Assert.assertEquals(((ConfigUnitString) actual.getValue("huge")).getMemorySize().toBytesBigInteger(),
+            new BigInteger("1000000000000000000000000"));
+        Assert.assertFalse(actual.getValue("plain") instanceof ConfigUnitString);
+    }
+
+    @Test
+    public void testParseYamlSyntaxUnitTagsInvalid() throws IOException {
+        java.nio.file.Path file = write(Files.createTempDirectory("units").resolve("units.yaml"),
+            "a: 1\ntimeout: !duration 5 apples\n");
+
+        ConfigException.Parse e = Assert.expectThrows(ConfigException.Parse.class, () ->
+            YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), YamlParseOptions.defaults()));
+
+        Assert.assertTrue(e.getMessage().contains(": 2: !duration value is not a duration: '5 apples'"),
+            e.getMessage());
+    }
+
+    @Test
+    public void testParseResourcesYamlSyntaxUnitStrings() {
+        Config actual = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults(),
+            YamlParseOptions.defaults().setUnitStrings(true)).toConfig().resolve();
+        Config expected = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults())
+            .toConfig().resolve();
+
+        Assert.assertEquals(actual.root(), expected.root());
+        Assert.assertEquals(((ConfigUnitString) actual.getValue("durations.micros")).getDuration(),
+            Duration.ofMillis(2));
+        Assert.assertEquals(((ConfigUnitString) actual.getValue("durations.largeNanos")).getDuration(),
+            Duration.ofNanos(4878955355435272204L));
+        Assert.assertEquals(((ConfigUnitString) actual.getValue("memsizes.halfMeg")).getMemorySize().toBytes(),
+            512L * 1024);
+        Assert.assertEquals(actual.getDuration("durations.halfSecond"), Duration.ofMillis(500));
+        Assert.assertFalse(actual.getValue("durations.secondAsNumber") instanceof ConfigUnitString);
+    }
+
+    @Test
+    public void testFromStringUnitStringsInternedOnce() {
+        StringInterner interner = new StringInterner();
+        interner.intern(new String("plain"));
+        LoadRecorder recorder = new LoadRecorder();
+        YamlParseOptions options = YamlParseOptions.defaults().setUnitStrings(true)
+            .setStringInterner(interner).setLoadRecorder(recorder);
+
+        AbstractConfigValue actual = YamlParser.fromString(SimpleConfigOrigin.newSimple("test"), "plain", options);
+
+        Assert.assertEquals(actual.unwrapped(), "plain");
+        Assert.assertEquals(recorder.report().getCacheHits(), 1);
+    }
+
+    @Test
+    public void testFromAnyRefDuration() {
+        ConfigValue actual = YamlParser.fromAnyRef(Duration.ofNanos(1_500_001), "test");
+
+        Assert.assertEquals(actual.unwrapped(), "1500001ns");
+        Assert.assertEquals(((ConfigUnitString) actual).getDuration(), Duration.ofNanos(1_500_001));
+        Assert.assertEquals(actual.atKey("a").getDuration("a"), Duration.ofNanos(1_500_001));
+        Assert.assertEquals(YamlParser.fromAnyRef(Duration.ofMinutes(90), "test").unwrapped(), "90m");
+    }
+
+    @Test
+    public void testParseYamlSyntaxInclude() throws IOException {
+        java.nio.file.Path directory = Files.createTempDirectory("include");
+        write(directory.resolve("common/db.yaml"), "host: localhost\nport: 5432\n");
+        write(directory.resolve("common/hosts.yaml"), "- a\n- b\n");
+        java.nio.file.Path main = write(directory.resolve("main.yaml"),
+            "db: !include common/db.yaml\nhosts: !include common/hosts.yaml\nname: main\n");
+
+        Config actual = YamlParser.parseUrlYamlSyntax(main.toUri().toURL(), YamlParseOptions.defaults()).toConfig();
+
+        Assert.assertEquals(actual.getString("db.host"), "localhost");
+        Assert.assertEquals(actual.getInt("db.port"), 5432);
+        Assert.assertEquals(actual.getStringList("hosts"), Arrays.asList("a", "b"));
+        Assert.assertEquals(actual.getString("name"), "main");
+        Assert.assertTrue(actual.getValue("db.port").origin().url().toString().endsWith("common/db.yaml"));
+        Assert.assertEquals(actual.getValue("db.port").origin().lineNumber(), 2);
+    }
+
+    @Test
+    public void testParseYamlSyntaxIncludeClasspath() throws IOException {
+        java.nio.file.Path main = write(Files.createTempDirectory("include").resolve("main.yaml"),
+            "test: !include test.yaml\n");
+
+        Config actual = YamlParser.parseUrlYamlSyntax(main.toUri().toURL(), YamlParseOptions.defaults()).toConfig();
+
+        Assert.assertEquals(actual.getInt("test.ints.fortyTwo"), 42);
+    }
+
+    @Test
+    public void testParseYamlSyntaxIncludeRecordedOnce() throws IOException {
+        java.nio.file.Path directory = Files.createTempDirectory("include");
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            large.append("key").append(i).append(": value").append(i).append('\n');
+        }
+        write(directory.resolve("large.yaml"), large.toString());
+        java.nio.file.Path main = write(directory.resolve("main.yaml"), "large: !include large.yaml\n");
+        LoadRecorder recorder = new LoadRecorder();
+        YamlParseOptions options = YamlParseOptions.defaults().setLoadRecorder(recorder);
+
+        long start = System.nanoTime();
+        Config actual = YamlParser.parseUrlYamlSyntax(main.toUri().toURL(), options).toConfig();
+        long elapsed = System.nanoTime() - start;
+
+        Assert.assertEquals(actual.getString("large.key19999"), "value19999");
+        ConfigLoadReport report = recorder.report();
+        long recorded = report.getTime(LoadStage.FILE_READ).toNanos() + report.getTime(LoadStage.YAML_PARSE).toNanos()
+            + report.getTime(LoadStage.VALUE_CONVERSION).toNanos();
+        Assert.assertTrue(recorded <= elapsed, recorded + " > " + elapsed);
+        Assert.assertEquals(report.getObjects(), 2);
+    }
+
+    @Test
+    public void testParseYamlSyntaxIncludeShared() throws IOException {
+        java.nio.file.Path directory = Files.createTempDirectory("include");
+        write(directory.resolve("shared.yaml"), "key: value\n");
+        write(directory.resolve("a.yaml"), "shared: !include shared.yaml\n");
+        write(directory.resolve("b.yaml"), "shared: !include ./shared.yaml\n");
+        java.nio.file.Path main = write(directory.resolve("main.yaml"),
+            "a: !include a.yaml\nb: !include b.yaml\nc: !include shared.yaml\n");
+        YamlIncludes includes = new YamlIncludes();
+        YamlParseOptions options = YamlParseOptions.defaults().setIncludes(includes);
+
+        Config actual = YamlParser.parseUrlYamlSyntax(main.toUri().toURL(), options).toConfig();
+        Config other = YamlParser.parseUrlYamlSyntax(directory.resolve("a.yaml").toUri().toURL(), options)
+            .toConfig();
+
+        Assert.assertEquals(includes.size(), 3);
+        Assert.assertEquals(actual.getString("a.shared.key"), "value");
+        Assert.assertSame(actual.getValue("a.shared"), actual.getValue("b.shared"));
+        Assert.assertSame(actual.getValue("a.shared"), actual.getValue("c"));
+        Assert.assertSame(other.getValue("shared"), actual.getValue("c"));
+    }
+
+    @Test
+    public void testParseYamlSyntaxIncludeCycle() throws IOException {
+        java.nio.file.Path directory = Files.createTempDirectory("include");
+        write(directory.resolve("a.yaml"), "b: !include b.yaml\n");
+        write(directory.resolve("b.yaml"), "a: !include a.yaml\n");
+
+        ConfigException.Parse e = Assert.expectThrows(ConfigException.Parse.class, () ->
+            YamlParser.parseUrlYamlSyntax(directory.resolve("a.yaml").toUri().toURL(), YamlParseOptions.defaults()));
+
+        Assert.assertTrue(e.getMessage().contains("include cycle"), e.getMessage());
+        Assert.assertTrue(e.getMessage().matches(".*a\\.yaml -> .*b\\.yaml -> .*a\\.yaml.*"), e.getMessage());
+    }
+
+    @Test(timeOut = 10000)
+    public void testParseYamlSyntaxIncludeSiblingCycle() throws IOException {
+        java.nio.file.Path directory = Files.createTempDirectory("include");
+        write(directory.resolve("x.yaml"), "y: !include y.yaml\n");
+        write(directory.resolve("y.yaml"), "x: !include x.yaml\n");
+        java.nio.file.Path root = write(directory.resolve("root.yaml"), "a: !include x.yaml\nb: !include y.yaml\n");
+        YamlIncludes includes = new YamlIncludes();
+
+        ConfigException.Parse e = Assert.expectThrows(ConfigException.Parse.class, () ->
+            YamlParser.parseUrlYamlSyntax(root.toUri().toURL(), YamlParseOptions.defaults().setIncludes(includes)));
+
+        Assert.assertTrue(e.getMessage().contains("include cycle"), e.getMessage());
+        Assert.assertEquals(includes.size(), 0);
+        write(directory.resolve("y.yaml"), "x: 1\n");
+        Config actual = YamlParser.parseUrlYamlSyntax(root.toUri().toURL(),
+            YamlParseOptions.defaults().setIncludes(includes)).toConfig();
+        Assert.assertEquals(actual.getInt("a.y.x"), 1);
+    }
+
+    @Test
+    public void testParseYamlSyntaxIncludeMissing() throws IOException {
+        java.nio.file.Path main = write(Files.createTempDirectory("include").resolve("main.yaml"),
+            "a: !include missing.yaml\n");
+
+        ConfigException.IO e = Assert.expectThrows(ConfigException.IO.class, () ->
+            YamlParser.parseUrlYamlSyntax(main.toUri().toURL(), YamlParseOptions.defaults()));
+
+        Assert.assertTrue(e.getMessage().contains("missing.yaml"), e.getMessage());
+        Assert.assertTrue(e.getMessage().contains(": 1:"), e.getMessage());
+    }
+
+    @Test
+    public void testFromPathMapParallel() {
+        Map<String, Object> flags = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String group = "group" + (i % 50);
+            flags.put(group + ".flag" + i + ".enabled", i % 3 == 0);
+            flags.put(group + ".flag" + i + ".owner", "team" + (i % 7));
+            flags.put(group + ".flag" + i + ".rollout", Arrays.asList("eu", "us", i));
+            flags.put(group + ".flag" + i + ".rules", Collections.singletonMap("percent", i % 100));
+        }
+        YamlParseOptions options = YamlParseOptions.defaults().setParallelThreshold(16);
+
+        ConfigObject expected = YamlParser.fromPathMap(flags, "flags", YamlParseOptions.defaults());
+        ConfigObject actual = YamlParser.fromPathMap(flags, "flags", options);
+
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(actual.render(), expected.render());
+    }
+
+    @Test
+    public void testFromAnyRefParallel() {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", i);
+            map.put("name", "item" + i);
+            map.put("tags", Arrays.asList("a", "b" + i));
+            list.add(map);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            YamlParseOptions options = YamlParseOptions.defaults().setParallelThreshold(8).setForkJoinPool(pool);
+
+            ConfigValue expected = YamlParser.fromAnyRef(list, "items", YamlParseOptions.defaults());
+            ConfigValue actual = YamlParser.fromAnyRef(list, "items", options);
+
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(actual.render(), expected.render());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFromAnyRefParallelFailure() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, i);
+        }
+        map.put(42, "value");
+        YamlParseOptions options = YamlParseOptions.defaults().setParallelThreshold(8);
+
+        Assert.expectThrows(ConfigException.BugOrBroken.class, () ->
+            YamlParser.fromAnyRef(map, origin, FromMapMode.KEYS_ARE_KEYS, options));
+        Assert.expectThrows(ConfigException.BugOrBroken.class, () ->
+            YamlParser.fromPathMap(origin, map, options));
+    }
+
+    @Test
+    public void testParseYamlSyntaxParallel() throws IOException {
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            yaml.append("key").append(i).append(":\n")
+                .append("  value: ").append(i).append('\n')
+                .append("  list: [a, b, ").append(i).append("]\n");
+        }
+        java.nio.file.Path file = write(Files.createTempDirectory("parallel").resolve("large.yaml"),
+            yaml.toString());
+        YamlParseOptions options = YamlParseOptions.defaults().setParallelThreshold(4);
+
+        ConfigObject expected = YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), YamlParseOptions.defaults());
+        ConfigObject actual = YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), options);
+
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(actual.render(), expected.render());
+    }
+
+    @Test
+    public void testParseYamlSyntaxSplit() throws IOException {
+        StringBuilder yaml = new StringBuilder("# catalog\n---\n");
+        for (int i = 0; i < 200; i++) {
+            yaml.append("item").append(i).append(":\n")
+                .append("  id: ").append(i).append('\n')
+                .append("  description: |\n    first line\n    item").append(i).append(": not a key\n")
+                .append("  tags: [a,\n    b]\n")
+                .append("  anchored: &anchor").append(i).append(" {x: ").append(i).append("}\n");
+            if (i % 10 == 0)
+                yaml.append("item").append(i).append("Ref: *anchor").append(i).append('\n');
+        }
+        yaml.append("item0:\n  id: last\n");
+        java.nio.file.Path file = write(Files.createTempDirectory("split").resolve("catalog.yaml"), yaml.toString());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            YamlParseOptions options = YamlParseOptions.defaults().setSplitThreshold(1024).setForkJoinPool(pool);
+
+            ConfigObject expected = YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), YamlParseOptions.defaults());
+            ConfigObject actual = YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), options);
+
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(actual.render(), expected.render());
+            Assert.assertEquals(actual.toConfig().getValue("item150.tags").origin().lineNumber(),
+                expected.toConfig().getValue("item150.tags").origin().lineNumber());
+            Assert.assertEquals(actual.toConfig().getString("item0.id"), "last");
+            Assert.assertEquals(YamlSplitter.split(Files.readAllBytes(file), 4).size(), 4);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseYamlSyntaxSplitFallback() throws IOException {
+        java.nio.file.Path file = write(Files.createTempDirectory("split").resolve("invalid.yaml"),
+            "a: 1\nb: 2\nc: [3\nd: 4\n");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            YamlParseOptions options = YamlParseOptions.defaults().setSplitThreshold(1).setForkJoinPool(pool);
+
+            Exception expected = Assert.expectThrows(Exception.class, () ->
+                YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), YamlParseOptions.defaults()));
+            Exception actual = Assert.expectThrows(Exception.class, () ->
+                YamlParser.parseUrlYamlSyntax(file.toUri().toURL(), options));
+
+            Assert.assertEquals(actual.getClass(), expected.getClass());
+            Assert.assertEquals(actual.getMessage(), expected.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static java.nio.file.Path write(java.nio.file.Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
     @DataProvider
     public Object[][] samples() {
         return new Object[][]{
@@ -0,0 +1,113 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigValueFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class YamlRendererTest {
+
+    @Test
+    public void testRender() {
+        Config config = ConfigFactory.parseString(
+            "a { b = 1, c = [x, {d = true}, [1, 2]], e = {}, f = [] }, g = null");
+
+        String actual = YamlRenderer.defaults().render(config.root());
+
+        Assert.assertEquals(actual, "" +
+            "a:\n" +
+            "  b: 1\n" +
+            "  c:\n" +
+            "    - x\n" +
+            "    - d: true\n" +
+            "    - - 1\n" +
+            "      - 2\n" +
+            "  e: {}\n" +
+            "  f: []\n" +
+            "g: null\n");
+    }
+
+    @Test
+    public void testRenderRoundTrip() throws IOException {
+        ConfigObject object = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults());
+        ConfigObject expected = object.toConfig().resolve().root();
+
+        ConfigObject actual = parse(YamlRenderer.defaults().render(expected));
+
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testRenderRoundTripStrings() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        Arrays.asList("", "true", "No", "null", "~", "10", "1.5", ".inf", "a: b", "# x", "- x", "x #y", " x", "x ",
+            "${x}", "$", "$$", "a$$b", "cost $5", "line\nbreak\r\n", "tab\t", "quote\" 'single'", "back\\slash",
+            "h\u00e9llo \u4e16\u754c \ud83d\ude00", "\u0000\u0085\u2028\ufeff", "plain", "with.dot/slash-dash_")
+            .forEach(s -> map.put("k" + map.size(), s));
+        Arrays.asList("a.b", "10", "true", "with space", "$x", "\"q\"")
+            .forEach(key -> map.put(key, key));
+        map.put("", "empty key");
+        map.put("numbers", Arrays.asList(1, 3000000000L, 1.5, 1e300, -0.5, Double.POSITIVE_INFINITY));
+        map.put("booleans", Arrays.asList(true, false));
+        map.put("nested", Collections.singletonList(Collections.singletonList(Collections.emptyMap())));
+        ConfigObject expected = ConfigValueFactory.fromMap(map);
+
+        ConfigObject actual = parse(YamlRenderer.defaults().render(expected));
+
+        Assert.assertEquals(actual.toConfig().resolve().root(), expected);
+    }
+
+    @Test
+    public void testRenderOriginComments() throws IOException {
+        Config config = YamlParser.parseResourcesYamlSyntax("test.yaml", ConfigParseOptions.defaults())
+            .toConfig().resolve();
+
+        String actual = YamlRenderer.defaults().setOriginComments(true).render(config.root());
+
+        Assert.assertTrue(actual.matches("(?s).*\n  fortyTwo: 42 # test\\.yaml @ file:/.+/test\\.yaml: 2\n.*"), actual);
+        Assert.assertEquals(parse(actual), config.root());
+    }
+
+    @Test
+    public void testRenderWriterAndByteBuffer() throws IOException {
+        Config config = ConfigFactory.parseString("a { b = \"h\u00e9llo \ud83d\ude00\", c = [1, 2] }");
+        String expected = YamlRenderer.defaults().render(config.root());
+        StringWriter writer = new StringWriter();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        YamlRenderer.defaults().render(config.root(), writer);
+        YamlRenderer.defaults().render(config.root(), buffer);
+
+        Assert.assertEquals(writer.toString(), expected);
+        buffer.flip();
+        Assert.assertEquals(StandardCharsets.UTF_8.decode(buffer).toString(), expected);
+    }
+
+    @Test
+    public void testRenderNotResolved() {
+        Config config = ConfigFactory.parseString("a = 1, b = ${a}");
+
+        Assert.expectThrows(ConfigException.NotResolved.class, () -> YamlRenderer.defaults().render(config.root()));
+    }
+
+    private static ConfigObject parse(String yaml) throws IOException {
+        return YamlParser.parseYamlSyntax(new URL("file:/render.yaml"), yaml.getBytes(StandardCharsets.UTF_8),
+            YamlParseOptions.defaults());
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.typesafe.config.impl;
+
+import com.github.vitalibo.config.YamlParseOptions;
+import com.typesafe.config.ConfigObject;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+public class YamlSplitterTest {
+
+    @DataProvider
+    public Object[][] samples() {
+        return new Object[][]{
+            {"a: 1\nb: 2\nc: 3\n", "b,c"},
+            {"# comment\na: 1\n\n  # indented\nb:\n  c: 2\n", "b"},
+            {"---\na: 1\nb: 2\n", "b"},
+            {"a: |\n  text\n  b: not a key\nb: 2\n", "b"},
+            {"a: >-\n\n  text\n\nb: 2\n", "b"},
+            {"a: [1,\n2]\nb: {c: 'd',\ne: f}\ng: 3\n", "b,g"},
+            {"a: \"x\ny: z\"\nb: 'it''s\nc: d'\ne: 1\n", "b,e"},
+            {"a: don't\nb: x 'y\nc: 1\n", "b,c"},
+            {"a: &x 1\nb: 2\nc: *x\nd: 3\n", "d"},
+            {"a: &x 1\nb: *x\n&y c: 2\nd: 3\n", "d"},
+            {"a: 1 # [not a flow\nb: 2\n", "b"},
+            {"a: 1\r\nb: 2\rc: 3\n", "b,c"},
+            {"\"a\": 1\n'b': 2\n", "'b'"}
+        };
+    }
+
+    @Test(dataProvider = "samples")
+    public void testScan(String yaml, String expected) {
+        byte[] bytes = yaml.getBytes(StandardCharsets.UTF_8);
+
+        List<int[]> actual = YamlSplitter.scan(bytes);
+
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(actual.stream()
+            .map(key -> new String(bytes, key[0], 3, StandardCharsets.UTF_8).split(":")[0])
+            .collect(Collectors.joining(",")), expected);
+    }
+
+    @DataProvider
+    public Object[][] unsplittable() {
+        return new Object[][]{
+            {"%YAML 1.1\n---\na: 1\nb: 2\n"},
+            {"a: 1\n---\nb: 2\n"},
+            {"a: 1\n...\n"},
+            {"- a\n- b\n"},
+            {"{a: 1,\nb: 2}\n"},
+            {"<<: {a: 1}\nb: 2\n"},
+            {"? a\n: 1\n"},
+            {"a: 1\nb: x\u2028y\n"}
+        };
+    }
+
+    @Test(dataProvider = "unsplittable")
+    public void testScanUnsplittable(String yaml) {
+        Assert.assertNull(YamlSplitter.scan(yaml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testSplit() {
+        byte[] bytes = "a: 1\nb: 2\nc: 3\nd: 4\n".getBytes(StandardCharsets.UTF_8);
+
+        List<int[]> actual = YamlSplitter.split(bytes, 2);
+
+        Assert.assertEquals(actual.size(), 2);
+        Assert.assertEquals(actual.get(0), new int[]{0, 10, 0});
+        Assert.assertEquals(actual.get(1), new int[]{10, 20, 2});
+        Assert.assertNull(YamlSplitter.split(bytes, 1));
+        Assert.assertNull(YamlSplitter.split("a: 1\n".getBytes(StandardCharsets.UTF_8), 4));
+    }
+
+    @Test
+    public void testSplitDuplicateKeys() throws MalformedURLException {
+        byte[] bytes = "a: {b: 1}\nb: {c: 2}\na: {z: 9}\nd: 4\ne: 5\n".getBytes(StandardCharsets.UTF_8);
+        URL url = new URL("file:/duplicates.yaml");
+        ForkJoinPool pool = new ForkJoinPool(5);
+        try {
+            YamlParseOptions options = YamlParseOptions.defaults().setSplitThreshold(1).setForkJoinPool(pool);
+
+            ConfigObject expected = YamlParser.parseYamlSyntax(url, bytes, YamlParseOptions.defaults());
+            ConfigObject actual = YamlParser.parseYamlSyntax(url, bytes, options);
+
+            Assert.assertEquals(YamlSplitter.split(bytes, 5).size(), 4);
+            Assert.assertEquals(new ArrayList<>(actual.keySet()), Arrays.asList("b", "a", "d", "e"));
+            Assert.assertEquals(new ArrayList<>(actual.keySet()), new ArrayList<>(expected.keySet()));
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(actual.toConfig().getValue("a").origin().lineNumber(), 3);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}